@@ -5,6 +5,8 @@ import htsjdk.samtools.util.BlockGunzipper;
 import htsjdk.samtools.util.Log;
 import htsjdk.samtools.util.zip.InflaterFactory;
 import org.broadinstitute.barclay.argparser.Argument;
+import org.broadinstitute.barclay.argparser.ArgumentCollection;
+import org.mulinlab.varnote.cmdline.collection.ReaderArgumentCollection;
 import org.mulinlab.varnote.cmdline.constant.Arguments;
 import org.mulinlab.varnote.constants.GlobalParameter;
 import org.mulinlab.varnote.utils.LoggingUtils;
@@ -18,6 +20,9 @@ public abstract class RunProgram extends CMDProgram {
             doc = "Use the JDK Inflater instead of the IntelInflater for reading index.", optional = true)
     protected Boolean USE_JDK_INFLATER = false;
 
+    @ArgumentCollection
+    protected final ReaderArgumentCollection readerArguments = new ReaderArgumentCollection();
+
     @Override
     protected void onStartup() {
         if (!USE_JDK_INFLATER) {
@@ -25,6 +30,7 @@ public abstract class RunProgram extends CMDProgram {
         } else {
             BlockGunzipper.setDefaultInflaterFactory(new InflaterFactory());
         }
+        readerArguments.initReaders();
 
         if(!islog) LoggingUtils.setLoggingLevel(Log.LogLevel.ERROR);
         else LoggingUtils.setLoggingLevel(Log.LogLevel.INFO);
@@ -12,9 +12,15 @@ public final class AnnoOutputArgumentCollection extends OutputArgumentCollection
     @Argument( shortName = Arguments.ANNO_OF_SHORT, fullName = Arguments.ANNO_OF_LONG, optional = true, doc = "Output format.")
     public AnnoOutFormat outFormat = null;
 
+    @Argument( shortName = Arguments.ANNO_OI_SHORT, fullName = Arguments.ANNO_OI_LONG, optional = true,
+            doc = "A flag to compress the output with BGZF and build its tabix index (.tbi) in the same pass, so the output can be queried by region right away. The query should be sorted by chr column, start column."
+    )
+    public boolean isIndex = false;
+
     public OutParam getOutParam(OutParam outParam) {
         outParam = super.getOutParam(outParam);
         if(outFormat != null) ((AnnoOutParam)outParam).setAnnoOutFormat(outFormat);
+        outParam.setIndex(isIndex);
         return outParam;
     }
 }
@@ -9,7 +9,7 @@ public class OutputArgumentCollection {
     private static final long serialVersionUID = 1L;
 
     @Argument( shortName = Arguments.INTERSECT_OUT_SHORT, fullName = Arguments.INTERSECT_OUT_LONG, optional = true,
-            doc = "Output file path. By default, output file will be written into the same folder as the input file."
+            doc = "Output file path, - for the standard output (uncompressed). By default, output file will be written into the same folder as the input file, or to the standard output if the query is read from the standard input."
     )
     public String outPath = null;
 
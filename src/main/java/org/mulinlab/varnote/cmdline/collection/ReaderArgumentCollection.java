@@ -0,0 +1,25 @@
+package org.mulinlab.varnote.cmdline.collection;
+
+import org.broadinstitute.barclay.argparser.Argument;
+import org.mulinlab.varnote.cmdline.constant.Arguments;
+import org.mulinlab.varnote.constants.GlobalParameter;
+import org.mulinlab.varnote.utils.gz.BlockCache;
+import org.mulinlab.varnote.utils.gz.MappedFile;
+
+public final class ReaderArgumentCollection {
+    private static final long serialVersionUID = 1L;
+
+    @Argument(fullName = Arguments.BLOCK_CACHE_SIZE_LONG, shortName = Arguments.BLOCK_CACHE_SIZE_SHORT,
+            doc = "Size (MB) of the inflated block cache shared by all threads for reading database records. Sets 0 to disable the cache.", optional = true)
+    public int blockCacheSize = GlobalParameter.DEFAULT_BLOCK_CACHE_SIZE;
+
+    @Argument(fullName = Arguments.MMAP_LONG, shortName = Arguments.MMAP_SHORT,
+            doc = "Map database and index files into memory once and share them by all threads, instead of opening the files for each thread.", optional = true)
+    public boolean mmap = GlobalParameter.DEFAULT_MMAP;
+
+    /** set up the shared block cache and file mapping used by the database readers */
+    public void initReaders() {
+        BlockCache.getInstance().setMaxSize(blockCacheSize * 1024L * 1024L);
+        MappedFile.setEnabled(mmap);
+    }
+}
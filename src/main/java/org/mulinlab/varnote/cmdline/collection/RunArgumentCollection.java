@@ -12,6 +12,26 @@ public final class RunArgumentCollection {
     )
     private Integer threads = GlobalParameter.DEFAULT_THREAD;
 
+    @Argument( shortName = Arguments.INTERSECT_SEARCH_MODE_SHORT, fullName = Arguments.INTERSECT_SEARCH_MODE_LONG, optional = true,
+            doc = "Searching mode, 0:random access mode, 1:mix mode, 2:sweep mode, 3:auto mode (choose mix or sweep mode for each database and chromosome by the density of the queries)."
+    )
+    private Integer searchMode = GlobalParameter.DEFAULT_MODE.getNum();
+
+    @Argument( shortName = Arguments.INTERSECT_DB_PARALLEL_SHORT, fullName = Arguments.INTERSECT_DB_PARALLEL_LONG, optional = true,
+            doc = "Query the databases at the same time for chunks of query records, useful when there are many databases and a small query file."
+    )
+    private Boolean dbParallel = GlobalParameter.DEFAULT_DB_PARALLEL;
+
+    @Argument( shortName = Arguments.INTERSECT_SORT_QUERY_SHORT, fullName = Arguments.INTERSECT_SORT_QUERY_LONG, optional = true,
+            doc = "Sort the query records by chromosome and position (in a temporary file) before searching, use it for unsorted query files."
+    )
+    private Boolean sortQuery = GlobalParameter.DEFAULT_SORT_QUERY;
+
+    @Argument( shortName = Arguments.INTERSECT_KEEP_ORDER_SHORT, fullName = Arguments.INTERSECT_KEEP_ORDER_LONG, optional = true,
+            doc = "Sort the query records before searching and write the results in the order of the query file."
+    )
+    private Boolean keepOrder = GlobalParameter.DEFAULT_KEEP_ORDER;
+
     @Argument( shortName = "ALV", fullName = "allowLargeVariants", optional = true,
             doc = "Indicator to allow large query intervals/variants or not"
     )
@@ -26,6 +46,22 @@ public final class RunArgumentCollection {
         return threads;
     }
 
+    public Integer getSearchMode() {
+        return searchMode;
+    }
+
+    public Boolean getDbParallel() {
+        return dbParallel;
+    }
+
+    public Boolean getSortQuery() {
+        return sortQuery;
+    }
+
+    public Boolean getKeepOrder() {
+        return keepOrder;
+    }
+
     public Boolean getAllowLargeVariants() {
         return allowLargeVariants;
     }
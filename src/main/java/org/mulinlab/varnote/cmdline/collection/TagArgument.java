@@ -59,6 +59,7 @@ public final class TagArgument implements TaggedArgument {
         String index = tagAttributes.get("index");
         String mode = tagAttributes.get("mode");
         String tag = tagAttributes.get("tag");
+        String filter = tagAttributes.get("filter");
 
         if(index != null) {
             dbParam.setIndexType(index);
@@ -71,6 +72,10 @@ public final class TagArgument implements TaggedArgument {
         if(tag != null) {
             dbParam.setOutName(tag);
         }
+
+        if(filter != null) {
+            dbParam.setFilter(filter);
+        }
         return dbParam;
     }
 
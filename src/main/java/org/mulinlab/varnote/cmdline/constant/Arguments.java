@@ -31,17 +31,44 @@ public final class Arguments {
     public static final String INDEX_REPLACE_HEADER_SHORT = "RH";
     public static final String INDEX_REPLACE_HEADER_LONG = "reheader";
 
+    public static final String INDEX_LONG_FEATURE_SHORT = "LF";
+    public static final String INDEX_LONG_FEATURE_LONG = "long-feature";
+
+    public static final String INDEX_STAT_COLUMN_SHORT = "SC";
+    public static final String INDEX_STAT_COLUMN_LONG = "stat-columns";
+
+    public static final String INDEX_ANNO_COLUMN_SHORT = "AC";
+    public static final String INDEX_ANNO_COLUMN_LONG = "anno-columns";
+
+    public static final String INDEX_ALLELE_HASH_SHORT = "AH";
+    public static final String INDEX_ALLELE_HASH_LONG = "allele-hash";
+
+    public static final String INDEX_ALLELE_BLOOM_SHORT = "AB";
+    public static final String INDEX_ALLELE_BLOOM_LONG = "allele-bloom";
+
 
     //query
     public static final String USE_JDKI_SHORT = "UJI";
     public static final String USE_JDKI_LONG = "use-jdk-inflater";
 
+    public static final String BLOCK_CACHE_SIZE_SHORT = "BCS";
+    public static final String BLOCK_CACHE_SIZE_LONG = "block-cache-size";
+
+    public static final String MMAP_SHORT = "MM";
+    public static final String MMAP_LONG = "mmap";
+
     public static final String QUERY_INPUT_SHORT = "Q";
     public static final String QUERY_INPUT_LONG = "q-region";
 
     public static final String QUERY_LABEL_SHORT = "L";
     public static final String QUERY_LABEL_LONG = "is-label";
 
+    public static final String SERVER_PORT_SHORT = "P";
+    public static final String SERVER_PORT_LONG = "port";
+
+    public static final String SERVER_HOST_SHORT = "HO";
+    public static final String SERVER_HOST_LONG = "host";
+
     //intersect
     public static final String INTERSECT_INPUT_SHORT = "Q";
     public static final String INTERSECT_INPUT_LONG = "query-file";
@@ -49,6 +76,18 @@ public final class Arguments {
     public static final String INTERSECT_THREAD_SHORT = "T";
     public static final String INTERSECT_THREAD_LONG = "thread";
 
+    public static final String INTERSECT_SEARCH_MODE_SHORT = "SM";
+    public static final String INTERSECT_SEARCH_MODE_LONG = "search-mode";
+
+    public static final String INTERSECT_DB_PARALLEL_SHORT = "DP";
+    public static final String INTERSECT_DB_PARALLEL_LONG = "db-parallel";
+
+    public static final String INTERSECT_SORT_QUERY_SHORT = "SQ";
+    public static final String INTERSECT_SORT_QUERY_LONG = "sort-query";
+
+    public static final String INTERSECT_KEEP_ORDER_SHORT = "KO";
+    public static final String INTERSECT_KEEP_ORDER_LONG = "keep-order";
+
     public static final String INTERSECT_COUNT_SHORT = "C";
     public static final String INTERSECT_COUNT_LONG = "is-count";
 
@@ -117,18 +156,24 @@ public final class Arguments {
     public static final String ANNO_OF_SHORT = "OF";
     public static final String ANNO_OF_LONG = "out-format";
 
+    public static final String ANNO_OI_SHORT = "OI";
+    public static final String ANNO_OI_LONG = "out-index";
+
 
     public static final String DB_DOC =
-            "\nPossible attributes: {index, mode, tag}.\n" +
+            "\nPossible attributes: {index, mode, tag, filter}.\n" +
             "index - The index type that should be used to retrieve data. Default value is \"VarNote\". Possible values: {VarNote, TBI}, optional \n" +
             "mode - Mode of Intersection. default value is \"0\". Possible values: {0, 1, 2}, optional.\n" +
             "\t   0: Intersect mode, perform common interaction operation\n\t      according to query and database formats;\n"  +
             "\t   1: Exact match mode, force the program only to consider\n\t      the chromosome position of database records that exactly match\n\t      the corresponding chromosome position of query;\n"  +
             "\t   2: Full close mode, force the program to report database\n\t      records that overlap both endpoints of query interval regardless\n\t      of original query and database formats.\n"  +
-            "tag - A label to rename the database in the output file, optional. By default, the program will use original file name as tag for the database.\n\n";
+            "tag - A label to rename the database in the output file, optional. By default, the program will use original file name as tag for the database.\n" +
+            "filter - Only report database records that pass all numeric conditions separated by \";\", e.g. \"PHRED>20;RawScore<=3\", optional. " +
+            "Blocks are skipped without reading records when the column is in the stat columns (-SC) of the VarNote index.\n\n";
 
 
-    public static final String QUERY_DOC = "Path of query file, support plain text or gzip compressed file. For gzip, up to <hl1>4Gb original file size</hl1> is supported currently.\n\n" +
+    public static final String QUERY_DOC = "Path of query file, support plain text or gzip compressed file. For gzip, up to <hl1>4Gb original file size</hl1> is supported currently. " +
+            "Use - to read the query from the standard input, with a tag for the format, e.g. -Q:vcf -\n\n" +
             "Possible Tags: {vcf, vcfLike, bed, bedAllele, coordOnly, coordAllele, tab} \n\n" +
 
             "Possible attributes for all tags: {sep, ci}\n" +
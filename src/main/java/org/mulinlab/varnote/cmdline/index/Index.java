@@ -37,11 +37,46 @@ public final class Index extends IndexProgram {
             doc = "Skip first INT lines (including comment lines) in the data file.")
     public int skip = GlobalParameter.DEFAULT_SKIP;
 
+    @Argument(shortName = Arguments.INTERSECT_THREAD_SHORT, fullName = Arguments.INTERSECT_THREAD_LONG, optional = true,
+            doc = "Number of threads used to build the index. The input is split at block gzip boundaries and encoded in parallel. " +
+                    "Sets thread to -1 to get thread number by available processors automatically.")
+    public int thread = GlobalParameter.DEFAULT_THREAD;
+
+    @Argument(shortName = Arguments.INDEX_LONG_FEATURE_SHORT, fullName = Arguments.INDEX_LONG_FEATURE_LONG, optional = true,
+            doc = "Features longer than INT bp are kept in a separate long feature list of the index, so they don't stop the reader from skipping blocks. Sets 0 to disable.")
+    public int longFeatureLength = GlobalParameter.DEFAULT_LONG_FEATURE_LENGTH;
+
+    @Argument(shortName = Arguments.INDEX_STAT_COLUMN_SHORT, fullName = Arguments.INDEX_STAT_COLUMN_LONG, optional = true,
+            doc = "Comma separated numeric columns (column names in the header or column numbers) to keep block min and max in the index, " +
+                    "so queries with a database filter on these columns can skip whole blocks. e.g. -SC PHRED,RawScore")
+    public String statColumns = null;
+
+    @Argument(shortName = Arguments.INDEX_ANNO_COLUMN_SHORT, fullName = Arguments.INDEX_ANNO_COLUMN_LONG, optional = true,
+            doc = "Comma separated columns (column names in the header or column numbers) to store column by column in a sidecar file (.vanno.col), " +
+                    "so annotation can read these values without parsing the whole database line. e.g. -AC REF,ALT,SIFT_score")
+    public String annoColumns = null;
+
+    @Argument(shortName = Arguments.INDEX_ALLELE_HASH_SHORT, fullName = Arguments.INDEX_ALLELE_HASH_LONG, optional = true,
+            doc = "A flag to keep a REF and ALT hash for each feature, so annotation with REF and ALT matching can skip the database lines of other alleles. " +
+                    "REF and ALT columns should be defined.")
+    public boolean alleleHash = false;
+
+    @Argument(shortName = Arguments.INDEX_ALLELE_BLOOM_SHORT, fullName = Arguments.INDEX_ALLELE_BLOOM_LONG, optional = true,
+            doc = "A flag to keep a bloom filter of the positions and alleles in each block, so annotation in exact mode can skip blocks without the query variant. " +
+                    "Implies --" + Arguments.INDEX_ALLELE_HASH_LONG + ".")
+    public boolean alleleBloom = false;
+
     @Override
     protected int doWork() {
         IndexParam indexParam = setParam();
 
         if(skip > 0) indexParam.getFormat().numHeaderLinesToSkip = skip;
+        indexParam.setThread(thread);
+        indexParam.setLongFeatureLength(longFeatureLength);
+        if(statColumns != null) indexParam.setStatColumns(statColumns);
+        if(annoColumns != null) indexParam.setAnnoColumns(annoColumns);
+        indexParam.setAlleleHash(alleleHash);
+        indexParam.setAlleleBloom(alleleBloom);
 
         IndexWriteConfig config = new IndexWriteConfig(indexParam);
         RunFactory.writeIndex(config);
@@ -47,6 +47,10 @@ public final class Annotation extends QueryFileProgram {
 
         annoRunConfig.setOutParam(outParam);
         annoRunConfig.setThread(runArguments.getThreads());
+        annoRunConfig.setMode(runArguments.getSearchMode());
+        annoRunConfig.setDBParallel(runArguments.getDbParallel());
+        annoRunConfig.setSortQuery(runArguments.getSortQuery());
+        annoRunConfig.setKeepOrder(runArguments.getKeepOrder());
         RunFactory.run(annoRunConfig);
         return 0;
     }
@@ -52,6 +52,10 @@ public final class Intersect extends QueryFileProgram {
         OverlapRunConfig runConfig = new OverlapRunConfig(new QueryFileParam(inputArguments.getQueryFilePath(), format, false), dbArguments.getDBList());
         runConfig.setOutParam(outParam);
         runConfig.setThread(runArguments.getThreads());
+        runConfig.setMode(runArguments.getSearchMode());
+        runConfig.setDBParallel(runArguments.getDbParallel());
+        runConfig.setSortQuery(runArguments.getSortQuery());
+        runConfig.setKeepOrder(runArguments.getKeepOrder());
 
         RunFactory.run(runConfig);
         return 0;
@@ -10,6 +10,7 @@ import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
 import org.mulinlab.varnote.cmdline.abstractclass.CMDProgram;
 import org.mulinlab.varnote.cmdline.abstractclass.QueryProgram;
 import org.mulinlab.varnote.cmdline.collection.DBArgumentCollection;
+import org.mulinlab.varnote.cmdline.collection.ReaderArgumentCollection;
 import org.mulinlab.varnote.cmdline.constant.Arguments;
 import org.mulinlab.varnote.cmdline.programgroups.QueryProgramGroup;
 import org.mulinlab.varnote.config.run.QueryRegionConfig;
@@ -36,6 +37,9 @@ public final class RandomAccess extends CMDProgram {
             doc = "Use the JDK Inflater instead of the IntelInflater for reading index.", optional = true)
     public Boolean USE_JDK_INFLATER = false;
 
+    @ArgumentCollection
+    public final ReaderArgumentCollection readerArguments = new ReaderArgumentCollection();
+
     @Argument( fullName = Arguments.QUERY_INPUT_LONG, shortName = Arguments.QUERY_INPUT_SHORT,
             doc = "Region specified as the format \"chrN:beginPos-endPos\"", optional = false
     )
@@ -66,6 +70,7 @@ public final class RandomAccess extends CMDProgram {
         } else {
             BlockGunzipper.setDefaultInflaterFactory(new InflaterFactory());
         }
+        readerArguments.initReaders();
 
         if(!islog) LoggingUtils.setLoggingLevel(Log.LogLevel.ERROR);
         else LoggingUtils.setLoggingLevel(Log.LogLevel.INFO);
@@ -0,0 +1,94 @@
+package org.mulinlab.varnote.cmdline.tools;
+
+import com.intel.gkl.compression.IntelInflaterFactory;
+import htsjdk.samtools.util.BlockGunzipper;
+import htsjdk.samtools.util.Log;
+import htsjdk.samtools.util.zip.InflaterFactory;
+import org.broadinstitute.barclay.argparser.Argument;
+import org.broadinstitute.barclay.argparser.ArgumentCollection;
+import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
+import org.mulinlab.varnote.cmdline.abstractclass.CMDProgram;
+import org.mulinlab.varnote.cmdline.collection.DBArgumentCollection;
+import org.mulinlab.varnote.cmdline.collection.ReaderArgumentCollection;
+import org.mulinlab.varnote.cmdline.constant.Arguments;
+import org.mulinlab.varnote.cmdline.programgroups.QueryProgramGroup;
+import org.mulinlab.varnote.config.run.ServerConfig;
+import org.mulinlab.varnote.constants.GlobalParameter;
+import org.mulinlab.varnote.utils.LoggingUtils;
+import org.mulinlab.varnote.utils.RunFactory;
+
+@CommandLineProgramProperties(
+        summary = Server.USAGE_SUMMARY + Server.USAGE_DETAILS,
+        oneLineSummary = Server.USAGE_SUMMARY,
+        programGroup = QueryProgramGroup.class)
+
+public final class Server extends CMDProgram {
+    static final String USAGE_SUMMARY = "To start a local HTTP server which loads indexed annotation database(s) once and retrieves intersected records for regions, positions or variants of each request.";
+    static final String USAGE_DETAILS =
+            "\n\nUsage example:" +
+            "\n" +
+            "java -jar " + GlobalParameter.PRO_NAME + ".jar Server -D /path/db.vcf.gz -P 8686 -T 4 \n" +
+            "curl \"http://127.0.0.1:8686/query?q=chr1:1-100000&q=chr1:10177-A-AC\" \n" +
+            "curl --data-binary @/path/queries.txt http://127.0.0.1:8686/query \n" ;
+
+    @Argument(fullName = Arguments.LOG_LONG, doc = "Whether to print log.", optional = true)
+    public Boolean islog = false;
+
+    @Argument(fullName = Arguments.USE_JDKI_LONG, shortName = Arguments.USE_JDKI_SHORT,
+            doc = "Use the JDK Inflater instead of the IntelInflater for reading index.", optional = true)
+    public Boolean USE_JDK_INFLATER = false;
+
+    @ArgumentCollection
+    public final ReaderArgumentCollection readerArguments = new ReaderArgumentCollection();
+
+    @Argument( fullName = Arguments.SERVER_HOST_LONG, shortName = Arguments.SERVER_HOST_SHORT,
+            doc = "Address the server listens on.", optional = true
+    )
+    public String host = GlobalParameter.DEFAULT_SERVER_HOST;
+
+    @Argument( fullName = Arguments.SERVER_PORT_LONG, shortName = Arguments.SERVER_PORT_SHORT,
+            doc = "Port the server listens on.", optional = true
+    )
+    public int port = GlobalParameter.DEFAULT_SERVER_PORT;
+
+    @Argument( shortName = Arguments.INTERSECT_THREAD_SHORT, fullName = Arguments.INTERSECT_THREAD_LONG, optional = true,
+            doc = "Number of requests served at the same time, each with its own database readers. Sets thread to -1 to get thread number by available processors automatically."
+    )
+    public Integer threads = GlobalParameter.DEFAULT_THREAD;
+
+    @ArgumentCollection
+    public final DBArgumentCollection dbArguments = new DBArgumentCollection();
+
+
+    @Argument( fullName = Arguments.QUERY_LABEL_LONG, shortName = Arguments.QUERY_LABEL_SHORT,
+            doc = "A flag to determine whether or not to print database name as the first column of the result.", optional = true
+    )
+    public boolean isDisplayLabel = GlobalParameter.DEFAULT_DISPLAY_LABEL;
+
+
+    @Override
+    protected int doWork() {
+        ServerConfig serverConfig = new ServerConfig(dbArguments.getDBList(), host, port, threads, isDisplayLabel);
+        RunFactory.runServer(serverConfig);
+
+        return 0;
+    }
+
+    @Override
+    protected void onStartup() {
+        if (!USE_JDK_INFLATER) {
+            BlockGunzipper.setDefaultInflaterFactory(new IntelInflaterFactory());
+        } else {
+            BlockGunzipper.setDefaultInflaterFactory(new InflaterFactory());
+        }
+        readerArguments.initReaders();
+
+        if(!islog) LoggingUtils.setLoggingLevel(Log.LogLevel.ERROR);
+        else LoggingUtils.setLoggingLevel(Log.LogLevel.INFO);
+    }
+
+
+    protected void onShutdown() {
+
+    }
+}
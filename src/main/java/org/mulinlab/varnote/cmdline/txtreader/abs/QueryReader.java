@@ -35,6 +35,7 @@ public abstract class QueryReader<T> extends AbstractQueryReader<T> {
     public static final String DB_INDEX_TYPE = "db_index_type";
     public static final String DB_LABEL= "db_tag";
     public static final String DB_MODE = "db_mode";
+    public static final String DB_FILTER = "db_filter";
 
     public static final String OUTPUT_PATH = "out_file";
     public static final String OUTPUT_MODE = "out_mode";
@@ -115,6 +116,9 @@ public abstract class QueryReader<T> extends AbstractQueryReader<T> {
         if(valueHash.get(DB_LABEL) != null) {
             dbParam.setOutName(valueHash.get(DB_LABEL));
         }
+        if(valueHash.get(DB_FILTER) != null) {
+            dbParam.setFilter(valueHash.get(DB_FILTER));
+        }
         dbParams.add(dbParam);
     }
 
@@ -26,6 +26,7 @@ public class FileQueryReader<T> extends QueryReader<T> {
 
 		runParam = new RunParam();
 		if(valueHash.get(THREAD) != null) runParam.setThread(Integer.parseInt(valueHash.get(THREAD)));
+		if(valueHash.get(MODE) != null) runParam.setMode(VannoUtils.checkMode(Integer.parseInt(valueHash.get(MODE))));
 
 		return null;
 	}
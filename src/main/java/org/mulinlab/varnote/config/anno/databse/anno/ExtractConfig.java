@@ -292,6 +292,22 @@ public final class ExtractConfig {
 		return colToExtract;
 	}
 
+	/** return the columns to extract and the REF and ALT columns used to match the query */
+	public int[] getColsToRead() {
+		final List<Integer> cols = new ArrayList<>();
+		for (int col : colToExtract) {
+			cols.add(col);
+		}
+		if(format.refPositionColumn > 1) cols.add(format.refPositionColumn);
+		if(format.altPositionColumn > 1) cols.add(format.altPositionColumn);
+
+		final int[] arr = new int[cols.size()];
+		for (int i = 0; i < arr.length; i++) {
+			arr[i] = cols.get(i);
+		}
+		return arr;
+	}
+
 	public String getLabel() {
 		return param.getLabel();
 	}
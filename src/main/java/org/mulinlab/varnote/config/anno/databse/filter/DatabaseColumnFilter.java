@@ -0,0 +1,91 @@
+package org.mulinlab.varnote.config.anno.databse.filter;
+
+
+import org.mulinlab.varnote.exceptions.InvalidArgumentException;
+import org.mulinlab.varnote.utils.VannoUtils;
+import org.mulinlab.varnote.utils.node.LocFeature;
+
+
+/**
+ * Compare a numeric column of the database line with a value, e.g. PHRED>20. Lines with a missing or non-numeric
+ * value are filtered.
+ */
+public final class DatabaseColumnFilter extends AbstractDatabaseFilter {
+
+	public enum Operator {
+		GE(">="), LE("<="), NE("!="), EQ("=="), GT(">"), LT("<"), EQUAL("=");
+
+		private final String symbol;
+
+		Operator(final String symbol) {
+			this.symbol = symbol;
+		}
+
+		public String getSymbol() {
+			return symbol;
+		}
+
+		public static Operator toOperator(final String symbol) {
+			for (Operator operator : values()) {
+				if(operator.symbol.equals(symbol)) return operator;
+			}
+			throw new InvalidArgumentException(String.format("Unsupported operator %s, possible operators are: >, >=, <, <=, =, !=", symbol));
+		}
+	}
+
+	private final int column;
+	private final Operator operator;
+	private final double value;
+	private final char delim;
+
+	public DatabaseColumnFilter(final int column, final Operator operator, final double value, final char delim) {
+		this.column = column;
+		this.operator = operator;
+		this.value = value;
+		this.delim = delim;
+	}
+
+	@Override
+	public boolean isFilterLine(final LocFeature loc) {
+		return isFilterLine(loc.bgzStr != null ? loc.bgzStr : loc.getOrigStr());
+	}
+
+	public boolean isFilterLine(final String line) {
+		final double val = VannoUtils.parseNumber(VannoUtils.getColumn(line, delim, column));
+		if(Double.isNaN(val)) return true;
+
+		switch (operator) {
+			case GT: return val <= value;
+			case GE: return val < value;
+			case LT: return val >= value;
+			case LE: return val > value;
+			case NE: return val == value;
+			default: return val != value;
+		}
+	}
+
+	/**
+	 * return true if no value between min and max can pass the filter, a block without any value has min > max
+	 */
+	public boolean isFilterRange(final double min, final double max) {
+		if(min > max) return true;
+
+		switch (operator) {
+			case GT: return max <= value;
+			case GE: return max < value;
+			case LT: return min >= value;
+			case LE: return min > value;
+			case NE: return min == value && max == value;
+			default: return value < min || value > max;
+		}
+	}
+
+	public int getColumn() {
+		return column;
+	}
+
+	@Override
+	public String toString() {
+		return column + operator.getSymbol() + value;
+	}
+}
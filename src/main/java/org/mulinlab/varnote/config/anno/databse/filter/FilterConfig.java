@@ -1,8 +1,95 @@
 package org.mulinlab.varnote.config.anno.databse.filter;
 
 
+import org.mulinlab.varnote.exceptions.InvalidArgumentException;
+import org.mulinlab.varnote.utils.VannoUtils;
+import org.mulinlab.varnote.utils.block.SROBStats;
+import org.mulinlab.varnote.utils.format.Format;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+
+/**
+ * Database filter expression, one or more numeric conditions separated by ";", e.g. "PHRED>20;RawScore<=3".
+ * A line passes the filter only if it passes all conditions.
+ */
 public final class FilterConfig {
+	public static final String SEPARATOR = ";";
+	private static final Pattern CONDITION = Pattern.compile("^\\s*([^<>=!]+?)\\s*(>=|<=|!=|==|=|>|<)\\s*(\\S+)\\s*$");
+
+	private final String expression;
+	private final List<DatabaseColumnFilter> filters;
+
+	public FilterConfig(final String expression, final Format format) {
+		this.expression = expression;
+		this.filters = new ArrayList<DatabaseColumnFilter>();
+
+		Matcher matcher;
+		int column;
+		for (String condition : expression.split(SEPARATOR)) {
+			if(condition.trim().isEmpty()) continue;
+
+			matcher = CONDITION.matcher(condition);
+			if(!matcher.matches()) throw new InvalidArgumentException(String.format("Invalid database filter %s, filter should be like PHRED>20.", condition));
+
+			column = VannoUtils.parseColumn(format, matcher.group(1));
+			if(column < 1) throw new InvalidArgumentException(String.format("Column %s of database filter %s is not found in the header.", matcher.group(1), condition));
+
+			final double value = VannoUtils.parseNumber(matcher.group(3));
+			if(Double.isNaN(value)) throw new InvalidArgumentException(String.format("Value of database filter %s should be a number.", condition));
+
+			filters.add(new DatabaseColumnFilter(column, DatabaseColumnFilter.Operator.toOperator(matcher.group(2)), value, format.getDelimChar()));
+		}
+	}
+
+	/**
+	 * return the position of each filter column in statColumns, or -1 if the column has no block min and max
+	 */
+	public int[] getStatSlots(final int[] statColumns) {
+		final int[] slots = new int[filters.size()];
+		for (int i = 0; i < slots.length; i++) {
+			slots[i] = -1;
+			for (int j = 0; j < statColumns.length; j++) {
+				if(statColumns[j] == filters.get(i).getColumn()) {
+					slots[i] = j;
+					break;
+				}
+			}
+		}
+		return slots;
+	}
+
+	public boolean hasStatSlot(final int[] statSlots) {
+		for (int slot : statSlots) {
+			if(slot != -1) return true;
+		}
+		return false;
+	}
+
+	public boolean isFilterBlock(final SROBStats stats, final int block, final int[] statSlots) {
+		for (int i = 0; i < statSlots.length; i++) {
+			if(statSlots[i] != -1 && filters.get(i).isFilterRange(stats.getMin(block, statSlots[i]), stats.getMax(block, statSlots[i]))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public boolean isFilterLine(final String line) {
+		for (DatabaseColumnFilter filter : filters) {
+			if(filter.isFilterLine(line)) return true;
+		}
+		return false;
+	}
 
+	public String getExpression() {
+		return expression;
+	}
 
+	public List<DatabaseColumnFilter> getFilters() {
+		return filters;
+	}
 }
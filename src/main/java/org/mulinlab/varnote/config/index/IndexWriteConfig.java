@@ -1,5 +1,9 @@
 package org.mulinlab.varnote.config.index;
 
+import htsjdk.samtools.seekablestream.SeekableFileStream;
+import htsjdk.samtools.seekablestream.SeekableStream;
+import htsjdk.samtools.util.BlockCompressedInputStream;
+import htsjdk.samtools.util.BlockCompressedStreamConstants;
 import org.mulinlab.varnote.config.param.IndexParam;
 import org.mulinlab.varnote.constants.GlobalParameter;
 import org.mulinlab.varnote.utils.database.index.IndexFactory;
@@ -8,11 +12,16 @@ import org.mulinlab.varnote.utils.enumset.IndexType;
 import org.mulinlab.varnote.exceptions.InvalidArgumentException;
 import org.mulinlab.varnote.utils.VannoUtils;
 import org.mulinlab.varnote.utils.headerparser.MetaReader;
+import org.mulinlab.varnote.utils.gz.BlockCompressedFilePointerUtil;
 import org.mulinlab.varnote.utils.gz.MyBlockCompressedOutputStream;
 import org.mulinlab.varnote.utils.gz.MyEndianOutputStream;
 
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -72,23 +81,56 @@ public final class IndexWriteConfig {
 		}
 	}
 	
+	/**
+	 * The SROB lists before the formats are copied as they are compressed, so the pointers to them stay valid, then the
+	 * new formats are written with the version of the index, followed by the sections the version keeps after them.
+	 */
 	public void replaceHeader(final String header) {
 		final VannoIndex idx = getIndex();
 		final String dbIndex = indexParam.getInput() + IndexType.VARNOTE.getExtIndex();
 		final File tempFile = new File(dbIndex + GlobalParameter.TEMP);
-		final MyEndianOutputStream indexLos = new MyEndianOutputStream(new MyBlockCompressedOutputStream(tempFile));
 		final List<String> sequenceNames = new ArrayList<String>();
 		
 		for (String seq : idx.getmSeq()) {
 			sequenceNames.add(seq);
 		}
-		VannoUtils.writeFormats(indexLos, idx.getFormat(),
-				VannoUtils.parserHeaderComma(VannoUtils.replaceQuote(header)),
-				sequenceNames, idx.getMinOffForChr());
+
 		try {
-			indexLos.close();
+			final SeekableStream stream = new SeekableFileStream(new File(dbIndex));
+			final long address = VannoUtils.getAddress(stream);
+			final long blockAddress = BlockCompressedFilePointerUtil.getBlockAddress(address);
+			final int blockOffset = BlockCompressedFilePointerUtil.getBlockOffset(address);
+			final long end = stream.length() - BlockCompressedStreamConstants.EMPTY_GZIP_BLOCK.length - 8;
+
+			final OutputStream os = new BufferedOutputStream(new FileOutputStream(tempFile), GlobalParameter.BUFFER_SIZE);
+			final byte[] buf = new byte[GlobalParameter.BUFFER_SIZE];
+			stream.seek(0);
+			for (long remaining = blockAddress; remaining > 0; ) {
+				final int n = stream.read(buf, 0, (int)Math.min(buf.length, remaining));
+				if(n < 0) throw new EOFException("Unexpected end of " + dbIndex);
+				os.write(buf, 0, n);
+				remaining -= n;
+			}
+
+			final BlockCompressedInputStream is = new BlockCompressedInputStream(stream);
+			final MyEndianOutputStream indexLos = new MyEndianOutputStream(new MyBlockCompressedOutputStream(os, tempFile));
+			is.seek(BlockCompressedFilePointerUtil.makeFilePointer(blockAddress, 0));
+			for (int i = 0; i < blockOffset; i++) {
+				indexLos.write(is.read());
+			}
+
+			final int version = GlobalParameter.readInt(is);
+			VannoUtils.skipFormats(is);
+			VannoUtils.writeFormats(indexLos, idx.getFormat(),
+					VannoUtils.parserHeaderComma(VannoUtils.replaceQuote(header)),
+					sequenceNames, idx.getMinOffForChr(), version);
+			while(BlockCompressedFilePointerUtil.getBlockAddress(is.getFilePointer()) < end) {
+				indexLos.write(is.read());
+			}
+			is.close();
+			indexLos.close(BlockCompressedFilePointerUtil.makeFilePointer(blockAddress, blockOffset));
 		} catch (IOException e) {
-			e.printStackTrace();
+			throw new InvalidArgumentException("Replace header failed: " + e.getMessage());
 		}
 		
 		boolean success = tempFile.renameTo(new File(dbIndex));
@@ -7,13 +7,21 @@ public final class FlatThreadPrintter extends ThreadPrintter {
 
     public FlatThreadPrintter(String outputPath, int index) throws FileNotFoundException {
         super(outputPath, index);
-        this.writer = new LittleEndianOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        this.out = new FileOutputStream(file);
+        this.writer = new LittleEndianOutputStream(new BufferedOutputStream(out));
     }
 
     @Override
     public void print(String s) throws IOException {
+        printKey();
         this.writer.writeBytes(s);
         this.writer.writeByte(newline);
     }
 
+    @Override
+    public long endPart() throws IOException {
+        this.writer.flush();
+        return out.getChannel().position();
+    }
+
 }
@@ -0,0 +1,181 @@
+package org.mulinlab.varnote.config.io.temp;
+
+import org.mulinlab.varnote.config.param.output.OutParam;
+import org.mulinlab.varnote.constants.GlobalParameter;
+import org.mulinlab.varnote.exceptions.InvalidArgumentException;
+import org.mulinlab.varnote.utils.gz.TbiOutputStream;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Prints to the output file (plain, gzip, or BGZF with a tabix index) or the standard output without temporary files.
+ * With one thread the lines are printed directly, otherwise each thread keeps the lines of its current part in memory
+ * and submits the part when the task ends, a writer thread prints the parts in the order of the tasks as soon as they
+ * are contiguous. A thread submitting a part more than DEFAULT_PENDING_PARTS parts, or DEFAULT_PENDING_PARTS_PER_THREAD
+ * parts for each thread, ahead of the next part to print waits, so at most that many parts are kept. The next part to
+ * print is always held by a thread not waiting, as each thread takes its own tasks in order.
+ */
+public final class OrderedPrintter extends Printter {
+
+    private OutputStream out;
+    private final Map<Integer, byte[]> pending = new HashMap<Integer, byte[]>();
+    private int nextPart = 0;
+    private int pendingParts = GlobalParameter.DEFAULT_PENDING_PARTS;
+    private boolean isDirect = false;
+    private boolean isClosed = false;
+    private Thread writer;
+    private volatile Exception error;
+
+    public OrderedPrintter(OutParam outParam) {
+        super(outParam);
+        if(outParam.isStream() && outParam.isIndex()) throw new InvalidArgumentException("Indexing the output requires an output file.");
+    }
+
+    private OutputStream getOutput(final int thread) throws IOException {
+        if(outParam.isStream()) {
+            return new FileOutputStream(FileDescriptor.out);
+        } else if(outParam.isIndex()) {
+            return new TbiOutputStream(new File(outParam.getOutputPath()), outParam.getIndexFormat(), thread);
+        } else if(outParam.isGzip()) {
+            return new GZIPOutputStream(new FileOutputStream(outParam.getOutputPath()), GlobalParameter.BUFFER_SIZE);
+        } else {
+            return new FileOutputStream(outParam.getOutputPath());
+        }
+    }
+
+    @Override
+    public void init() {
+    }
+
+    @Override
+    public void setPrintter(final int thread) {
+        isDirect = (thread == 1);
+        pendingParts = Math.max(GlobalParameter.DEFAULT_PENDING_PARTS, thread * GlobalParameter.DEFAULT_PENDING_PARTS_PER_THREAD);
+        try {
+            out = new BufferedOutputStream(getOutput(thread), GlobalParameter.BUFFER_SIZE);
+        } catch (IOException e) {
+            throw new InvalidArgumentException("Open output failed: " + e.getMessage());
+        }
+        super.setPrintter(thread);
+
+        if(!isDirect) {
+            writer = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        writeParts();
+                    } catch (IOException | RuntimeException e) {
+                        error = e;
+                    } catch (InterruptedException e) {
+                    }
+                    synchronized (pending) {
+                        pending.notifyAll();
+                    }
+                }
+            }, "output-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    @Override
+    public void addPrintter(String path, Integer index) throws FileNotFoundException {
+        threadPrintters.add(new OrderedThreadPrintter(path, index, isDirect ? out : null));
+    }
+
+    @Override
+    public void setKeepOrder(final boolean keepOrder) {
+        if(keepOrder) throw new InvalidArgumentException("Keeping the order of a sorted query is not supported when printing to the standard output or indexing the output.");
+    }
+
+    @Override
+    public void startParts() throws IOException {
+        for (ThreadPrintter threadPrintter : threadPrintters) {
+            out.write(((OrderedThreadPrintter)threadPrintter).takeBytes());
+        }
+    }
+
+    @Override
+    public void endPart(final int index, final int part) throws IOException {
+        final byte[] bytes = ((OrderedThreadPrintter)threadPrintters.get(index)).takeBytes();
+        if(isDirect) return;
+
+        synchronized (pending) {
+            try {
+                while(error == null && part >= nextPart + pendingParts) {
+                    pending.wait();
+                }
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            checkError();
+
+            pending.put(part, bytes);
+            pending.notifyAll();
+        }
+    }
+
+    /** rethrow the error of the writer thread, runtime exceptions like InvalidArgumentException are rethrown unchanged */
+    private void checkError() throws IOException {
+        if(error instanceof RuntimeException) throw (RuntimeException)error;
+        if(error != null) throw (IOException)error;
+    }
+
+    /** print the parts in order until all threads are done, the parts are printed out of the lock */
+    private void writeParts() throws IOException, InterruptedException {
+        byte[] bytes;
+        while(true) {
+            synchronized (pending) {
+                while(!pending.containsKey(nextPart) && !isClosed) {
+                    pending.wait();
+                }
+                bytes = pending.remove(nextPart);
+            }
+            if(bytes == null) return;
+
+            out.write(bytes);
+            synchronized (pending) {
+                nextPart++;
+                pending.notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public void mergeFile() throws IOException {
+        mergeResults();
+    }
+
+    /** wait for the parts to be printed and print the lines left, the lines of threads printing one range without tasks */
+    @Override
+    public void mergeResults() throws IOException {
+        if(writer != null) {
+            synchronized (pending) {
+                isClosed = true;
+                pending.notifyAll();
+            }
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            checkError();
+        }
+
+        for (ThreadPrintter threadPrintter : threadPrintters) {
+            out.write(((OrderedThreadPrintter)threadPrintter).takeBytes());
+        }
+        if(outParam.isStream()) {
+            out.flush();
+        } else {
+            out.close();
+        }
+    }
+
+    @Override
+    public void doEnd() {
+    }
+}
@@ -0,0 +1,53 @@
+package org.mulinlab.varnote.config.io.temp;
+
+import htsjdk.tribble.util.LittleEndianOutputStream;
+import java.io.*;
+
+public final class OrderedThreadPrintter extends ThreadPrintter {
+
+    private final ByteArrayOutputStream buffer;
+
+    /** print to stream directly if it isn't null, otherwise keep the lines of the part in memory */
+    public OrderedThreadPrintter(String outputPath, int index, OutputStream stream) throws FileNotFoundException {
+        super(outputPath, index);
+        if(stream == null) {
+            this.buffer = new ByteArrayOutputStream();
+            this.writer = new LittleEndianOutputStream(buffer);
+        } else {
+            this.buffer = null;
+            this.writer = new LittleEndianOutputStream(stream);
+        }
+    }
+
+    @Override
+    public void print(String s) throws IOException {
+        printKey();
+        this.writer.writeBytes(s);
+        this.writer.writeByte(newline);
+    }
+
+    @Override
+    public long endPart() throws IOException {
+        this.writer.flush();
+        return (buffer == null) ? 0 : buffer.size();
+    }
+
+    /** return the lines printed since the last call and clear them */
+    public byte[] takeBytes() throws IOException {
+        this.writer.flush();
+        if(buffer == null) return new byte[0];
+
+        final byte[] bytes = buffer.toByteArray();
+        buffer.reset();
+        return bytes;
+    }
+
+    @Override
+    public void tearDownPrintter() {
+        try {
+            this.writer.flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
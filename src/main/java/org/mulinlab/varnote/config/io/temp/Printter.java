@@ -4,14 +4,20 @@ import htsjdk.tribble.util.LittleEndianOutputStream;
 import org.apache.commons.io.FileUtils;
 import org.apache.logging.log4j.Logger;
 import org.mulinlab.varnote.config.param.output.OutParam;
+import org.mulinlab.varnote.constants.GlobalParameter;
+import org.mulinlab.varnote.operations.sort.LineSorter;
 import org.mulinlab.varnote.utils.LoggingUtils;
 
 import java.io.*;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 
@@ -22,6 +28,10 @@ public abstract class Printter {
     protected OutParam outParam;
     protected String tempFolderPath;
     protected List<ThreadPrintter> threadPrintters;
+    protected boolean keepOrder = false;
+    protected long headerEnd;
+    protected long[] partStarts;
+    protected List<long[]> parts;
 
     public Printter(final OutParam outParam) {
         this.outParam = outParam;
@@ -29,10 +39,107 @@ public abstract class Printter {
 
     public void mergeFile() throws IOException {
         mergeResults();
+        if(keepOrder) restoreOrder();
+    }
+
+    /** print the lines of each record with the key set by ThreadPrintter.setKey, the merged lines are sorted by the keys */
+    public void setKeepOrder(final boolean keepOrder) {
+        this.keepOrder = keepOrder;
+        for (ThreadPrintter threadPrintter: threadPrintters) {
+            threadPrintter.setKeyed(keepOrder);
+        }
+    }
+
+    public void restoreOrder() throws IOException {
+        final File output = new File(outParam.getOutputPath()).getAbsoluteFile();
+        final File temp = new File(output.getPath() + GlobalParameter.TEMP);
+        final LineSorter sorter = new LineSorter(output.getParentFile(), GlobalParameter.DEFAULT_SORT_MEMORY * 1024L * 1024L);
+
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(getInputStream(output), StandardCharsets.ISO_8859_1));
+        String line;
+        int tab;
+        while((line = reader.readLine()) != null) {
+            tab = line.indexOf('\t');
+            sorter.add(Long.parseLong(line.substring(0, tab)), 0, line.substring(tab + 1));
+        }
+        reader.close();
+
+        final LittleEndianOutputStream writer = new LittleEndianOutputStream(new BufferedOutputStream(getOutputStream(temp)));
+        sorter.write(new LineSorter.LineWriter() {
+            @Override
+            public void write(final long key, final long value, final String line) throws IOException {
+                writer.writeBytes(line);
+                writer.writeByte('\n');
+            }
+        });
+        writer.close();
+
+        if(!output.delete()) logger.error("Delete " + output.getAbsolutePath() + " failed.");
+        FileUtils.moveFile(temp, output);
+    }
+
+    protected InputStream getInputStream(final File file) throws IOException {
+        return new FileInputStream(file);
+    }
+
+    protected OutputStream getOutputStream(final File file) throws IOException {
+        return new FileOutputStream(file);
+    }
+
+    /** the threads print the outputs of tasks in parts, the parts are merged by the order of the tasks */
+    public void startParts() throws IOException {
+        partStarts = new long[threadPrintters.size()];
+        parts = new ArrayList<long[]>();
+        for (int i = 0; i < threadPrintters.size(); i++) {
+            partStarts[i] = threadPrintters.get(i).endPart();
+        }
+        headerEnd = partStarts[0];
+    }
+
+    public void endPart(final int index, final int part) throws IOException {
+        final long end = threadPrintters.get(index).endPart();
+        synchronized (parts) {
+            parts.add(new long[]{part, index, partStarts[index], end});
+        }
+        partStarts[index] = end;
+    }
+
+    public void mergeParts() throws IOException {
+        final FileChannel outChannel = new FileOutputStream(outParam.getOutputPath()).getChannel();
+        final FileChannel[] inChannels = new FileChannel[threadPrintters.size()];
+        for (int i = 0; i < threadPrintters.size(); i++) {
+            threadPrintters.get(i).tearDownPrintter();
+            inChannels[i] = new FileInputStream(threadPrintters.get(i).getFile()).getChannel();
+        }
+
+        Collections.sort(parts, new Comparator<long[]>() {
+            @Override
+            public int compare(final long[] o1, final long[] o2) {
+                return Long.compare(o1[0], o2[0]);
+            }
+        });
+        transfer(inChannels[0], 0, headerEnd, outChannel);
+        for (long[] part : parts) {
+            transfer(inChannels[(int)part[1]], part[2], part[3], outChannel);
+        }
+
+        for (FileChannel inChannel : inChannels) {
+            inChannel.close();
+        }
+        outChannel.close();
+        doEnd();
+    }
+
+    private static void transfer(final FileChannel in, long start, final long end, final FileChannel out) throws IOException {
+        while(start < end) {
+            start += in.transferTo(start, end - start, out);
+        }
     }
 
     public void mergeResults() throws IOException {
-        if(threadPrintters.size() == 1) {
+        if(parts != null && threadPrintters.size() > 1) {
+            mergeParts();
+        } else if(threadPrintters.size() == 1) {
             File dest = new File(outParam.getOutputPath());
             if(dest.exists()) {
                 dest.delete();
@@ -7,10 +7,14 @@ import java.util.List;
 
 public abstract class ThreadPrintter {
     protected final static char newline = '\n';
+    protected final static char tab = '\t';
 
     protected File file;
     protected final int index;
     LittleEndianOutputStream writer;
+    protected FileOutputStream out;
+    protected boolean isKeyed = false;
+    protected long key = -1;
 
     public ThreadPrintter(final String outputPath, final int index) throws FileNotFoundException {
         super();
@@ -30,6 +34,25 @@ public abstract class ThreadPrintter {
 
     public abstract void print(String s) throws IOException;
 
+    /** write out the lines printed so far and return the length of the file, the lines of a part end at the length */
+    public abstract long endPart() throws IOException;
+
+    /** print lines with the key of the record at the start, so lines can be sorted back by the keys after merging */
+    public void setKeyed(final boolean isKeyed) {
+        this.isKeyed = isKeyed;
+    }
+
+    public void setKey(final long key) {
+        this.key = key;
+    }
+
+    protected void printKey() throws IOException {
+        if(isKeyed) {
+            this.writer.writeBytes(Long.toString(key));
+            this.writer.writeByte(tab);
+        }
+    }
+
     public void tearDownPrintter() {
         if (this.writer != null) {
             try {
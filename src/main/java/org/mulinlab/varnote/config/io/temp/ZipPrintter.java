@@ -4,6 +4,7 @@ import htsjdk.samtools.util.BlockCompressedInputStream;
 import htsjdk.tribble.util.LittleEndianOutputStream;
 import org.mulinlab.varnote.config.param.output.OutParam;
 import java.io.*;
+import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
 
@@ -18,4 +19,14 @@ public class ZipPrintter extends Printter {
     public void addPrintter(String path, Integer index) throws IOException {
         threadPrintters.add(new ZipThreadPrintter(path, index));
     }
+
+    @Override
+    protected InputStream getInputStream(final File file) throws IOException {
+        return new GZIPInputStream(new FileInputStream(file));
+    }
+
+    @Override
+    protected OutputStream getOutputStream(final File file) throws IOException {
+        return new GZIPOutputStream(new FileOutputStream(file));
+    }
 }
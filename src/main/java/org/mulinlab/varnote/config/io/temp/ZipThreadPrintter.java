@@ -7,16 +7,32 @@ import java.io.*;
 import java.util.zip.GZIPOutputStream;
 
 public final class ZipThreadPrintter extends ThreadPrintter {
+    private GZIPOutputStream gzip;
 
     public ZipThreadPrintter(String outputPath, int index) throws IOException {
         super(outputPath, index);
-        this.writer = new LittleEndianOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(file))));
+        this.out = new FileOutputStream(file);
+        this.gzip = new GZIPOutputStream(out);
+        this.writer = new LittleEndianOutputStream(new BufferedOutputStream(gzip));
     }
 
     @Override
     public void print(String s) throws IOException {
+        printKey();
         this.writer.writeBytes(s);
         this.writer.writeByte(newline);
     }
 
+    /** each part is a gzip member, the members of the parts can be copied to the output in any order */
+    @Override
+    public long endPart() throws IOException {
+        this.writer.flush();
+        gzip.finish();
+        final long position = out.getChannel().position();
+
+        this.gzip = new GZIPOutputStream(out);
+        this.writer = new LittleEndianOutputStream(new BufferedOutputStream(gzip));
+        return position;
+    }
+
 }
@@ -15,6 +15,7 @@ public final class DBParam extends Param {
     private String outName;
     private IntersectType intersect = GlobalParameter.DEFAULT_INTERSECT;;
     private IndexType indexType = IndexType.VARNOTE;
+    private String filter;
 
     public DBParam(final String dbPath) {
         if(SeekableStreamFactory.isFilePath(dbPath))
@@ -54,6 +55,7 @@ public final class DBParam extends Param {
         logger.info(String.format("Query Mode: %s", intersect));
         logger.info(String.format("Index Type: %s", indexType));
         logger.info(String.format("Output Name: %s", outName));
+        if(filter != null) logger.info(String.format("Database Filter: %s", filter));
     }
 
     @Override
@@ -99,4 +101,12 @@ public final class DBParam extends Param {
     public void setIndexType(String indexType) {
         this.indexType = VannoUtils.checkIndexType(indexType);
     }
+
+    public String getFilter() {
+        return filter;
+    }
+
+    public void setFilter(String filter) {
+        this.filter = filter;
+    }
 }
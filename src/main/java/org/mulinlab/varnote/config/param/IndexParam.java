@@ -1,9 +1,13 @@
 package org.mulinlab.varnote.config.param;
 
 
+import org.mulinlab.varnote.constants.GlobalParameter;
+import org.mulinlab.varnote.exceptions.InvalidArgumentException;
 import org.mulinlab.varnote.utils.format.Format;
 import htsjdk.samtools.util.IOUtil;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 public final class IndexParam extends Param {
 
@@ -11,6 +15,12 @@ public final class IndexParam extends Param {
     private String inputFileName;
     private String outputDir;
     protected Format format = Format.newTAB();
+    private int thread = GlobalParameter.DEFAULT_THREAD;
+    private int longFeatureLength = GlobalParameter.DEFAULT_LONG_FEATURE_LENGTH;
+    private List<String> statColumns = new ArrayList<String>();
+    private List<String> annoColumns = new ArrayList<String>();
+    private boolean alleleHash = false;
+    private boolean alleleBloom = false;
 
     public IndexParam(final File input) {
         IOUtil.assertFileIsReadable(input);
@@ -64,6 +74,70 @@ public final class IndexParam extends Param {
         this.format = format;
     }
 
+    public int getThread() {
+        return thread;
+    }
+
+    public void setThread(int thread) {
+        if(thread < 1)  {
+            if(thread == -1) {
+                thread = Runtime.getRuntime().availableProcessors();
+                if(thread < 1) thread = 1;
+            }
+            else throw new InvalidArgumentException("Thread should be -1(automatically get thread number by available processors) or a number greater than zero, but we get " + thread);
+        }
+        this.thread = thread;
+    }
+
+    public int getLongFeatureLength() {
+        return longFeatureLength;
+    }
+
+    public void setLongFeatureLength(int longFeatureLength) {
+        if(longFeatureLength < 0) throw new InvalidArgumentException("Long feature length should be zero(disable the long feature list) or a number greater than zero, but we get " + longFeatureLength);
+        this.longFeatureLength = longFeatureLength;
+    }
+
+    public List<String> getStatColumns() {
+        return statColumns;
+    }
+
+    public void setStatColumns(final String statColumns) {
+        this.statColumns = splitColumns(statColumns);
+    }
+
+    public List<String> getAnnoColumns() {
+        return annoColumns;
+    }
+
+    public void setAnnoColumns(final String annoColumns) {
+        this.annoColumns = splitColumns(annoColumns);
+    }
+
+    public boolean isAlleleHash() {
+        return alleleHash;
+    }
+
+    public void setAlleleHash(final boolean alleleHash) {
+        this.alleleHash = alleleHash;
+    }
+
+    public boolean isAlleleBloom() {
+        return alleleBloom;
+    }
+
+    public void setAlleleBloom(final boolean alleleBloom) {
+        this.alleleBloom = alleleBloom;
+    }
+
+    private List<String> splitColumns(final String columns) {
+        final List<String> list = new ArrayList<String>();
+        for (String col : columns.split(GlobalParameter.COMMA)) {
+            if(!col.trim().isEmpty()) list.add(col.trim());
+        }
+        return list;
+    }
+
     public String getOutputDir() {
         return outputDir;
     }
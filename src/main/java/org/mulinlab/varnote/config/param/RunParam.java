@@ -15,6 +15,9 @@ public final class RunParam extends Param {
 
     private Mode mode = GlobalParameter.DEFAULT_MODE;
     private int thread = GlobalParameter.DEFAULT_THREAD;
+    private boolean dbParallel = GlobalParameter.DEFAULT_DB_PARALLEL;
+    private boolean sortQuery = GlobalParameter.DEFAULT_SORT_QUERY;
+    private boolean keepOrder = GlobalParameter.DEFAULT_KEEP_ORDER;
 
     public RunParam() {
     }
@@ -58,6 +61,31 @@ public final class RunParam extends Param {
         return mode;
     }
 
+    public boolean isDBParallel() {
+        return dbParallel;
+    }
+
+    public void setDBParallel(boolean dbParallel) {
+        this.dbParallel = dbParallel;
+    }
+
+    public boolean isSortQuery() {
+        return sortQuery;
+    }
+
+    public void setSortQuery(boolean sortQuery) {
+        this.sortQuery = sortQuery;
+    }
+
+    public boolean isKeepOrder() {
+        return keepOrder;
+    }
+
+    public void setKeepOrder(boolean keepOrder) {
+        this.keepOrder = keepOrder;
+        if(keepOrder) this.sortQuery = true;
+    }
+
     @Override
     public void checkParam() {
 
@@ -41,6 +41,16 @@ public final class AnnoOutParam extends OutParam {
 
 
 
+    /** the output is VCF, or BED with the header line of column names as the first line */
+    @Override
+    public Format getIndexFormat() {
+        if(annoOutFormat == AnnoOutFormat.VCF) return Format.newVCF();
+
+        final Format format = Format.newBED();
+        format.numHeaderLinesToSkip = 1;
+        return format;
+    }
+
     public void setDefalutOutFormat(final Format queryFormat) {
         if(annoOutFormat == null) {
             if (queryFormat.getFlags() == Format.VCF_FLAGS)
@@ -2,8 +2,10 @@ package org.mulinlab.varnote.config.param.output;
 
 import org.mulinlab.varnote.config.param.Param;
 import org.mulinlab.varnote.constants.GlobalParameter;
+import org.mulinlab.varnote.exceptions.InvalidArgumentException;
 import org.mulinlab.varnote.utils.VannoUtils;
 import org.mulinlab.varnote.utils.enumset.OutMode;
+import org.mulinlab.varnote.utils.format.Format;
 import java.io.File;
 import java.io.OutputStream;
 
@@ -14,6 +16,7 @@ public class OutParam extends Param {
 
     protected boolean loj = GlobalParameter.DEFAULT_LOJ;
     protected boolean isGzip = GlobalParameter.DEFAULT_IS_GZIP;
+    protected boolean isIndex = false;
     protected OutMode outputMode = GlobalParameter.DEFALT_OUT_MODE;
 
     public OutParam() {
@@ -28,10 +31,21 @@ public class OutParam extends Param {
         logger.info(VannoUtils.printLogHeader("OUTPUT"));
         logger.info(String.format("Output Path: %s", outputPath));
         logger.info(String.format("Is LOJ: %s", loj));
-        logger.info(String.format("Is GZIP: %s", isGzip));
+        logger.info(String.format("Is GZIP: %s", isGzip()));
+        if(isIndex) logger.info("Index output: BGZF with tabix index");
         logger.info(String.format("Output Mode: %s", outputMode));
     }
 
+    /** write the output to the standard output if no output path is set */
+    public void setDefalutStreamPath() {
+        if(outputPath == null) setOutputPath(GlobalParameter.STREAM_PATH);
+    }
+
+    /** the output is written to the standard output, always uncompressed */
+    public boolean isStream() {
+        return GlobalParameter.STREAM_PATH.equals(outputPath);
+    }
+
     public void setDefalutOutPath(final String queryPath) {
         if(outputPath == null) {
             if(isGzip) {
@@ -51,15 +65,30 @@ public class OutParam extends Param {
     }
 
     public boolean isGzip() {
-        return isGzip;
+        return isGzip && !isStream();
     }
 
     public void setGzip(boolean gzip) {
         isGzip = gzip;
     }
 
+    public boolean isIndex() {
+        return isIndex;
+    }
+
+    /** compress the output with BGZF and index it with tabix while writing */
+    public void setIndex(boolean index) {
+        isIndex = index;
+        if(index) isGzip = true;
+    }
+
+    /** the format of the output records for the tabix index */
+    public Format getIndexFormat() {
+        throw new InvalidArgumentException("Indexing the output is only supported for annotation.");
+    }
+
     public String getOutputPath() {
-        if(isGzip && !VannoUtils.hasExtension(VannoUtils.FileExt.GZ, outputPath)) {
+        if(isGzip() && !VannoUtils.hasExtension(VannoUtils.FileExt.GZ, outputPath)) {
             outputPath = outputPath + ".gz";
             outputName = outputName + ".gz";
         }
@@ -5,23 +5,32 @@ import org.mulinlab.varnote.config.anno.databse.VCFParser;
 import org.mulinlab.varnote.filters.query.VariantFilter;
 import org.mulinlab.varnote.utils.headerparser.HeaderFormatReader;
 import org.mulinlab.varnote.config.param.FilterParam;
+import org.mulinlab.varnote.constants.GlobalParameter;
 import org.mulinlab.varnote.exceptions.InvalidArgumentException;
 import org.mulinlab.varnote.operations.readers.itf.QueryReaderItf;
-import org.mulinlab.varnote.operations.readers.itf.thread.GZIPThreadReader;
+import org.mulinlab.varnote.operations.readers.itf.GZIPReader;
+import org.mulinlab.varnote.operations.readers.itf.thread.MappedLineReader;
 import org.mulinlab.varnote.operations.readers.itf.thread.SpiderReader;
 import org.mulinlab.varnote.operations.readers.query.AbstractFileReader;
 import org.mulinlab.varnote.operations.readers.query.VCFFileReader;
+import org.mulinlab.varnote.operations.schedule.ChunkScheduler;
+import org.mulinlab.varnote.operations.schedule.QueryScheduler;
+import org.mulinlab.varnote.operations.schedule.TaskScheduler;
+import org.mulinlab.varnote.operations.sort.QuerySorter;
 import org.mulinlab.varnote.utils.VannoUtils;
+import org.mulinlab.varnote.utils.database.Database;
 import org.mulinlab.varnote.utils.enumset.FileType;
 import org.mulinlab.varnote.utils.enumset.FormatType;
 import org.mulinlab.varnote.utils.format.Format;
 import org.mulinlab.varnote.utils.stream.BZIP2InputStream;
-import org.mulinlab.varnote.utils.stream.GZInputStream;
+import org.mulinlab.varnote.utils.stream.StdinStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 public final class QueryFileParam extends QueryParam {
 
@@ -36,6 +45,9 @@ public final class QueryFileParam extends QueryParam {
     private List<VariantFilter> locFilters;
 
     protected List<AbstractFileReader> threadReaders;
+    private QuerySorter sorter;
+    private TaskScheduler scheduler;
+    private StdinStream stdin;
 
 
     public QueryFileParam(final String path, final boolean isFull) {
@@ -49,23 +61,35 @@ public final class QueryFileParam extends QueryParam {
     public QueryFileParam(final String path, Format queryFormat, final boolean isFull, final FilterParam filterParam) {
         if(path == null || path.trim().equals("")) throw new InvalidArgumentException("Query file is required.");
 
-        IOUtil.assertInputIsValid(path);
-
-        this.path = VannoUtils.getAbsolutePath(path);
-        File file = new File(this.path);
-        this.fileName = file.getName();
-        this.len = file.length();
+        if(path.equals(GlobalParameter.STREAM_PATH)) {
+            try {
+                stdin = new StdinStream(System.in);
+            } catch (IOException e) {
+                throw new InvalidArgumentException("Read query from standard input failed: " + e.getMessage());
+            }
+            this.path = stdin.getHeadPath();
+            this.fileName = "stdin";
+            this.len = new File(this.path).length();
+            this.fileType = FileType.TXT;
+        } else {
+            IOUtil.assertInputIsValid(path);
+
+            this.path = VannoUtils.getAbsolutePath(path);
+            File file = new File(this.path);
+            this.fileName = file.getName();
+            this.len = file.length();
+            this.fileType = VannoUtils.checkFileType(path);
+        }
 
-        this.fileType = VannoUtils.checkFileType(path);
         this.isFull = isFull;
         this.filterParam = filterParam;
 
-        if(queryFormat == null) queryFormat = Format.defaultFormat(path, true);
+        if(queryFormat == null) queryFormat = Format.defaultFormat(this.path, true);
         if(queryFormat.type == FormatType.VCF) {
-            new VCFParser(path);
+            new VCFParser(this.path);
         }
         if(queryFormat.type != FormatType.RSID && queryFormat.getHeaderPart() == null) {
-            queryFormat = HeaderFormatReader.readHeader(queryFormat, path, fileType);
+            queryFormat = HeaderFormatReader.readHeader(queryFormat, this.path, fileType);
         }
         this.queryFormat = queryFormat;
     }
@@ -73,11 +97,23 @@ public final class QueryFileParam extends QueryParam {
     public void splitFile(int thread) {
         if(threadReaders == null) threadReaders = new ArrayList<>();
 
-        if(this.len < 6400) {
+        if(this.len < 6400 && !isStream()) {
             thread  = 1;
         }
         try {
-            if (fileType == FileType.BGZ || fileType == FileType.TXT) {
+            if (isStream()) {
+                scheduler = new ChunkScheduler(path, stdin.getInputStream());
+                for (int i = 0; i < thread; i++) {
+                    threadReaders.add(getReader(scheduler.getEmptyReader()));
+                }
+            } else if (thread > 1 && (fileType == FileType.BGZ || fileType == FileType.TXT) && queryFormat.type != FormatType.RSID) {
+                scheduler = QueryScheduler.scan(path, fileType, queryFormat);
+                for (int i = 0; i < thread; i++) {
+                    threadReaders.add(getReader(scheduler.getEmptyReader()));
+                }
+            } else if (fileType == FileType.TXT && thread == 1) {
+                threadReaders.add(getReader(new MappedLineReader(path, 0, -1)));
+            } else if (fileType == FileType.BGZ || fileType == FileType.TXT) {
                 BZIP2InputStream bz2_text = new BZIP2InputStream(path, thread);
                 bz2_text.adjustPos();
                 bz2_text.creatSpider();
@@ -89,17 +125,58 @@ public final class QueryFileParam extends QueryParam {
                 for (int i = 0; i < thread; i++) {
                     threadReaders.add(getReader(new SpiderReader(bz2_text.spider[i])));
                 }
-            } else {
-                GZInputStream in = new GZInputStream(path, thread);
+            } else if (thread > 1) {
+                scheduler = new ChunkScheduler(path, new GZIPInputStream(new FileInputStream(path), GlobalParameter.BUFFER_SIZE));
                 for (int i = 0; i < thread; i++) {
-                    threadReaders.add(getReader((new GZIPThreadReader(in.getReader(i)))));
+                    threadReaders.add(getReader(scheduler.getEmptyReader()));
                 }
+            } else {
+                threadReaders.add(getReader(new GZIPReader(path)));
             }
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    public void sortFile(final int thread, final boolean keepOrder) {
+        if(isStream()) throw new InvalidArgumentException("Sorting query is not supported for the standard input, please sort the query before piping it in.");
+        if(threadReaders == null) threadReaders = new ArrayList<>();
+
+        try {
+            sorter = new QuerySorter(path, queryFormat, keepOrder);
+            sorter.sort();
+            scheduler = sorter.getScheduler();
+            for (int i = 0; i < thread; i++) {
+                threadReaders.add(getReader(scheduler.getEmptyReader()));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** split the query into tasks weighted by the blocks of the databases, the threads read the tasks of the scheduler */
+    public void buildTasks(final List<Database> dbs) {
+        if(scheduler != null) {
+            try {
+                scheduler.build(threadReaders.size(), dbs);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    public TaskScheduler getScheduler() {
+        return scheduler;
+    }
+
+    public void closeSorter() {
+        if(scheduler != null) scheduler.close();
+        if(sorter != null) {
+            sorter.close();
+            sorter = null;
+        }
+    }
+
     public int getThreadSize() {
         return threadReaders.size();
     }
@@ -137,6 +214,11 @@ public final class QueryFileParam extends QueryParam {
         return path;
     }
 
+    /** the query is read from the standard input, getQueryPath is the file with the head of the query */
+    public boolean isStream() {
+        return stdin != null;
+    }
+
     public void printLog() {
         logger.info(VannoUtils.printLogHeader("QUERY"));
         logger.info(String.format("Query File: %s", getQueryName()));
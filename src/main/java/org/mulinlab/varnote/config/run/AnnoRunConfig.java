@@ -110,7 +110,10 @@ public class AnnoRunConfig extends OverlapRunConfig{
 				annoParam = map.get(db.getOutName());
 			}
 			if(annoParam != null) {
-				extractConfigMap.put(db.getOutName(), new ExtractConfig(annoParam, db));
+				final ExtractConfig extractConfig = new ExtractConfig(annoParam, db);
+				extractConfigMap.put(db.getOutName(), extractConfig);
+				if(db.getFormat().type != FormatType.VCF) db.setColumnsToRead(extractConfig.getColsToRead());
+				db.setAlleleMatch(!isForceOverlap() && queryParam.getQueryFormat().isRefAndAltExsit() && db.getFormat().isRefAndAltExsit());
 			} else {
 				logger.info(String.format("%sThe tag for database %s was not found in the configuration file, so its annotation would not be extracted.%s", GlobalParameter.KRED, db.getOutName(), GlobalParameter.KNRM));
 			}
@@ -106,6 +106,7 @@ public class OverlapRunConfig extends RunConfig {
 				comments.add(getComment(QueryReader.DB_PATH, db.getDbPath()));
 				comments.add(getComment(QueryReader.DB_INDEX_TYPE, db.getIndexType().toString()));
 				comments.add(getComment(QueryReader.DB_LABEL, db.getOutName()));
+				if(db.getFilter() != null) comments.add(getComment(QueryReader.DB_FILTER, db.getFilter()));
 			}
 
 			comments.add(getComment(QueryReader.OUTPUT_PATH, outParam.getOutputPath()));
@@ -7,6 +7,7 @@ import java.util.ArrayList;
 import java.util.List;
 import org.apache.logging.log4j.Logger;
 import org.mulinlab.varnote.config.io.temp.FlatPrintter;
+import org.mulinlab.varnote.config.io.temp.OrderedPrintter;
 import org.mulinlab.varnote.config.io.temp.Printter;
 import org.mulinlab.varnote.config.io.temp.ZipPrintter;
 import org.mulinlab.varnote.config.param.DBParam;
@@ -15,6 +16,7 @@ import org.mulinlab.varnote.config.param.output.OutParam;
 import org.mulinlab.varnote.config.param.query.QueryFileParam;
 import org.mulinlab.varnote.config.param.query.QueryParam;
 import org.mulinlab.varnote.constants.GlobalParameter;
+import org.mulinlab.varnote.operations.schedule.TaskScheduler;
 import org.mulinlab.varnote.utils.LoggingUtils;
 import org.mulinlab.varnote.utils.VannoUtils;
 import org.mulinlab.varnote.utils.database.Database;
@@ -42,7 +44,7 @@ public abstract class RunConfig {
 	
 	public void init() {
 		initQuery();
-		queryParam.printLog();
+		if(queryParam != null) queryParam.printLog();
 
 		initDB();
 		databses = DatabaseFactory.readDatabaseFromConfig(dbParams);
@@ -51,11 +53,17 @@ public abstract class RunConfig {
 		for (DBParam dbParam: dbParams) {
 			dbParam.printLog();
 		}
+		if(queryParam instanceof QueryFileParam) ((QueryFileParam)queryParam).buildTasks(databses);
 
 		initOutput();
 
-		if(outParam != null && queryParam instanceof QueryFileParam)
-			outParam.setDefalutOutPath(((QueryFileParam)queryParam).getQueryPath());
+		if(outParam != null && queryParam instanceof QueryFileParam) {
+			if(((QueryFileParam)queryParam).isStream()) {
+				outParam.setDefalutStreamPath();
+			} else {
+				outParam.setDefalutOutPath(((QueryFileParam)queryParam).getQueryPath());
+			}
+		}
 
 		logger.info(VannoUtils.printLogHeader("OTHER  SETTING"));
 		if(runParam != null) logger.info(String.format("Thread number: %d", runParam.getThread()));
@@ -74,7 +82,11 @@ public abstract class RunConfig {
 		QueryFileParam queryParam = (QueryFileParam)this.queryParam;
 
 		if(queryParam == null) throw new InvalidArgumentException("Query file is required.");
-		queryParam.splitFile(runParam.getThread());
+		if(runParam.isSortQuery()) {
+			queryParam.sortFile(runParam.getThread(), runParam.isKeepOrder());
+		} else {
+			queryParam.splitFile(runParam.getThread());
+		}
 		runParam.checkThreadNum(queryParam.getThreadSize());
 	}
 
@@ -84,11 +96,14 @@ public abstract class RunConfig {
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
+		if(queryParam instanceof QueryFileParam) ((QueryFileParam)queryParam).closeSorter();
 	}
 
 	protected void initPrintter(OutParam outParam, final int thread) throws IOException {
 		try {
-			if(outParam.isGzip()) {
+			if(outParam.isStream() || outParam.isIndex() || (!runParam.isKeepOrder() && (thread == 1 || getTaskScheduler() != null))) {
+				printter = new OrderedPrintter(outParam);
+			} else if(outParam.isGzip()) {
 				printter = new ZipPrintter(outParam);
 			} else {
 				printter = new FlatPrintter(outParam);
@@ -98,7 +113,19 @@ public abstract class RunConfig {
 		}
 		printter.init();
 		printter.setPrintter(thread);
+		if(runParam.isKeepOrder()) printter.setKeepOrder(true);
 		printter.printHeader(getHeader());
+		if(getTaskScheduler() != null) printter.startParts();
+	}
+
+	/** return the scheduler of the query tasks, null if each thread reads one range of the query */
+	public TaskScheduler getTaskScheduler() {
+		return (queryParam instanceof QueryFileParam) ? ((QueryFileParam)queryParam).getScheduler() : null;
+	}
+
+	/** the thread has printed the output of the task */
+	public void endTask(final int index, final int task) throws IOException {
+		printter.endPart(index, task);
 	}
 	
 	public List<Database> getDatabses() {
@@ -141,6 +168,27 @@ public abstract class RunConfig {
 		runParam.setThread(thread);
 	}
 
+	public void setMode(int mode) {
+		runParam.setMode(VannoUtils.checkMode(mode));
+	}
+
+	public void setDBParallel(boolean dbParallel) {
+		runParam.setDBParallel(dbParallel);
+	}
+
+	public void setSortQuery(boolean sortQuery) {
+		runParam.setSortQuery(sortQuery);
+	}
+
+	public void setKeepOrder(boolean keepOrder) {
+		runParam.setKeepOrder(keepOrder);
+	}
+
+	/** set the line number in the query file of the record printed next by the thread, used to restore the order of the output */
+	public void setRecordKey(final int index, final long key) {
+		printter.getPrintter(index).setKey(key);
+	}
+
 	public RunParam getRunParam() {
 		return runParam;
 	}
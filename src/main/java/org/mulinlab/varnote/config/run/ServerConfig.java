@@ -0,0 +1,87 @@
+package org.mulinlab.varnote.config.run;
+
+import java.util.List;
+import java.util.Map;
+import org.mulinlab.varnote.config.param.DBParam;
+import org.mulinlab.varnote.constants.GlobalParameter;
+
+public final class ServerConfig extends RunConfig {
+	private String host = GlobalParameter.DEFAULT_SERVER_HOST;
+	private int port = GlobalParameter.DEFAULT_SERVER_PORT;
+	private boolean displayLabel = GlobalParameter.DEFAULT_DISPLAY_LABEL;
+
+	public ServerConfig(final String[] dbPaths) {
+		super();
+		setDbParams(dbPaths);
+	}
+
+	public ServerConfig(final List<DBParam> dbConfigs, final String host, final int port, final int thread, final boolean displayLabel) {
+		super();
+		setDbParams(dbConfigs);
+		setHost(host);
+		setPort(port);
+		setThread(thread);
+		setDisplayLabel(displayLabel);
+	}
+
+	@Override
+	protected void initQuery() {
+	}
+
+	@Override
+	protected void initDB() {
+	}
+
+	@Override
+	protected void initOutput() {
+	}
+
+	@Override
+	protected List<String> getHeader() {
+		return null;
+	}
+
+	@Override
+	protected void initOther() {
+		logger.info(String.format("Listen on: %s:%d", host, port));
+	}
+
+	/** append the hits of a query to sb, one line for each hit */
+	public void printRecord(final Map<String, String[]> results, final StringBuilder sb) {
+		String[] list;
+		for (DBParam databaseConfig : dbParams) {
+			list = results.get(databaseConfig.getOutName());
+			if(list != null && list.length > 0)
+				for (String str : list) {
+					if(isDisplayLabel()) {
+						sb.append(databaseConfig.getOutName()).append(TAB);
+					}
+					sb.append(str).append('\n');
+				}
+		}
+	}
+
+	public String getHost() {
+		return host;
+	}
+
+	public void setHost(String host) {
+		this.host = host;
+	}
+
+	public int getPort() {
+		return port;
+	}
+
+	public void setPort(int port) {
+		this.port = port;
+	}
+
+	public boolean isDisplayLabel() {
+		return displayLabel;
+	}
+
+	public void setDisplayLabel(boolean displayLabel) {
+		this.displayLabel = displayLabel;
+	}
+}
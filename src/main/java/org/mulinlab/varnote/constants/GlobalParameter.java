@@ -62,6 +62,15 @@ public final class GlobalParameter {
 	//index
 	public static final int BUFFER_SIZE = 1024 * 128;
 	public static final String TEMP = ".temp";
+	public static final String STREAM_PATH = "-";
+	public static final int DEFAULT_PENDING_PARTS = 64;
+	public static final int DEFAULT_PENDING_PARTS_PER_THREAD = 8;
+	public static final String COLUMN_FILE_EXT = ".col";
+	public static final long INDEX_SPLIT_SIZE = 1024 * 1024 * 32;
+	public static final int DEFAULT_LONG_FEATURE_LENGTH = 1000000;
+	public static final int DEFAULT_BLOCK_CACHE_SIZE = 256; //MB
+	public static final boolean DEFAULT_MMAP = false;
+	public static final int DEFAULT_READ_AHEAD_BLOCKS = 4;
 
 
 	//run overlap
@@ -71,6 +80,13 @@ public final class GlobalParameter {
 	public final static Mode DEFAULT_MODE = Mode.MIX;
 	public final static IntersectType DEFAULT_INTERSECT = IntersectType.INTERSECT;
 	public final static int DEFAULT_THREAD = 1;
+	public final static boolean DEFAULT_DB_PARALLEL = false;
+	public final static int DEFAULT_BATCH_SIZE = 4096;
+	public final static boolean DEFAULT_SORT_QUERY = false;
+	public final static boolean DEFAULT_KEEP_ORDER = false;
+	public final static int DEFAULT_SORT_MEMORY = 512; //MB
+	public final static String DEFAULT_SERVER_HOST = "127.0.0.1";
+	public final static int DEFAULT_SERVER_PORT = 8686;
 	public static String OVERLAP_RESULT_SUFFIX = ".overlap";
 	public static String COUNT_RESULT_SUFFIX = ".count";
 
@@ -114,7 +130,8 @@ public final class GlobalParameter {
 	public static final int MAX_BINS = 37450; // =(8^6-1)/7+1
 	public static final int UNSET_GENOMIC_LOCATION = 0;
     
-	public static final int version = 1;
+	public static final int version = 7;
+	public static final int version1 = 1;
     
     public static final int MAX_SHORT = 32767;
     public static final byte MAX_BYTE = 127;
@@ -2,6 +2,7 @@ package org.mulinlab.varnote.filters.iterator;
 
 
 import org.mulinlab.varnote.filters.query.line.LineFilter;
+import org.mulinlab.varnote.operations.readers.itf.QueryReaderItf;
 import org.mulinlab.varnote.utils.node.LocFeature;
 import java.util.Iterator;
 import java.util.List;
@@ -29,6 +30,10 @@ public abstract class LineFilterIterator implements Iterator<LocFeature> {
         iterator.close();
     }
 
+    public void setReader(final QueryReaderItf reader) {
+        iterator.setReader(reader);
+    }
+
     @Override
     public boolean hasNext() {
         return iterator.hasNext();
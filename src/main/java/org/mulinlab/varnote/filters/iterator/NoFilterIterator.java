@@ -81,4 +81,12 @@ public final class NoFilterIterator implements LineIterator {
     public long getPosition() {
         return pos;
     }
+
+    /** close the current reader and read the lines of another reader */
+    public void setReader(final QueryReaderItf reader) {
+        close();
+        this.reader = reader;
+        this.next = null;
+        this.iterating = false;
+    }
 }
@@ -24,6 +24,16 @@ public final class BEDLocCodec extends LocCodec {
         return intv;
     }
 
+    @Override
+    public LocFeature decode(final byte[] b, final int off, final int len) {
+        super.decode(b, off, len);
+        if(exceedMaxLength()) {
+            intv.vt = VariantType.OML;
+        }
+
+        return intv;
+    }
+
     @Override
     public void processBeg() {
 
@@ -31,7 +41,7 @@ public final class BEDLocCodec extends LocCodec {
 
     @Override
     public void processEnd() {
-        intv.end = Integer.parseInt(parts[format.endPositionColumn - 1]);
+        intv.end = getIntField(format.endPositionColumn - 1);
     }
 
     @Override
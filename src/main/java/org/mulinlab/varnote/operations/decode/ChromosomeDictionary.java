@@ -0,0 +1,99 @@
+package org.mulinlab.varnote.operations.decode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.mulinlab.varnote.utils.node.ContigDictionary;
+
+/**
+ * Chromosome names of a codec, lower case and without "chr", so a name is normalized once and the same
+ * (interned) String is returned for every line of the chromosome. Names in bytes are looked up without creating a String.
+ */
+public final class ChromosomeDictionary {
+	private static final int INIT_SIZE = 64;
+
+	private final Map<String, String> names = new HashMap<String, String>();
+
+	private byte[][] keys = new byte[INIT_SIZE][];
+	private String[] values = new String[INIT_SIZE];
+	private int size = 0;
+
+	private String lastName;
+	private int lastContig = ContigDictionary.UNKNOWN;
+
+	/** return the global contig id of a name returned by get */
+	public int getContig(final String name) {
+		if(name != lastName) {
+			lastName = name;
+			lastContig = ContigDictionary.getId(name);
+		}
+		return lastContig;
+	}
+
+	public static String normalize(final String chr) {
+		return chr.toLowerCase().replace("chr", "").intern();
+	}
+
+	public String get(final String chr) {
+		String name = names.get(chr);
+		if(name == null) {
+			name = normalize(chr);
+			names.put(chr, name);
+		}
+		return name;
+	}
+
+	/** return the name of the chromosome in b[from] .. b[to - 1] */
+	public String get(final byte[] b, final int from, final int to) {
+		int h = 1;
+		for (int i = from; i < to; i++) {
+			h = 31 * h + b[i];
+		}
+
+		final int mask = keys.length - 1;
+		int slot = h & mask;
+		while(keys[slot] != null) {
+			if(isEqual(keys[slot], b, from, to)) return values[slot];
+			slot = (slot + 1) & mask;
+		}
+
+		final String name = get(new String(b, from, to - from, StandardCharsets.ISO_8859_1));
+		keys[slot] = Arrays.copyOfRange(b, from, to);
+		values[slot] = name;
+		if(++size * 2 > keys.length) rehash();
+		return name;
+	}
+
+	private static boolean isEqual(final byte[] key, final byte[] b, final int from, final int to) {
+		if(key.length != to - from) return false;
+		for (int i = 0; i < key.length; i++) {
+			if(key[i] != b[from + i]) return false;
+		}
+		return true;
+	}
+
+	private void rehash() {
+		final byte[][] oldKeys = keys;
+		final String[] oldValues = values;
+		keys = new byte[oldKeys.length * 2][];
+		values = new String[oldKeys.length * 2];
+
+		final int mask = keys.length - 1;
+		int h, slot;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if(oldKeys[i] == null) continue;
+			h = 1;
+			for (byte c : oldKeys[i]) {
+				h = 31 * h + c;
+			}
+			slot = h & mask;
+			while(keys[slot] != null) {
+				slot = (slot + 1) & mask;
+			}
+			keys[slot] = oldKeys[i];
+			values[slot] = oldValues[i];
+		}
+	}
+}
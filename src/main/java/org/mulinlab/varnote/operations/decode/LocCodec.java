@@ -3,8 +3,11 @@ package org.mulinlab.varnote.operations.decode;
 import htsjdk.tribble.AsciiFeatureCodec;
 import htsjdk.tribble.readers.LineIterator;
 import htsjdk.tribble.util.ParsingUtils;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import org.apache.logging.log4j.Logger;
 import org.mulinlab.varnote.utils.LoggingUtils;
+import org.mulinlab.varnote.utils.VannoUtils;
 import org.mulinlab.varnote.utils.node.LocFeature;
 import org.mulinlab.varnote.utils.format.Format;
 
@@ -16,6 +19,12 @@ public abstract class LocCodec extends AsciiFeatureCodec<LocFeature> {
     protected final Format format;
     protected String[] parts;
     protected boolean isFull;
+    protected final ChromosomeDictionary chromosomes = new ChromosomeDictionary();
+
+    protected byte[] bytes;
+    protected int[] fieldStart;
+    protected int[] fieldEnd;
+    protected int fieldCount;
 
     public LocCodec(final Format format, final int size, final boolean isFull) {
         super(LocFeature.class);
@@ -33,6 +42,7 @@ public abstract class LocCodec extends AsciiFeatureCodec<LocFeature> {
             parts = new String[s.split(format.getDelimStr()).length];
         }
         intv.clear();
+        bytes = null;
         ParsingUtils.split(s, parts, format.getDelimChar(), true);
         processToken();
 
@@ -40,12 +50,79 @@ public abstract class LocCodec extends AsciiFeatureCodec<LocFeature> {
         return intv;
     }
 
+    /**
+     * Decode the line in b[off] .. b[off + len - 1] without splitting it into Strings, the fields are kept as offsets
+     * and positions are parsed from the bytes. Only REF, ALT (and all the fields if isFull) are made Strings,
+     * origStr is not set, set it if the line is needed for output.
+     */
+    public LocFeature decode(final byte[] b, final int off, final int len) {
+        intv.clear();
+        bytes = b;
+        splitBytes(b, off, off + len);
+        if(parts == null) {
+            parts = new String[fieldCount];
+        }
+        processToken();
+        return intv;
+    }
+
+    /** split the line into at most parts.length fields, the last field holds the rest of the line as ParsingUtils.split */
+    private void splitBytes(final byte[] b, final int from, final int to) {
+        if(fieldStart == null) {
+            fieldStart = new int[parts == null ? 16 : Math.max(parts.length, 1)];
+            fieldEnd = new int[fieldStart.length];
+        }
+        final byte delim = (byte) format.getDelimChar();
+        final int max = (parts == null) ? Integer.MAX_VALUE : parts.length;
+
+        fieldCount = 0;
+        int start = from;
+        for (int i = from; i <= to; i++) {
+            if(i == to || (b[i] == delim && fieldCount < max - 1)) {
+                if(fieldCount == fieldStart.length) {
+                    fieldStart = Arrays.copyOf(fieldStart, fieldCount * 2);
+                    fieldEnd = Arrays.copyOf(fieldEnd, fieldCount * 2);
+                }
+                fieldStart[fieldCount] = start;
+                fieldEnd[fieldCount++] = i;
+                start = i + 1;
+            }
+        }
+    }
+
+    /** return field i of the line decoded */
+    protected String getField(final int i) {
+        if(bytes == null) return parts[i];
+        if(i >= fieldCount) return null;
+        return new String(bytes, fieldStart[i], fieldEnd[i] - fieldStart[i], StandardCharsets.ISO_8859_1);
+    }
+
+    protected int getFieldLength(final int i) {
+        if(bytes == null) return parts[i].length();
+        return fieldEnd[i] - fieldStart[i];
+    }
+
+    protected int getIntField(final int i) {
+        if(bytes == null) return Integer.parseInt(parts[i]);
+        if(i >= fieldCount) throw new NumberFormatException("null");
+        return VannoUtils.parseInt(bytes, fieldStart[i], fieldEnd[i]);
+    }
+
+    protected int getFieldCount() {
+        return (bytes == null) ? parts.length : fieldCount;
+    }
+
     public void processToken() {
-        intv.chr = parts[format.sequenceColumn - 1].toLowerCase().replace("chr", "");
-        intv.beg = intv.end = Integer.parseInt(parts[format.startPositionColumn - 1]);
+        if(bytes == null) {
+            intv.chr = chromosomes.get(parts[format.sequenceColumn - 1]);
+        } else {
+            intv.chr = chromosomes.get(bytes, fieldStart[format.sequenceColumn - 1], fieldEnd[format.sequenceColumn - 1]);
+        }
+        intv.contig = chromosomes.getContig(intv.chr);
+        intv.beg = intv.end = getIntField(format.startPositionColumn - 1);
 
-        if(format.refPositionColumn > 1) intv.ref = parts[format.refPositionColumn - 1];
-        if(format.altPositionColumn > 1) intv.alt = parts[format.altPositionColumn - 1];
+        if(format.refPositionColumn > 1) intv.ref = getField(format.refPositionColumn - 1);
+        if(format.altPositionColumn > 1) intv.alt = getField(format.altPositionColumn - 1);
 
         processBeg();
         processEnd();
@@ -56,7 +133,7 @@ public abstract class LocCodec extends AsciiFeatureCodec<LocFeature> {
         if(isFull) {
             intv.parts = new String[parts.length];
             for (int i = 0; i < parts.length; i++) {
-                intv.parts[i] = parts[i];
+                intv.parts[i] = (bytes == null) ? parts[i] : getField(i);
             }
         }
     }
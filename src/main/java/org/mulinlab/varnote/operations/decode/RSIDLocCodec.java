@@ -1,6 +1,7 @@
 package org.mulinlab.varnote.operations.decode;
 
 import htsjdk.tribble.util.ParsingUtils;
+import java.nio.charset.StandardCharsets;
 import org.mulinlab.varnote.utils.VannoUtils;
 import org.mulinlab.varnote.utils.format.Format;
 import org.mulinlab.varnote.utils.node.LocFeature;
@@ -38,6 +39,11 @@ public class RSIDLocCodec extends LocCodec {
         }
     }
 
+    @Override
+    public LocFeature decode(final byte[] b, final int off, final int len) {
+        return decode(new String(b, off, len, StandardCharsets.ISO_8859_1));
+    }
+
     protected void invalidRSID(final String rsid) {
         logger.error(String.format("Failed to parser invalid rsid \"%s\"", rsid));
     }
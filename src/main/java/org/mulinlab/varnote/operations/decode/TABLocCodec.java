@@ -20,6 +20,16 @@ public final class TABLocCodec extends LocCodec {
         return intv;
     }
 
+    @Override
+    public LocFeature decode(final byte[] b, final int off, final int len) {
+        super.decode(b, off, len);
+        if(exceedMaxLength()) {
+            intv.vt = VariantType.OML;
+        }
+
+        return intv;
+    }
+
     @Override
     public void processBeg() {
         if ((format.getFlags() & 0x10000) != 0) ++intv.end;
@@ -29,14 +39,14 @@ public final class TABLocCodec extends LocCodec {
     @Override
     public void processEnd() {
         if(!format.isPos()) {
-            intv.end = Integer.parseInt(parts[format.endPositionColumn - 1]);
+            intv.end = getIntField(format.endPositionColumn - 1);
         }
     }
 
     @Override
     public void processOther() {
         if(format.isPos() && format.refPositionColumn > 1) {
-            intv.end = intv.beg + parts[format.refPositionColumn - 1].length();
+            intv.end = intv.beg + getFieldLength(format.refPositionColumn - 1);
         }
     }
 
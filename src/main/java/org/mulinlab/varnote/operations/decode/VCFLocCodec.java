@@ -6,6 +6,7 @@ import org.mulinlab.varnote.constants.GlobalParameter;
 import org.mulinlab.varnote.utils.enumset.VariantType;
 import org.mulinlab.varnote.utils.format.Format;
 import org.mulinlab.varnote.utils.node.LocFeature;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -62,6 +63,23 @@ public final class VCFLocCodec extends LocCodec {
         return intv;
     }
 
+    @Override
+    public LocFeature decode(final byte[] b, final int off, final int len) {
+        super.decode(b, off, len);
+
+        if (altIDs != null && altIDs.get(intv.alt) != null) {
+            intv.vt = VariantType.LV;
+        } else if(exceedMaxLength()) {
+            intv.vt = VariantType.OML;
+        }
+
+        if(codec != null) {
+            intv.origStr = new String(b, off, len, StandardCharsets.ISO_8859_1);
+            intv.variantContext = codec.decode(intv.origStr);
+        }
+        return intv;
+    }
+
     @Override
     public void processBeg() {
         intv.beg = intv.beg - 1;
@@ -75,8 +93,8 @@ public final class VCFLocCodec extends LocCodec {
     @Override
     public void processOther() {
         intv.end = intv.beg + intv.ref.length();
-        if(parts != null && parts.length > 7) {
-            ajustSVTYPE(parts[7]);
+        if(parts != null && getFieldCount() > 7) {
+            ajustSVTYPE(getField(7));
         }
     }
 
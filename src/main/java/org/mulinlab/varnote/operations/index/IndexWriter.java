@@ -1,14 +1,24 @@
 package org.mulinlab.varnote.operations.index;
 
+import htsjdk.variant.vcf.VCFHeader;
 import org.mulinlab.varnote.config.param.IndexParam;
 import org.mulinlab.varnote.constants.GlobalParameter;
 import org.mulinlab.varnote.filters.iterator.LineFilterIterator;
+import org.mulinlab.varnote.filters.iterator.LocFilterIterator;
+import org.mulinlab.varnote.filters.iterator.NoFilterIterator;
+import org.mulinlab.varnote.filters.query.line.LineFilter;
 import org.mulinlab.varnote.filters.query.line.SkipLineFilter;
 import org.mulinlab.varnote.operations.readers.itf.BGZReader;
 import org.mulinlab.varnote.operations.readers.query.AbstractFileReader;
+import org.mulinlab.varnote.operations.readers.query.VCFFileReader;
 import org.mulinlab.varnote.utils.LoggingUtils;
 import org.mulinlab.varnote.utils.VannoUtils;
+import org.mulinlab.varnote.utils.block.AlleleHash;
 import org.mulinlab.varnote.utils.block.SROB;
+import org.mulinlab.varnote.utils.block.SROBBloom;
+import org.mulinlab.varnote.utils.block.SROBColumns;
+import org.mulinlab.varnote.utils.block.SROBDirectory;
+import org.mulinlab.varnote.utils.block.SROBStats;
 import org.mulinlab.varnote.utils.enumset.FileType;
 import org.mulinlab.varnote.utils.enumset.IndexType;
 import org.mulinlab.varnote.utils.gz.MyBlockCompressedOutputStream;
@@ -21,12 +31,20 @@ import org.apache.logging.log4j.Logger;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public final class IndexWriter {
 	private final Logger logger = LoggingUtils.logger;
@@ -37,21 +55,54 @@ public final class IndexWriter {
 	private final Set<String> sequenceNamesSeen = new HashSet<String>();
 
 	private Map<Integer, Long> addressOfChr;
+	private Map<Integer, SROBDirectory> directories;
+	private SROBDirectory directory;
+	private Map<Integer, SROBDirectory> longFeatures;
+	private SROBDirectory longFeature;
+	private final int longFeatureLength;
+	private final boolean alleleHash;
+	private final boolean alleleBloom;
+	private Map<Integer, SROBBloom> bloomsOfChr;
+	private SROBBloom bloom;
+	private Map<Integer, SROBStats> statsOfChr;
+	private SROBStats stats;
+	private int[] statColumns;
+	private Map<Integer, List<Long>> columnChunksOfChr;
+	private List<Long> columnChunks;
+	private SROBColumns columns;
+	private int[] annoColumns;
+	private MyEndianOutputStream columnOS;
 	private MyEndianOutputStream vannoOS;
 	private MyEndianOutputStream vannoIndexOS;
 	private boolean isBlockStart;
 	
 	private SROB bin;
 	private SROBListBean listBean;
+	private ArrayDeque<long[]> pendingBinIndex;
+	private long splitSize = GlobalParameter.INDEX_SPLIT_SIZE;
 	
 	public IndexWriter(final IndexParam param) {
 		this.param = param;
 		this.formatSpec = param.getFormat();
 		this.isBlockStart = true;
 		this.addressOfChr = new HashMap<Integer, Long>();
+		this.directories = new HashMap<Integer, SROBDirectory>();
+		this.longFeatures = new HashMap<Integer, SROBDirectory>();
+		this.longFeatureLength = param.getLongFeatureLength();
+		this.alleleBloom = param.isAlleleBloom();
+		this.alleleHash = param.isAlleleHash() || alleleBloom;
+		this.bloomsOfChr = new HashMap<Integer, SROBBloom>();
+		this.statsOfChr = new HashMap<Integer, SROBStats>();
+		this.columnChunksOfChr = new HashMap<Integer, List<Long>>();
 		this.bin = new SROB(-1, 0, 0, 0);
 
 		this.listBean = new SROBListBean();
+		this.pendingBinIndex = new ArrayDeque<long[]>();
+	}
+
+	/** set the compressed size of the parts of the input indexed by threads */
+	public void setSplitSize(final long splitSize) {
+		this.splitSize = splitSize;
 	}
 
 	public void makeIndex() {
@@ -64,24 +115,49 @@ public final class IndexWriter {
 
 			final File vannoFileTemp = new File(vannoFile + GlobalParameter.TEMP);
 			final File vannoIndexFileTemp = new File(vannoIndexFile + GlobalParameter.TEMP);
+			final File columnFileTemp = new File(vannoFile + GlobalParameter.COLUMN_FILE_EXT + GlobalParameter.TEMP);
 
-			vannoOS = new MyEndianOutputStream(new MyBlockCompressedOutputStream(vannoFileTemp));
+			vannoOS = new MyEndianOutputStream(new MyBlockCompressedOutputStream(vannoFileTemp, MyBlockCompressedOutputStream.getDefaultCompressionLevel(),
+					MyBlockCompressedOutputStream.getDefaultDeflaterFactory(), param.getThread()));
 			vannoIndexOS = new MyEndianOutputStream(new MyBlockCompressedOutputStream(vannoIndexFileTemp));
 
 			final AbstractFileReader reader = VannoUtils.getReader(new BGZReader(param.getInput()), formatSpec);
-			writeIndexForBGZ(reader);
+			statColumns = getStatColumns(reader.getFormat());
+			annoColumns = getAnnoColumns(reader.getFormat());
+			if(alleleHash) {
+				if(!formatSpec.isRefAndAltExsit()) throw new InvalidArgumentException("REF and ALT columns should be defined to keep the allele hash of features.");
+				logger.info("Keep REF and ALT hash for features");
+				if(alleleBloom) logger.info("Keep bloom filter of positions and alleles for blocks");
+			}
+			if(annoColumns.length > 0) {
+				columnOS = new MyEndianOutputStream(new MyBlockCompressedOutputStream(columnFileTemp, MyBlockCompressedOutputStream.getDefaultCompressionLevel(),
+					MyBlockCompressedOutputStream.getDefaultDeflaterFactory(), param.getThread()));
+				columns = new SROBColumns(annoColumns, formatSpec.getDelimChar());
+			}
+			if(param.getThread() > 1) {
+				writeIndexForBGZ(reader, param.getThread());
+			} else {
+				writeIndexForBGZ(reader);
+			}
 
 			vannoOS.write(GlobalParameter.VANNO_FILE_END);
 			vannoOS.close();
+			if(columnOS != null) columnOS.close();
 
 			vannoIndexOS.write(GlobalParameter.VANNO_FILE_END);
 			long address = vannoIndexOS.getOut().getFilePointer();
 
-			VannoUtils.writeFormats(vannoIndexOS, formatSpec, reader.getFormat().getHeaderPart(), sequenceNames, addressOfChr);
+			VannoUtils.writeFormats(vannoIndexOS, formatSpec, reader.getFormat().getHeaderPart(), sequenceNames, addressOfChr, GlobalParameter.version);
+			writeDirectories();
+			writeStats();
+			writeColumnChunks();
+			vannoIndexOS.writeInt(alleleHash ? 1 : 0);
+			writeBlooms();
 			vannoIndexOS.close(address);
 
 			moveFile(vannoFileTemp, new File(vannoFile));
 			moveFile(vannoIndexFileTemp, new File(vannoIndexFile));
+			if(columnOS != null) moveFile(columnFileTemp, new File(vannoFile + GlobalParameter.COLUMN_FILE_EXT));
 
 			logger.info(String.format("\nVanno file is done, please find it in %s." , vannoFile));
 			logger.info(String.format("Vanno index file is done, please find it in %s. \n" , vannoIndexFile));
@@ -100,6 +176,7 @@ public final class IndexWriter {
 		BlockBean blockBean = new BlockBean(0), preBlockBean = new BlockBean(0);
 		int tid = 0, preBeg = -1;
 		LocFeature feature = new LocFeature();
+		final double[] values = new double[statColumns.length];
 
 		long c = 0;
 		String s = "";
@@ -116,6 +193,7 @@ public final class IndexWriter {
 					if(!seqName.equals("")) {
 						addBin(bin);
 						vannoOS.write(GlobalParameter.CHR_START); //new chr start
+						writeBinIndex(true);
 						vannoIndexOS.writeInt(GlobalParameter.CHR_START);
 						listBean.init();
 						bin.initSROB(-1, 0, 0, 0);
@@ -129,6 +207,16 @@ public final class IndexWriter {
 					tid = sequenceNames.size() - 1;
 
 					addressOfChr.put(tid, vannoIndexOS.getOut().getFilePointer());
+					directory = new SROBDirectory();
+					directories.put(tid, directory);
+					longFeature = new SROBDirectory();
+					longFeatures.put(tid, longFeature);
+					stats = new SROBStats(statColumns.length);
+					statsOfChr.put(tid, stats);
+					columnChunks = new ArrayList<Long>();
+					columnChunksOfChr.put(tid, columnChunks);
+					bloom = new SROBBloom();
+					bloomsOfChr.put(tid, bloom);
 					logger.info(String.format("Writing vanno file for chr %s", seqName));
 				}
 
@@ -137,10 +225,19 @@ public final class IndexWriter {
 
 				if(isBlockStart) {
 					addBin(bin);
-					bin.initSROB(feature.beg, feature.end, vannoOS.getOut().getFilePointer(), blockBean.getFilePointer());
+					bin.initSROB(feature.beg, feature.end, vannoOS.getOut().getPendingFilePointer(), blockBean.getFilePointer());
 				} else {
 					bin.updateMax(feature, blockBean.getBlockOffset() - preBlockBean.getBlockOffset());
 				}
+				if(alleleHash) bin.setAlleleHash(AlleleHash.fingerprint(feature.ref, feature.alt));
+				if(alleleBloom) bloom.add(feature.beg, feature.end, feature.ref, feature.alt);
+				if(isLongFeature(feature)) {
+					longFeature.add(blockBean.getFilePointer(), feature.beg, feature.end);
+				} else {
+					bin.updateShortMax(feature.end);
+				}
+				updateStats(stats, feature.origStr, values);
+				if(columns != null) columns.update(feature.origStr);
 
 				preBlockBean.setFilePointer(blockBean.getFilePointer());
 				preBeg = feature.beg;
@@ -155,92 +252,343 @@ public final class IndexWriter {
 		}
 		if(!seqName.equals("")) {
 			addBin(bin);
+			writeBinIndex(true);
 			vannoIndexOS.writeInt(GlobalParameter.CHR_START);
 		}
 		iterator.close();
 		logger.info(String.format("Processed %d records", c));
 	}
 	
+	/**
+	 * Build the index with multiple threads. The input is split at BGZF block boundaries, each part is decoded and
+	 * encoded to vanno blocks by a worker, and the encoded blocks are stitched in input order by the calling thread.
+	 * The stitched output has the same layout as the single thread build.
+	 */
+	public void writeIndexForBGZ(final AbstractFileReader reader, final int thread) throws IOException {
+		reader.addLineFilters(new SkipLineFilter(formatSpec.numHeaderLinesToSkip));
+
+		logger.info(String.format("Input format: %s", param.getFormat().logFormat()));
+		final long[] splits = splitBGZ(param.getInput());
+		logger.info(String.format("Split input into %d parts, indexing with %d threads", splits.length - 1, thread));
+
+		final VCFHeader vcfHeader = (reader instanceof VCFFileReader) ? ((VCFFileReader) reader).getHeader() : null;
+		final ExecutorService executor = Executors.newFixedThreadPool(thread);
+		final LinkedList<Future<List<ChrSegment>>> futures = new LinkedList<>();
+
+		String seqName = "";
+		int tid, preBeg = 0, next = 0;
+		long c = 0, filePointer;
+		EncodedBin encodedBin;
+
+		try {
+			while(next < splits.length - 1 || !futures.isEmpty()) {
+				while(next < splits.length - 1 && futures.size() < thread * 2) {
+					futures.add(executor.submit(new IndexTask(next == 0 ? reader.getFilterIterator() : null, splits[next], splits[next + 1], vcfHeader)));
+					next++;
+				}
+
+				for (ChrSegment segment : futures.poll().get()) {
+					if(!segment.chr.equals(seqName)) {
+						if(!seqName.equals("")) {
+							vannoOS.write(GlobalParameter.CHR_START); //new chr start
+							writeBinIndex(true);
+							vannoIndexOS.writeInt(GlobalParameter.CHR_START);
+							listBean.init();
+						}
+
+						addSeqsName(segment.chr);
+						seqName = segment.chr;
+						tid = sequenceNames.size() - 1;
+
+						addressOfChr.put(tid, vannoIndexOS.getOut().getFilePointer());
+						directory = new SROBDirectory();
+						directories.put(tid, directory);
+						longFeature = new SROBDirectory();
+						longFeatures.put(tid, longFeature);
+						stats = new SROBStats(statColumns.length);
+						statsOfChr.put(tid, stats);
+						columnChunks = new ArrayList<Long>();
+						columnChunksOfChr.put(tid, columnChunks);
+						bloom = new SROBBloom();
+						bloomsOfChr.put(tid, bloom);
+						logger.info(String.format("Writing vanno file for chr %s", seqName));
+					} else if(segment.firstBeg < preBeg) {
+						throw new InvalidArgumentException(String.format("Features added out of order: next start %d < previous start %d, please sorted features by chr column, start column.", segment.firstBeg, preBeg));
+					}
+
+					for (int i = 0; i < segment.bins.size(); i++) {
+						encodedBin = segment.bins.get(i);
+						filePointer = vannoOS.getOut().getPendingFilePointer();
+						vannoOS.write(encodedBin.data, 0, encodedBin.data.length);
+						addBinIndex(filePointer, encodedBin.min, encodedBin.max, encodedBin.shortMax);
+						stats.add(segment.stats, i);
+						if(columnOS != null) writeColumnChunk(segment.columnChunks.get(i));
+						if(alleleBloom) bloom.add(segment.bloom, i);
+					}
+					for (int i = 0; i < segment.longFeature.size(); i++) {
+						longFeature.add(segment.longFeature.getVannoFilePointer(i), segment.longFeature.getMin(i), segment.longFeature.getMax(i));
+					}
+					preBeg = segment.lastBeg;
+					c += segment.count;
+				}
+			}
+		} catch (InterruptedException e) {
+			throw new IOException(e);
+		} catch (ExecutionException e) {
+			if(e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+			throw new IOException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+
+		if(!seqName.equals("")) {
+			writeBinIndex(true);
+			vannoIndexOS.writeInt(GlobalParameter.CHR_START);
+		}
+		logger.info(String.format("Processed %d records", c));
+	}
+
+	private long[] splitBGZ(final String path) throws IOException {
+		final List<Long> splits = new ArrayList<Long>();
+		splits.add(0L);
+
+		final RandomAccessFile raf = new RandomAccessFile(path, "r");
+		final long length = raf.length();
+		long address;
+		for (long pos = splitSize; pos < length; pos += splitSize) {
+			address = VannoUtils.nextBGZBlockAddress(raf, pos);
+			if(address == -1) break;
+			if(address > splits.get(splits.size() - 1)) splits.add(address);
+		}
+		raf.close();
+
+		final long[] arr = new long[splits.size() + 1];
+		for (int i = 0; i < splits.size(); i++) {
+			arr[i] = splits.get(i);
+		}
+		arr[splits.size()] = length;
+		return arr;
+	}
+
 	public void addBin(final SROB bin) throws IOException {
 		if((bin != null) && bin.getMin() != -1 && bin.hasFeature()) {
-			
-			final List<SROB.Feature> features = bin.getBlockFeature();
-			
-			int end = features.get(0).getEnd(), avgOffset = bin.getAVGOffset();
-			if(end == 1) {
-				vannoOS.write(GlobalParameter.BLOCK_START_WO_END);
+			encodeBin(vannoOS, bin);
+
+			bin.clear();
+			addBinIndex(bin.getVannoFilePointer(), bin.getMin(), bin.getMax(), bin.getShortMax());
+			stats.add();
+			if(columnOS != null) writeColumnChunk(columns.encode());
+			if(alleleBloom) bloom.add();
+		}
+	}
+
+	private int[] getStatColumns(final Format format) {
+		final List<String> columns = param.getStatColumns();
+		final int[] arr = new int[columns.size()];
+		for (int i = 0; i < arr.length; i++) {
+			arr[i] = VannoUtils.parseColumn(format, columns.get(i));
+			if(arr[i] < 1) throw new InvalidArgumentException(String.format("Stat column %s is not found in the header of %s.", columns.get(i), param.getInputFileName()));
+		}
+		if(arr.length > 0) logger.info(String.format("Keep block min and max for columns: %s", columns));
+		return arr;
+	}
+
+	private int[] getAnnoColumns(final Format format) {
+		final List<String> columns = param.getAnnoColumns();
+		final int[] arr = new int[columns.size()];
+		for (int i = 0; i < arr.length; i++) {
+			arr[i] = VannoUtils.parseColumn(format, columns.get(i));
+			if(arr[i] < 1) throw new InvalidArgumentException(String.format("Anno column %s is not found in the header of %s.", columns.get(i), param.getInputFileName()));
+		}
+		if(arr.length > 0) logger.info(String.format("Store columns in the column file: %s", columns));
+		return arr;
+	}
+
+	private void writeColumnChunk(final byte[] data) throws IOException {
+		columnChunks.add(columnOS.getOut().getPendingFilePointer());
+		columnOS.writeInt(data.length);
+		columnOS.write(data, 0, data.length);
+	}
+
+	/**
+	 * Write the columns in the column file and the file pointer of the column chunk of each SROB, the chunks are in the
+	 * same order as the SROB directory.
+	 */
+	private void writeColumnChunks() throws IOException {
+		vannoIndexOS.writeInt(annoColumns.length);
+		for (int col : annoColumns) {
+			vannoIndexOS.writeInt(col);
+		}
+		vannoIndexOS.writeInt(columnChunksOfChr.keySet().size());
+		for (Integer chrID : columnChunksOfChr.keySet()) {
+			vannoIndexOS.writeInt(chrID);
+			vannoIndexOS.writeInt(columnChunksOfChr.get(chrID).size());
+			for (Long filePointer : columnChunksOfChr.get(chrID)) {
+				vannoIndexOS.writeLong(columnOS.getOut().resolveFilePointer(filePointer));
+			}
+		}
+	}
+
+	/**
+	 * Write the bloom filter of each SROB for each chromosome, the filters are in the same order as the SROB directory.
+	 */
+	private void writeBlooms() throws IOException {
+		vannoIndexOS.writeInt(alleleBloom ? 1 : 0);
+		if(!alleleBloom) return;
+		vannoIndexOS.writeInt(bloomsOfChr.keySet().size());
+		for (Integer chrID : bloomsOfChr.keySet()) {
+			vannoIndexOS.writeInt(chrID);
+			bloomsOfChr.get(chrID).write(vannoIndexOS);
+		}
+	}
+
+	private void updateStats(final SROBStats stats, final String line, final double[] values) {
+		if(values.length == 0) return;
+		for (int i = 0; i < values.length; i++) {
+			values[i] = VannoUtils.parseNumber(VannoUtils.getColumn(line, formatSpec.getDelimChar(), statColumns[i]));
+		}
+		stats.update(values);
+	}
+
+	/**
+	 * Write the stat columns and the block min and max of these columns for each chromosome, the blocks are in the
+	 * same order as the SROB directory.
+	 */
+	private void writeStats() throws IOException {
+		vannoIndexOS.writeInt(statColumns.length);
+		for (int col : statColumns) {
+			vannoIndexOS.writeInt(col);
+		}
+		vannoIndexOS.writeInt(statsOfChr.keySet().size());
+		for (Integer chrID : statsOfChr.keySet()) {
+			vannoIndexOS.writeInt(chrID);
+			statsOfChr.get(chrID).write(vannoIndexOS);
+		}
+	}
+
+	private boolean isLongFeature(final LocFeature feature) {
+		return longFeatureLength > 0 && (feature.end - feature.beg) > longFeatureLength;
+	}
+
+	/**
+	 * Write the SROB directory and the long feature list of each chromosome after the formats.
+	 * The SROB list in the index keeps the max of all features so version 1 readers still work, the directory
+	 * keeps the max of the features not in the long feature list.
+	 */
+	private void writeDirectories() throws IOException {
+		vannoIndexOS.writeInt(directories.keySet().size());
+		for (Integer chrID : directories.keySet()) {
+			vannoIndexOS.writeInt(chrID);
+			directories.get(chrID).write(vannoIndexOS);
+		}
+
+		vannoIndexOS.writeInt(longFeatureLength);
+		vannoIndexOS.writeInt(longFeatures.keySet().size());
+		for (Integer chrID : longFeatures.keySet()) {
+			vannoIndexOS.writeInt(chrID);
+			longFeatures.get(chrID).write(vannoIndexOS);
+		}
+	}
+
+	/**
+	 * The SROB index is written once the vanno block of the SROB is written and its address is known, so deflating
+	 * blocks of the vanno file by threads doesn't wait for each SROB.
+	 */
+	private void addBinIndex(final long pendingFilePointer, final int min, final int max, final int shortMax) throws IOException {
+		pendingBinIndex.add(new long[]{pendingFilePointer, min, max, shortMax});
+		writeBinIndex(false);
+	}
+
+	private void writeBinIndex(final boolean force) throws IOException {
+		final MyBlockCompressedOutputStream out = vannoOS.getOut();
+		long[] binIndex;
+		while(!pendingBinIndex.isEmpty() && (force || out.isResolvable(pendingBinIndex.peek()[0]))) {
+			binIndex = pendingBinIndex.poll();
+			writeBinIndex(out.resolveFilePointer(binIndex[0]), (int) binIndex[1], (int) binIndex[2], (int) binIndex[3]);
+		}
+	}
+
+	private void writeBinIndex(final long vannoFilePointer, final int min, final int max, final int shortMax) throws IOException {
+		if(listBean.isBlockChanged(vannoFilePointer)) {
+			vannoIndexOS.writeInt(GlobalParameter.BLOCK_ADDRESS);
+			vannoIndexOS.writeLong(vannoFilePointer);
+		} else {
+			vannoIndexOS.writeInt(listBean.getBlockOffset());
+		}
+		vannoIndexOS.writeInt(listBean.getOffsetMin(min));
+		vannoIndexOS.writeInt(max - min);
+		directory.add(vannoFilePointer, min, shortMax);
+	}
+
+	private void encodeBin(final MyEndianOutputStream os, final SROB bin) throws IOException {
+		final List<SROB.Feature> features = bin.getBlockFeature();
+		
+		int end = features.get(0).getEnd(), avgOffset = bin.getAVGOffset();
+		if(end == 1) {
+			os.write(GlobalParameter.BLOCK_START_WO_END);
+		} else {
+			if(end <= GlobalParameter.MAX_BYTE_UNSIGNED) {
+				os.write(GlobalParameter.BLOCK_START_WITH_END_BTYE);
+				os.write(end); 
+			} else if(end <= GlobalParameter.MAX_SHORT_UNSIGNED) {
+				os.write(GlobalParameter.BLOCK_START_WITH_END_SHORT);
+				os.writeShort(end); 
 			} else {
-				if(end <= GlobalParameter.MAX_BYTE_UNSIGNED) {
-					vannoOS.write(GlobalParameter.BLOCK_START_WITH_END_BTYE);
-					vannoOS.write(end); 
-				} else if(end <= GlobalParameter.MAX_SHORT_UNSIGNED) {
-					vannoOS.write(GlobalParameter.BLOCK_START_WITH_END_SHORT);
-					vannoOS.writeShort(end); 
-				} else {
-					vannoOS.write(GlobalParameter.BLOCK_START_WITH_END_INT);
-					vannoOS.writeInt(end); 
-				}
+				os.write(GlobalParameter.BLOCK_START_WITH_END_INT);
+				os.writeInt(end); 
 			}
+		}
+		
+		os.writeLong(bin.getBGZFilePointer());
+		writeShort(os, avgOffset);
+		if(alleleHash) os.writeInt(features.get(0).getAlleleHash());
+
+		int beg, offset , flagBeg = 0, flagEnd = 0;
+		int flag = 0;
+		SROB.Feature feature = null;
+		for (int i = 1; i < features.size(); i++) {
+			flagBeg = 0;  flagEnd = 0; flag = 0;
+			feature = features.get(i);
 			
-			vannoOS.writeLong(bin.getBGZFilePointer());
-			writeShort(vannoOS, avgOffset);
-
-			int beg, offset , flagBeg = 0, flagEnd = 0;
-			int flag = 0;
-			SROB.Feature feature = null;
-			for (int i = 1; i < features.size(); i++) {
-				flagBeg = 0;  flagEnd = 0; flag = 0;
-				feature = features.get(i);
-				
-				beg = feature.getBeg();    end = feature.getEnd();    offset = feature.getOffset() - avgOffset;
-				if(beg <= 4) {
-					flag += beg;   
-				} else {
-					flagBeg = getFlag(beg);
-				}
-				if(flagBeg > 0) flag = flag + flagBeg + 4;
+			beg = feature.getBeg();    end = feature.getEnd();    offset = feature.getOffset() - avgOffset;
+			if(beg <= 4) {
+				flag += beg;   
+			} else {
+				flagBeg = getFlag(beg);
+			}
+			if(flagBeg > 0) flag = flag + flagBeg + 4;
 
-				if(end == 1) {
+			if(end == 1) {
 
-				} else {
-					flagEnd = getFlag(end);
-				}
-				flag += flagEnd * 8;
-				
-				if(offset < 0) {       
-					flag += 32;      
-				} 
-				
-				offset = Math.abs(offset);
-				if(offset > GlobalParameter.MAX_BYTE_UNSIGNED) {
-					flag += 64;      
-				} 
-				
-				vannoOS.write(flag);
-
-				if(flagBeg > 0) write(vannoOS, flagBeg, beg);
-				if(flagEnd > 0) write(vannoOS, flagEnd, end);
-				
-				if(offset <= GlobalParameter.MAX_BYTE_UNSIGNED) {
-					vannoOS.write(offset);
-				} else if(offset <= GlobalParameter.MAX_SHORT) {
-					vannoOS.writeShort(offset);
-				} else {
-					vannoOS.writeShort(GlobalParameter.INT_START);
-					vannoOS.writeInt(offset);
-				}
-				feature = null;
+			} else {
+				flagEnd = getFlag(end);
 			}
+			flag += flagEnd * 8;
 			
-			bin.clear();
-			if(listBean.isBlockChanged(bin.getVannoFilePointer())) {
-				vannoIndexOS.writeInt(GlobalParameter.BLOCK_ADDRESS);
-				vannoIndexOS.writeLong(bin.getVannoFilePointer());
+			if(offset < 0) {       
+				flag += 32;      
+			} 
+			
+			offset = Math.abs(offset);
+			if(offset > GlobalParameter.MAX_BYTE_UNSIGNED) {
+				flag += 64;      
+			} 
+			
+			os.write(flag);
+
+			if(flagBeg > 0) write(os, flagBeg, beg);
+			if(flagEnd > 0) write(os, flagEnd, end);
+			
+			if(offset <= GlobalParameter.MAX_BYTE_UNSIGNED) {
+				os.write(offset);
+			} else if(offset <= GlobalParameter.MAX_SHORT) {
+				os.writeShort(offset);
 			} else {
-				vannoIndexOS.writeInt(listBean.getBlockOffset());
+				os.writeShort(GlobalParameter.INT_START);
+				os.writeInt(offset);
 			}
-			vannoIndexOS.writeInt(listBean.getOffsetMin(bin.getMin()));
-			vannoIndexOS.writeInt(bin.getMax() - bin.getMin());
+			if(alleleHash) os.writeInt(feature.getAlleleHash());
+			feature = null;
 		}
 	}
 
@@ -290,6 +638,145 @@ public final class IndexWriter {
 		sequenceNamesSeen.add(sequenceName);
 	}
 
+    private final class IndexTask implements Callable<List<ChrSegment>> {
+		private final LineFilterIterator mainIterator;
+		private final long start;
+		private final long end;
+		private final VCFHeader vcfHeader;
+
+		public IndexTask(final LineFilterIterator mainIterator, final long start, final long end, final VCFHeader vcfHeader) {
+			this.mainIterator = mainIterator;
+			this.start = start;
+			this.end = end;
+			this.vcfHeader = vcfHeader;
+		}
+
+		@Override
+		public List<ChrSegment> call() throws Exception {
+			final LineFilterIterator iterator;
+			long position = 0;
+			if(mainIterator != null) {
+				iterator = mainIterator;
+			} else {
+				final BGZReader bgzReader = new BGZReader(param.getInput());
+				bgzReader.seek(BlockCompressedFilePointerUtil.makeFilePointer(start, 0));
+				bgzReader.readLine(); //the first line is indexed by the previous task
+				position = bgzReader.getPosition();
+				iterator = new LocFilterIterator(new NoFilterIterator(bgzReader), new ArrayList<LineFilter>(), VannoUtils.getDefaultLocCodec(formatSpec, false, vcfHeader));
+			}
+
+			final long endPointer = BlockCompressedFilePointerUtil.makeFilePointer(end, 0);
+			final List<ChrSegment> segments = new ArrayList<ChrSegment>();
+			final SROB bin = new SROB(-1, 0, 0, 0);
+
+			ChrSegment segment = null;
+			BlockBean blockBean = new BlockBean(position), preBlockBean = new BlockBean(position);
+			boolean isBlockStart = true;
+			int preBeg = -1;
+			LocFeature feature;
+			final double[] values = new double[statColumns.length];
+
+			while(iterator.hasNext() && iterator.getPosition() <= endPointer) {
+				feature = iterator.next();
+				if(feature == null) {
+					blockBean.setFilePointer(iterator.getPosition());
+				} else {
+					if(segment == null || !feature.chr.equals(segment.chr)) {
+						if(segment != null) segment.addBin(bin);
+						bin.initSROB(-1, 0, 0, 0);
+
+						segment = new ChrSegment(feature.chr, feature.beg);
+						segments.add(segment);
+						isBlockStart = true;
+						preBeg = 0;
+					}
+
+					if(feature.beg < preBeg) throw new InvalidArgumentException(String.format("Features added out of order: next start %d < previous start %d, please sorted features by chr column, start column. Unsorted line: %s", feature.beg, preBeg, feature.origStr));
+					if(feature.beg > feature.end) throw new InvalidArgumentException(String.format("Feature start position %d > feature end position %d", feature.beg, feature.end));
+
+					if(isBlockStart) {
+						segment.addBin(bin);
+						bin.initSROB(feature.beg, feature.end, 0, blockBean.getFilePointer());
+					} else {
+						bin.updateMax(feature, blockBean.getBlockOffset() - preBlockBean.getBlockOffset());
+					}
+					if(alleleHash) bin.setAlleleHash(AlleleHash.fingerprint(feature.ref, feature.alt));
+					if(segment.bloom != null) segment.bloom.add(feature.beg, feature.end, feature.ref, feature.alt);
+					if(isLongFeature(feature)) {
+						segment.longFeature.add(blockBean.getFilePointer(), feature.beg, feature.end);
+					} else {
+						bin.updateShortMax(feature.end);
+					}
+					updateStats(segment.stats, feature.origStr, values);
+					if(segment.columns != null) segment.columns.update(feature.origStr);
+					segment.count++;
+
+					preBlockBean.setFilePointer(blockBean.getFilePointer());
+					preBeg = feature.beg;
+					segment.lastBeg = feature.beg;
+					blockBean.setFilePointer(iterator.getPosition());
+
+					isBlockStart = (blockBean.getBlockAddress() != preBlockBean.getBlockAddress());
+				}
+			}
+			if(segment != null) segment.addBin(bin);
+			iterator.close();
+			return segments;
+		}
+	}
+
+	private final class ChrSegment {
+		private final String chr;
+		private final int firstBeg;
+		private int lastBeg;
+		private long count;
+		private final List<EncodedBin> bins;
+		private final SROBDirectory longFeature;
+		private final SROBStats stats;
+		private final SROBColumns columns;
+		private final List<byte[]> columnChunks;
+		private final SROBBloom bloom;
+
+		public ChrSegment(final String chr, final int firstBeg) {
+			this.chr = chr;
+			this.firstBeg = firstBeg;
+			this.lastBeg = firstBeg;
+			this.count = 0;
+			this.bins = new ArrayList<EncodedBin>();
+			this.longFeature = new SROBDirectory(16);
+			this.stats = new SROBStats(statColumns.length, 16);
+			this.columns = (annoColumns.length > 0) ? new SROBColumns(annoColumns, formatSpec.getDelimChar()) : null;
+			this.columnChunks = new ArrayList<byte[]>();
+			this.bloom = alleleBloom ? new SROBBloom(16) : null;
+		}
+
+		public void addBin(final SROB bin) throws IOException {
+			if(bin.getMin() != -1 && bin.hasFeature()) {
+				final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+				encodeBin(new MyEndianOutputStream(buffer), bin);
+				bins.add(new EncodedBin(bin.getMin(), bin.getMax(), bin.getShortMax(), buffer.toByteArray()));
+				stats.add();
+				if(columns != null) columnChunks.add(columns.encode());
+				if(bloom != null) bloom.add();
+				bin.clear();
+			}
+		}
+	}
+
+	private static final class EncodedBin {
+		private final int min;
+		private final int max;
+		private final int shortMax;
+		private final byte[] data;
+
+		public EncodedBin(final int min, final int max, final int shortMax, final byte[] data) {
+			this.min = min;
+			this.max = max;
+			this.shortMax = shortMax;
+			this.data = data;
+		}
+	}
+
     public final class BlockBean {
 		private long filePointer;
     		
@@ -3,14 +3,20 @@ package org.mulinlab.varnote.operations.mapper;
 import org.apache.logging.log4j.Logger;
 import org.mulinlab.varnote.config.run.RunConfig;
 import org.mulinlab.varnote.filters.iterator.LineFilterIterator;
+import org.mulinlab.varnote.operations.process.BatchResult;
 import org.mulinlab.varnote.operations.query.AbstractQuery;
 import org.mulinlab.varnote.operations.readers.query.AbstractFileReader;
+import org.mulinlab.varnote.operations.schedule.TaskScheduler;
+import org.mulinlab.varnote.operations.schedule.QueryTask;
 import org.mulinlab.varnote.utils.LoggingUtils;
 import org.mulinlab.varnote.utils.TimeMetric;
 import org.mulinlab.varnote.utils.enumset.VariantType;
 import org.mulinlab.varnote.utils.mapreduce.Mapper;
 import org.mulinlab.varnote.utils.node.LocFeature;
+import org.mulinlab.varnote.constants.GlobalParameter;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 
 public abstract class AbstractMapper<T> implements Mapper<T>{
@@ -20,12 +26,19 @@ public abstract class AbstractMapper<T> implements Mapper<T>{
 	protected RunConfig config;
 	protected Integer index;
 	protected TimeMetric timeMetric;
+	protected List<LocFeature> batch;
+	protected long[] batchKeys;
+	protected final boolean keepOrder;
+	private boolean isTaskStart;
+	private String lastChr;
+	private int lastBeg;
 
 	public AbstractMapper(final RunConfig config, final int index) {
 		super();
 		this.config = config;
 		this.index = index;
 		this.timeMetric = new TimeMetric("Thread " + index);
+		this.keepOrder = config.getRunParam().isKeepOrder();
 	}
 
 	public abstract AbstractFileReader getQueryForThread();
@@ -34,22 +47,57 @@ public abstract class AbstractMapper<T> implements Mapper<T>{
 		queryEngine.doQuery(node);
 	}
 
+	/** query the databases at the same time for chunks of records, the records are queued until a chunk is full */
+	protected void setDBParallel() {
+		if(config.getRunParam().isDBParallel()) {
+			queryEngine.setDatabaseParallel(true);
+			batch = new ArrayList<LocFeature>(GlobalParameter.DEFAULT_BATCH_SIZE);
+			batchKeys = new long[GlobalParameter.DEFAULT_BATCH_SIZE];
+		}
+	}
+
+	/** return true to get the features of the hits instead of the lines for a chunk */
+	protected boolean isFeatureResult() {
+		return false;
+	}
+
+	/** print the record i of a chunk with the hits of the databases */
+	protected void printRecord(final LocFeature node, final BatchResult[] results, final int i) throws IOException {
+	}
+
+	private void addToBatch(final LocFeature node, final long key) throws IOException {
+		batchKeys[batch.size()] = key;
+		batch.add(node.clone());
+		if(batch.size() >= GlobalParameter.DEFAULT_BATCH_SIZE) doBatch();
+	}
+
+	private void doBatch() throws IOException {
+		if(batch.size() > 0) {
+			final BatchResult[] results = queryEngine.doQuery(batch, isFeatureResult());
+			for (int i = 0; i < batch.size(); i++) {
+				if(keepOrder) config.setRecordKey(index, batchKeys[i]);
+				printRecord(batch.get(i), results, i);
+			}
+			batch.clear();
+		}
+	}
+
 	@Override
 	public void doMap() {
 		try {
 			AbstractFileReader reader = getQueryForThread();
 			LineFilterIterator it = reader.getFilterIterator();
-			
-			LocFeature node;
-			while(it.hasNext()) {
-				node = it.next();
-				if(node != null) {
-					if(!isLargeVariants(node)) {
-						doQuery(node);
-						timeMetric.addRecord(it.getCount());
-					} else {
-						printLVLog(node);
-					}
+
+			final TaskScheduler scheduler = config.getTaskScheduler();
+			if(scheduler == null) {
+				mapLines(it);
+			} else {
+				QueryTask task;
+				while((task = scheduler.next(index)) != null) {
+					isTaskStart = true;
+					reader.setReader(scheduler.getReader(task));
+					mapLines(it);
+					config.endTask(index, task.getIndex());
 				}
 			}
 			queryEngine.teardown();
@@ -61,6 +109,38 @@ public abstract class AbstractMapper<T> implements Mapper<T>{
 		}
 	}
 
+	/** reset the readers only when a task starts on another contig or before the last record of the thread */
+	private void checkTaskStart(final LocFeature node) {
+		if(isTaskStart) {
+			if(!node.chr.equals(lastChr) || node.beg < lastBeg) queryEngine.resetChr();
+			isTaskStart = false;
+		}
+		lastChr = node.chr;
+		lastBeg = node.beg;
+	}
+
+	private void mapLines(final LineFilterIterator it) throws IOException {
+		LocFeature node;
+		while(it.hasNext()) {
+			node = it.next();
+			if(node != null) {
+				if(!isLargeVariants(node)) {
+					checkTaskStart(node);
+					if(batch != null) {
+						addToBatch(node, it.getPosition());
+					} else {
+						if(keepOrder) config.setRecordKey(index, it.getPosition());
+						doQuery(node);
+					}
+					timeMetric.addRecord(it.getCount());
+				} else {
+					printLVLog(node);
+				}
+			}
+		}
+		if(batch != null) doBatch();
+	}
+
 	protected void printLVLog(final LocFeature node) {
 		timeMetric.addLVCount();
 		if(node.vt == VariantType.OML) {
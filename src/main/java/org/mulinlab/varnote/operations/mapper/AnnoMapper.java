@@ -6,6 +6,7 @@ import org.mulinlab.varnote.config.run.OverlapRunConfig;
 import org.mulinlab.varnote.operations.readers.query.AbstractFileReader;
 import org.mulinlab.varnote.utils.VannoUtils;
 import org.mulinlab.varnote.utils.node.LocFeature;
+import org.mulinlab.varnote.operations.process.BatchResult;
 import java.io.IOException;
 
 public final class AnnoMapper extends AbstractMapper{
@@ -13,6 +14,7 @@ public final class AnnoMapper extends AbstractMapper{
 	public AnnoMapper(final OverlapRunConfig config, final int index) {
 		super(config, index);
 		queryEngine = VannoUtils.getQuery(config.getRunParam().getMode(), config.getDatabses(), false);
+		setDBParallel();
 	}
 
 	@Override
@@ -26,6 +28,16 @@ public final class AnnoMapper extends AbstractMapper{
 		((AnnoRunConfig)this.config).annoRecord(node, queryEngine.getResultFeatures(), index);
 	};
 
+	@Override
+	protected boolean isFeatureResult() {
+		return true;
+	}
+
+	@Override
+	protected void printRecord(final LocFeature node, final BatchResult[] results, final int i) throws IOException {
+		((AnnoRunConfig)this.config).annoRecord(node, queryEngine.getResultFeatures(results, i), index);
+	}
+
 
 	@Override
 	public Integer getResult() {
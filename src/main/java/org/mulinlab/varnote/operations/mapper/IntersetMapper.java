@@ -5,6 +5,7 @@ import org.mulinlab.varnote.config.run.OverlapRunConfig;
 import org.mulinlab.varnote.operations.readers.query.AbstractFileReader;
 import org.mulinlab.varnote.utils.VannoUtils;
 import org.mulinlab.varnote.utils.node.LocFeature;
+import org.mulinlab.varnote.operations.process.BatchResult;
 import java.io.IOException;
 
 public final class IntersetMapper extends AbstractMapper{
@@ -12,6 +13,7 @@ public final class IntersetMapper extends AbstractMapper{
 	public IntersetMapper(final OverlapRunConfig config, final int index) {
 		super(config, index);
 		queryEngine = VannoUtils.getQuery(config.getRunParam().getMode(), config.getDatabses(), false);
+		setDBParallel();
 	}
 
 	@Override
@@ -25,6 +27,11 @@ public final class IntersetMapper extends AbstractMapper{
 		((OverlapRunConfig)this.config).printRecord(node, queryEngine.getResults(), index);
 	};
 
+	@Override
+	protected void printRecord(final LocFeature node, final BatchResult[] results, final int i) throws IOException {
+		((OverlapRunConfig)this.config).printRecord(node, queryEngine.getResults(results, i), index);
+	}
+
 	@Override
 	public Integer getResult() {
 		return null;
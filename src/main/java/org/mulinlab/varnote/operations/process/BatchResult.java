@@ -0,0 +1,130 @@
+package org.mulinlab.varnote.operations.process;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.mulinlab.varnote.utils.node.LocFeature;
+
+/**
+ * Hits of a chunk of queries for one database. The hits of all queries are kept in one flat array,
+ * the hits of query i are hits[offsets[i]] .. hits[offsets[i + 1] - 1]. Count results only keep the offsets.
+ * A feature result keeps the features of the hits instead of the lines.
+ */
+public final class BatchResult {
+	private static final int INIT_SIZE = 1024;
+
+	private int size;
+	private int[] offsets;
+	private String[] hits;
+	private LocFeature[] features;
+	private int hitCount;
+	private final boolean isFeature;
+
+	public BatchResult() {
+		this(INIT_SIZE, false);
+	}
+
+	public BatchResult(final int capacity) {
+		this(capacity, false);
+	}
+
+	public BatchResult(final int capacity, final boolean isFeature) {
+		this.isFeature = isFeature;
+		this.offsets = new int[Math.max(capacity, 1) + 1];
+		this.hits = new String[isFeature ? 0 : Math.max(capacity, 1)];
+		this.features = new LocFeature[isFeature ? Math.max(capacity, 1) : 0];
+		clear();
+	}
+
+	public boolean isFeature() {
+		return isFeature;
+	}
+
+	public void clear() {
+		if(isFeature) {
+			Arrays.fill(features, 0, hitCount, null);
+		} else {
+			Arrays.fill(hits, 0, hitCount, null);
+		}
+		size = 0;
+		hitCount = 0;
+		offsets[0] = 0;
+	}
+
+	/** add the result of the next query */
+	public void add(final ProcessResult result) {
+		final List<String> list = result.getResult();
+		if(list == null) {
+			add(result.getResultSize());
+		} else {
+			ensureHitCapacity(list.size());
+			for (int i = 0; i < list.size(); i++) {
+				hits[hitCount++] = list.get(i);
+			}
+			endQuery();
+		}
+	}
+
+	/** add the features of the hits of the next query, null if there is no hit */
+	public void add(final LocFeature[] hitFeatures) {
+		final int count = (hitFeatures == null) ? 0 : hitFeatures.length;
+		ensureHitCapacity(count);
+		if(count > 0) System.arraycopy(hitFeatures, 0, features, hitCount, count);
+		hitCount += count;
+		endQuery();
+	}
+
+	/** add the next query with count hits but without the hit lines */
+	public void add(final int count) {
+		ensureHitCapacity(count);
+		hitCount += count;
+		endQuery();
+	}
+
+	private void endQuery() {
+		if(size + 2 > offsets.length) offsets = Arrays.copyOf(offsets, offsets.length * 2);
+		offsets[++size] = hitCount;
+	}
+
+	private void ensureHitCapacity(final int n) {
+		if(isFeature) {
+			if(hitCount + n > features.length) features = Arrays.copyOf(features, Math.max(features.length * 2, hitCount + n));
+		} else {
+			if(hitCount + n > hits.length) hits = Arrays.copyOf(hits, Math.max(hits.length * 2, hitCount + n));
+		}
+	}
+
+	/** return the number of queries */
+	public int size() {
+		return size;
+	}
+
+	public int getHitCount() {
+		return hitCount;
+	}
+
+	public int getHitCount(final int i) {
+		return offsets[i + 1] - offsets[i];
+	}
+
+	public int getOffset(final int i) {
+		return offsets[i];
+	}
+
+	/** return the features of the hits of query i, or null if there is no hit */
+	public LocFeature[] getFeatures(final int i) {
+		if(getHitCount(i) == 0) return null;
+		return Arrays.copyOfRange(features, offsets[i], offsets[i + 1]);
+	}
+
+	/** return hit j of query i, null for count results */
+	public String getHit(final int i, final int j) {
+		return hits[offsets[i] + j];
+	}
+
+	/** return the hits of query i, or null if there is no hit */
+	public String[] getHits(final int i) {
+		if(getHitCount(i) == 0) return null;
+		return Arrays.copyOfRange(hits, offsets[i], offsets[i + 1]);
+	}
+}
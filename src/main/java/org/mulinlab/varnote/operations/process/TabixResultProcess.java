@@ -3,19 +3,27 @@ package org.mulinlab.varnote.operations.process;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.mulinlab.varnote.config.anno.databse.filter.FilterConfig;
 import org.mulinlab.varnote.utils.node.LocFeature;
 
 public final class TabixResultProcess implements ProcessResult{
 
 	private List<String> result;
+	private FilterConfig filter;
 	
 	public TabixResultProcess() {
 		super();
 	}
 
+	public TabixResultProcess(final FilterConfig filter) {
+		super();
+		this.filter = filter;
+	}
+
 	@Override
 	public void doProcess(LocFeature d) {
-		result.add(d.origStr);
+		final String line = d.getOrigStr();
+		if(filter == null || !filter.isFilterLine(line)) result.add(line);
 	}
 
 	@Override
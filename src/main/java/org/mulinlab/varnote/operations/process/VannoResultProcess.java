@@ -1,7 +1,11 @@
 package org.mulinlab.varnote.operations.process;
 
 
-import htsjdk.samtools.util.BlockCompressedInputStream;
+import org.mulinlab.varnote.config.anno.databse.filter.FilterConfig;
+import org.mulinlab.varnote.utils.block.AlleleHash;
+import org.mulinlab.varnote.utils.block.SROBColumnReader;
+import org.mulinlab.varnote.utils.database.Database;
+import org.mulinlab.varnote.utils.gz.BlockCacheReader;
 import org.mulinlab.varnote.utils.gz.BlockCompressedFilePointerUtil;
 import org.mulinlab.varnote.utils.node.LocFeature;
 import org.mulinlab.varnote.utils.node.NodeWithFilePointer;
@@ -12,17 +16,42 @@ import java.util.List;
 
 public final class VannoResultProcess implements ProcessResult{
 
-	private BlockCompressedInputStream mFp;
+	private BlockCacheReader mFp;
 //	private BGZReader cReader;
 	private List<String> result;
+	private FilterConfig filter;
+	private SROBColumnReader columnReader;
+	private Database db;
+	private List<NodeWithFilePointer> nodes;
+	private int queryAllele = AlleleHash.UNKNOWN;
+
 	public VannoResultProcess() {
 		super();
 		result = new ArrayList<String>(3);
+		nodes = new ArrayList<NodeWithFilePointer>(3);
 	}
 	
-	public void setMFP(final BlockCompressedInputStream mFp) {
+	public void setMFP(final BlockCacheReader mFp) {
 		this.mFp = mFp;
 	}
+
+	public void setFilter(final FilterConfig filter) {
+		this.filter = filter;
+	}
+
+	/**
+	 * Keep the hits as nodes and make the features in getFeatures. Features are read from the column file if
+	 * columnReader is not null, the database lines are only read for the other hits or when getResult is called.
+	 */
+	public void setFeatureMode(final Database db, final SROBColumnReader columnReader) {
+		this.db = db;
+		this.columnReader = columnReader;
+	}
+
+	/** REF and ALT hash of the current query, hits with other alleles are returned as features without REF and ALT */
+	public void setQueryAllele(final int queryAllele) {
+		this.queryAllele = queryAllele;
+	}
 	
 //	public void setCReader(final BGZReader cReader) {
 //		this.cReader = cReader;
@@ -33,16 +62,21 @@ public final class VannoResultProcess implements ProcessResult{
 //		NodeWithFilePointer dt = (NodeWithFilePointer)d;
 //		result.add(dbLabel + "\t" +  cReader.readLine((dt.blockAddress << 16 | dt.blockOffset))); //cReader.getIndex() + "\t" +
 		
+		if(db != null) {
+			nodes.add((NodeWithFilePointer)d.clone());
+			return;
+		}
+
 		try {
 			if(d.bgzStr != null) {
-				result.add(d.bgzStr); 
+				if(filter == null || !filter.isFilterLine(d.bgzStr)) result.add(d.bgzStr);
 			} else {
 				NodeWithFilePointer dt = (NodeWithFilePointer)d;
 //				System.out.println(d.toString() + " "  + BlockCompressedFilePointerUtil.makeFilePointer(dt.blockAddress, dt.blockOffset));
 				mFp.seek(BlockCompressedFilePointerUtil.makeFilePointer(dt.blockAddress, dt.blockOffset));   //25238  54636  //12541 44392
 //				System.out.println(dt.blockAddress + "," + dt.blockOffset );
 				dt.bgzStr = mFp.readLine();
-				result.add(dt.bgzStr);
+				if(filter == null || !filter.isFilterLine(dt.bgzStr)) result.add(dt.bgzStr);
 			}
 			
 		} catch (IOException e) {
@@ -51,8 +85,51 @@ public final class VannoResultProcess implements ProcessResult{
 //		result.add(dt.blockAddress + "");
 	}
 	
+	private String readLine(final NodeWithFilePointer node) throws IOException {
+		if(node.bgzStr == null) {
+			mFp.seek(BlockCompressedFilePointerUtil.makeFilePointer(node.blockAddress, node.blockOffset));
+			node.bgzStr = mFp.readLine();
+		}
+		return node.bgzStr;
+	}
+
+	/**
+	 * return the features of the hits, or null if there is no hit. A hit whose allele hash doesn't match the query
+	 * is returned without REF and ALT, so it can't match the alleles of the query.
+	 */
+	public LocFeature[] getFeatures() {
+		if(db == null) return null;
+		if(nodes.size() == 0) return null;
+
+		final LocFeature[] features = new LocFeature[nodes.size()];
+		NodeWithFilePointer node;
+		try {
+			for (int i = 0; i < features.length; i++) {
+				node = nodes.get(i);
+				if(!AlleleHash.isMatch(node.alleleHash, queryAllele)) {
+					features[i] = new LocFeature(node.beg, node.end, null);
+					continue;
+				}
+				if(columnReader != null) features[i] = columnReader.getFeature(node);
+				if(features[i] == null) features[i] = db.decode(readLine(node)).clone();
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		return features;
+	}
+	
 	@Override
 	public List<String> getResult() {
+		if(db != null && result.size() == 0) {
+			try {
+				for (NodeWithFilePointer node : nodes) {
+					if(node.blockAddress >= 0) result.add(readLine(node));
+				}
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
 		return result;
 	}
 
@@ -60,11 +137,14 @@ public final class VannoResultProcess implements ProcessResult{
 	public void initResult() {
 		result = null;
 		result = new ArrayList<String>(3);
+		nodes = new ArrayList<NodeWithFilePointer>(3);
 	}
 
 	@Override
 	public int getResultSize() {
-		if(result == null) {
+		if(db != null) {
+			return nodes.size();
+		} else if(result == null) {
 			return 0;
 		} else {
 			return result.size();
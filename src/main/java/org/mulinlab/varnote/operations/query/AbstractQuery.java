@@ -1,11 +1,19 @@
 package org.mulinlab.varnote.operations.query;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import org.mulinlab.varnote.constants.GlobalParameter;
 import org.mulinlab.varnote.utils.database.Database;
+import org.mulinlab.varnote.operations.process.BatchResult;
 import org.mulinlab.varnote.operations.process.CountResultProcess;
 import org.mulinlab.varnote.operations.readers.db.AbstractDBReader;
 import org.mulinlab.varnote.utils.node.LocFeature;
@@ -18,6 +26,10 @@ public abstract class AbstractQuery implements Query{
 
 	protected Map<String, String[]> results = new HashMap<String, String[]>();
 	protected Map<String, LocFeature[]> resultsFeatures = new HashMap<String, LocFeature[]>();
+	protected BatchResult[] batchResults;
+	protected boolean databaseParallel = GlobalParameter.DEFAULT_DB_PARALLEL;
+
+	private static ExecutorService databasePool;
 
 	protected AbstractQuery(final List<Database> dbs, final boolean isCount) { //, final int threadIndex, final ThreadReader queryLineReader
 		super();
@@ -39,6 +51,14 @@ public abstract class AbstractQuery implements Query{
 		}
 	}
 
+	/** the next query starts a new range of the query file */
+	public void resetChr() {
+		if(readers != null)
+			for(int i=0; i<readers.size(); i++) {
+				readers.get(i).resetChr();
+			}
+	}
+
 	public void doQuery(final LocFeature node) throws IOException {
 		if(readers != null)
 			for(int i=0; i<readers.size(); i++) {
@@ -46,6 +66,103 @@ public abstract class AbstractQuery implements Query{
 			}
 	}
 	
+	public BatchResult[] doQuery(final List<LocFeature> nodes) throws IOException {
+		return doQuery(nodes, false);
+	}
+
+	/**
+	 * Query a chunk of queries sorted by position with each reader in turn, return the hits of reader i in result i
+	 * (the databases keep the order of dbs), or the features of the hits if isFeature is true. The results are reused
+	 * by the next chunk. When database parallel is set, the readers query the chunk at the same time.
+	 */
+	public BatchResult[] doQuery(final List<LocFeature> nodes, final boolean isFeature) throws IOException {
+		if(batchResults == null || batchResults[0].isFeature() != isFeature) {
+			batchResults = new BatchResult[dbs.size()];
+			for(int i=0; i<batchResults.length; i++) {
+				batchResults[i] = new BatchResult(nodes.size(), isFeature);
+			}
+		}
+		if(readers == null) return batchResults;
+
+		if(databaseParallel && readers.size() > 1) {
+			final List<Future<?>> futures = new ArrayList<Future<?>>(readers.size());
+			for(int i=0; i<readers.size(); i++) {
+				futures.add(getDatabasePool().submit(new BatchTask(i, nodes)));
+			}
+			try {
+				for (Future<?> future : futures) {
+					future.get();
+				}
+			} catch (InterruptedException e) {
+				throw new IOException(e);
+			} catch (ExecutionException e) {
+				throw new IOException(e.getCause());
+			}
+		} else {
+			for(int i=0; i<readers.size(); i++) {
+				batchResults[i].clear();
+				doQuery(i, nodes, batchResults[i]);
+			}
+		}
+		return batchResults;
+	}
+
+	private final class BatchTask implements Callable<Void> {
+		private final int i;
+		private final List<LocFeature> nodes;
+
+		public BatchTask(final int i, final List<LocFeature> nodes) {
+			this.i = i;
+			this.nodes = nodes;
+		}
+
+		@Override
+		public Void call() throws IOException {
+			batchResults[i].clear();
+			doQuery(i, nodes, batchResults[i]);
+			return null;
+		}
+	}
+
+	/** query the databases of a chunk at the same time, each reader is still used by one thread at a time */
+	public void setDatabaseParallel(final boolean databaseParallel) {
+		this.databaseParallel = databaseParallel;
+	}
+
+	private static synchronized ExecutorService getDatabasePool() {
+		if(databasePool == null) {
+			databasePool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+				@Override
+				public Thread newThread(final Runnable r) {
+					final Thread thread = new Thread(r, "database-query");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return databasePool;
+	}
+
+	/** return the hits of query i of a chunk by the out name of the databases */
+	public Map<String, String[]> getResults(final BatchResult[] batch, final int i) {
+		for(int j=0; j< readers.size(); j++) {
+			results.put(readers.get(j).getDb().getOutName(), batch[j].getHits(i));
+		}
+		return results;
+	}
+
+	/** return the features of the hits of query i of a chunk by the out name of the databases */
+	public Map<String, LocFeature[]> getResultFeatures(final BatchResult[] batch, final int i) {
+		for(int j=0; j< readers.size(); j++) {
+			resultsFeatures.put(readers.get(j).getDb().getOutName(), batch[j].getFeatures(i));
+		}
+		return resultsFeatures;
+	}
+
+	protected void doQuery(final int i, final List<LocFeature> nodes, final BatchResult result) throws IOException {
+		readers.get(i).query(nodes, result);
+	}
+
 	public void doQuery(final String res) throws IOException {
 		if(readers != null)
 			for(int i=0; i<readers.size(); i++) {
@@ -78,20 +195,8 @@ public abstract class AbstractQuery implements Query{
 
 	@Override
 	public Map<String, LocFeature[]> getResultFeatures(){
-		List<String> hits;
-		LocFeature[] locFeatures;
-
 		for(int i=0; i< readers.size(); i++) {
-			hits = readers.get(i).getResults();
-			if(hits != null && hits.size() > 0) {
-				locFeatures = new LocFeature[hits.size()];
-				for (int j = 0; j < hits.size(); j++) {
-					locFeatures[j] = readers.get(i).getDb().decode(hits.get(j)).clone();
-				}
-				resultsFeatures.put(readers.get(i).getDb().getOutName(), locFeatures);
-			} else {
-				resultsFeatures.put(readers.get(i).getDb().getOutName(), null);
-			}
+			resultsFeatures.put(readers.get(i).getDb().getOutName(), readers.get(i).getResultFeatures());
 		}
 		return resultsFeatures;
 	}
@@ -0,0 +1,196 @@
+package org.mulinlab.varnote.operations.query;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mulinlab.varnote.utils.VannoUtils;
+import org.mulinlab.varnote.utils.enumset.IndexType;
+import org.mulinlab.varnote.utils.database.Database;
+
+import org.mulinlab.varnote.operations.process.BatchResult;
+import org.mulinlab.varnote.operations.readers.db.AbstractDBReader;
+import org.mulinlab.varnote.operations.readers.db.TbiMixReader;
+import org.mulinlab.varnote.operations.readers.db.TbiSweepReader;
+import org.mulinlab.varnote.operations.readers.db.VannoMixReader;
+import org.mulinlab.varnote.operations.readers.db.VannoSweepReader;
+import org.mulinlab.varnote.utils.node.LocFeature;
+
+/**
+ * Query each database in mix or sweep mode chosen for each chromosome. When a chromosome starts, sweep mode is used if
+ * the chromosomes queried before had at least one query for every SPARSE_RATIO blocks of the database (the block count
+ * of a chromosome is read from the index), otherwise mix mode is used. The first chromosome uses mix mode.
+ * The blocks read are checked every CHECK_INTERVAL queries and the mode is switched (once for a chromosome) if the
+ * estimate was wrong: a mix reader which seldom jumps over blocks reads the whole chromosome like a sweep reader,
+ * a sweep reader which reads many blocks for each query would skip most of them in mix mode.
+ */
+public final class AutoQuery extends AbstractQuery {
+	private static final int CHECK_INTERVAL = 1024;
+	private static final int MIN_BLOCKS = 64;
+	private static final int DENSE_RATIO = 8;
+	private static final int SPARSE_RATIO = 4;
+
+	private AutoReader[] autoReaders;
+
+	public AutoQuery(final List<Database> dbs) {
+		super(dbs, false);
+	}
+
+	public AutoQuery(final List<Database> dbs, final boolean isCount) {
+		super(dbs, isCount);
+	}
+
+	public void init() throws IOException {
+		super.init();
+		readers = new ArrayList<AbstractDBReader>(dbs.size());
+		autoReaders = new AutoReader[dbs.size()];
+
+		for (int i = 0; i < dbs.size(); i++) {
+			autoReaders[i] = new AutoReader(dbs.get(i));
+			readers.add(autoReaders[i].current);
+		}
+	}
+
+	@Override
+	public void doQuery(final LocFeature node) throws IOException {
+		if(autoReaders != null)
+			for(int i=0; i<autoReaders.length; i++) {
+				autoReaders[i].query(node);
+				readers.set(i, autoReaders[i].current);
+			}
+	}
+
+	@Override
+	protected void doQuery(final int i, final List<LocFeature> nodes, final BatchResult result) throws IOException {
+		for (int j = 0; j < nodes.size(); j++) {
+			autoReaders[i].query(nodes.get(j));
+			autoReaders[i].current.addResult(result);
+		}
+		readers.set(i, autoReaders[i].current);
+	}
+
+	@Override
+	public void doQuery(final String res) throws IOException {
+		doQuery(VannoUtils.regionToNode(res));
+	}
+
+	@Override
+	public void resetChr() {
+		if(autoReaders != null) {
+			for (AutoReader reader : autoReaders) {
+				reader.resetChr();
+			}
+		}
+	}
+
+	@Override
+	public void teardown() {
+		if(autoReaders != null) {
+			for (AutoReader reader : autoReaders) {
+				reader.close();
+			}
+		}
+	}
+
+	private final class AutoReader {
+		private final Database db;
+		private final AbstractDBReader mixReader;
+		private AbstractDBReader sweepReader;
+		private AbstractDBReader current;
+
+		private int tid;
+		private boolean isSwitched;
+		private long queryCount;
+		private long blockStart;
+		private long jumpStart;
+		private long doneQueryCount;
+		private long doneBlockCount;
+
+		public AutoReader(final Database db) throws IOException {
+			this.db = db;
+			if(db.getConfig().getIndexType() == IndexType.TBI) {
+				mixReader = new TbiMixReader(db.clone(), isCount);
+			} else {
+				mixReader = new VannoMixReader(db.clone(), isCount);
+			}
+			current = mixReader;
+			tid = -1;
+		}
+
+		public void query(final LocFeature node) throws IOException {
+			final int nodeTid = mixReader.chr2tid(node);
+			if(nodeTid != tid) {
+				endChr();
+				tid = nodeTid;
+				isSwitched = false;
+				setCurrent(isSweepChr() ? getSweepReader() : mixReader);
+			}
+
+			current.query(node);
+			queryCount++;
+			if(!isSwitched && queryCount % CHECK_INTERVAL == 0) check();
+		}
+
+		private void endChr() {
+			final int blocks = (tid < 0) ? -1 : db.getIndex().getBlockCount(tid);
+			if(blocks > 0) {
+				doneQueryCount += queryCount;
+				doneBlockCount += blocks;
+			}
+			queryCount = 0;
+		}
+
+		public void resetChr() {
+			endChr();
+			tid = -1;
+			mixReader.resetChr();
+			if(sweepReader != null) sweepReader.resetChr();
+		}
+
+		private boolean isSweepChr() {
+			if(isCount || tid < 0 || doneBlockCount == 0) return false;
+			return doneQueryCount * SPARSE_RATIO >= doneBlockCount;
+		}
+
+		private void check() throws IOException {
+			final long blocks = current.getBlockCount() - blockStart;
+			final long jumps = current.getJumpCount() - jumpStart;
+
+			if(blocks >= MIN_BLOCKS) {
+				if(current == mixReader && !isCount && jumps * DENSE_RATIO < blocks) {
+					setCurrent(getSweepReader());
+					isSwitched = true;
+					return;
+				} else if(current != mixReader && blocks > CHECK_INTERVAL * SPARSE_RATIO) {
+					setCurrent(mixReader);
+					isSwitched = true;
+					return;
+				}
+			}
+			blockStart = current.getBlockCount();
+			jumpStart = current.getJumpCount();
+		}
+
+		private void setCurrent(final AbstractDBReader reader) {
+			current = reader;
+			blockStart = current.getBlockCount();
+			jumpStart = current.getJumpCount();
+		}
+
+		private AbstractDBReader getSweepReader() throws IOException {
+			if(sweepReader == null) {
+				if(db.getConfig().getIndexType() == IndexType.TBI) {
+					sweepReader = new TbiSweepReader(db.clone());
+				} else {
+					sweepReader = new VannoSweepReader(db.clone());
+				}
+			}
+			return sweepReader;
+		}
+
+		public void close() {
+			mixReader.close();
+			if(sweepReader != null) sweepReader.close();
+		}
+	}
+}
@@ -1,16 +1,18 @@
 package org.mulinlab.varnote.operations.readers.db;
-import htsjdk.samtools.util.BlockCompressedInputStream;
 import org.apache.logging.log4j.Logger;
 import org.mulinlab.varnote.constants.GlobalParameter;
 import org.mulinlab.varnote.utils.LoggingUtils;
 import org.mulinlab.varnote.utils.VannoUtils;
 import org.mulinlab.varnote.utils.database.Database;
 import org.mulinlab.varnote.utils.database.index.Index;
+import org.mulinlab.varnote.utils.gz.BlockCacheReader;
+import org.mulinlab.varnote.operations.process.BatchResult;
 import org.mulinlab.varnote.operations.process.ProcessResult;
 import org.mulinlab.varnote.operations.stack.AbstractReaderStack;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
-import htsjdk.samtools.seekablestream.SeekableStreamFactory;
+import org.mulinlab.varnote.utils.node.ContigDictionary;
 import org.mulinlab.varnote.utils.node.LocFeature;
 
 
@@ -18,13 +20,18 @@ public abstract class AbstractDBReader {
 	final Logger logger = LoggingUtils.logger;
 
 	protected final Database db;
-	protected BlockCompressedInputStream mFp;
+	protected BlockCacheReader mFp;
 	protected AbstractReaderStack stack;
 	protected final Index idx;
 	protected byte[] buf = new byte[8];
 	protected int currentTid;
 	protected int preBeg;
 	protected boolean isCount = GlobalParameter.DEFAULT_IS_COUNT;
+	protected long blockCount;
+	protected long jumpCount;
+
+	private static final int UNKNOWN_TID = -2;
+	private int[] contigToTid = new int[0];
 
 	protected AbstractDBReader(final Database db) throws IOException {
 		this.db = db;
@@ -34,7 +41,7 @@ public abstract class AbstractDBReader {
 		this.preBeg = 0;
 
 		if(this.mFp == null) {
-			mFp = new BlockCompressedInputStream(SeekableStreamFactory.getInstance().getBufferedStream(SeekableStreamFactory.getInstance().getStreamFor(db.getConfig().getDbPath())));
+			mFp = new BlockCacheReader(db.getConfig().getDbPath());
 		}
 	}
 
@@ -57,7 +64,7 @@ public abstract class AbstractDBReader {
 		getProcess().initResult();
 		if(query.beg < 1) query.beg = 1;
 //		System.out.println(db.getOutName() + " " + query.toString());
-		int tid = chr2tid(query.chr);
+		int tid = chr2tid(query);
 		if(tid == -1) {
 			currentTid = tid;
 			return false;
@@ -76,11 +83,37 @@ public abstract class AbstractDBReader {
 		return true;
 	}
 
+	/**
+	 * Query a chunk of queries sorted by position, the hits of each query are added to result in the order of the queries.
+	 * Each query still goes through query(LocFeature), only the copies of the hits into a list or map for each query are saved.
+	 * The queries must be different objects since the readers keep the query to find the next overlaps.
+	 */
+	public void query(final List<LocFeature> queries, final BatchResult result) throws IOException {
+		for (int i = 0; i < queries.size(); i++) {
+			query(queries.get(i));
+			addResult(result);
+		}
+	}
+
+	/** add the hits of the last query to result, the features of the hits for a feature result */
+	public void addResult(final BatchResult result) {
+		if(result.isFeature()) {
+			result.add(getResultFeatures());
+		} else {
+			result.add(getProcess());
+		}
+	}
+
 	public void initChr() throws IOException {
 		initForChr(currentTid);
 		this.preBeg = 0;
 	}
 
+	/** read the index of the chromosome again for the next query, the next query may be before the last one */
+	public void resetChr() {
+		currentTid = -1;
+	}
+
 	protected boolean checkChr() throws IOException{
 		return currentTid != -1;
 	}
@@ -88,6 +121,22 @@ public abstract class AbstractDBReader {
     public int chr2tid(final String chr) {
     		return idx.chr2tid(chr);
     }
+
+    /** return the tid of the chromosome of the feature, by the contig id of the feature if it's decoded by a codec */
+    public int chr2tid(final LocFeature feature) {
+        final int contig = feature.contig;
+        if(contig < 0) return chr2tid(feature.chr);
+
+        if(contig >= contigToTid.length) {
+            final int from = contigToTid.length;
+            contigToTid = Arrays.copyOf(contigToTid, Math.max(contig + 1, from * 2));
+            Arrays.fill(contigToTid, from, contigToTid.length, UNKNOWN_TID);
+        }
+        if(contigToTid[contig] == UNKNOWN_TID) {
+            contigToTid[contig] = chr2tid(ContigDictionary.getName(contig));
+        }
+        return contigToTid[contig];
+    }
     
     protected static boolean less64(final long u, final long v) { // unsigned 64-bit comparison
         return (u < v) ^ (u < 0) ^ (v < 0);
@@ -136,6 +185,18 @@ public abstract class AbstractDBReader {
     	return stack.getResultProcessor().getResult();
     }
 
+	/** return the features of the hits decoded by the database, or null if there is no hit */
+	public LocFeature[] getResultFeatures() {
+		final List<String> hits = getResults();
+		if(hits == null || hits.size() == 0) return null;
+
+		final LocFeature[] features = new LocFeature[hits.size()];
+		for (int i = 0; i < hits.size(); i++) {
+			features[i] = db.decode(hits.get(i)).clone();
+		}
+		return features;
+	}
+
 	public int getResultSize() {
 		return stack.getResultProcessor().getResultSize();
 	}
@@ -143,4 +204,14 @@ public abstract class AbstractDBReader {
 	public Database getDb() {
 		return db;
 	}
+
+	/** return the number of database blocks the reader has moved to */
+	public long getBlockCount() {
+		return blockCount;
+	}
+
+	/** return the number of times the reader jumped over database blocks without reading them */
+	public long getJumpCount() {
+		return jumpCount;
+	}
 }
@@ -50,7 +50,7 @@ public final class TbiMixReader extends TbiReader{
 		if(off == null) {
 			stack.setIterator(EOF_ITERATOR);
 		} else {
-		 	stack.setIterator(new MixIteratorImpl(off, chr));
+		 	stack.setIterator(new MixIteratorImpl(off, currentTid));
 		}
 	}
 
@@ -132,17 +132,17 @@ public final class TbiMixReader extends TbiReader{
 		 private TPair64[] off;
 	     private long curr_off;
 	     
-	     public MixIteratorImpl(final TPair64[] _off, String _chr) {
-		    	 super(chr2tid(_chr));
+	     public MixIteratorImpl(final TPair64[] _off, final int tid) {
+		    	 super(tid);
 		    	 off = _off;
 		    	 curr_off = 0;
 		    	 i = -1;
 	     }
 	    		 
 		@Override
-		public String next() throws IOException {
-			if(off == null) return null;
-			if (iseof) return null;
+		protected int nextLine() throws IOException {
+			if(off == null) return -1;
+			if (iseof) return -1;
             for (; ;) {
                 if ((curr_off == 0 && i == -1 ) || !less64(curr_off, off[i].v)) { // then jump to the next chunk
                     if (i == off.length - 1) break; // no more chunks
@@ -153,14 +153,14 @@ public final class TbiMixReader extends TbiReader{
                     }
                     ++i;
                 }
-                String s = mFp.readLine();
-                if(s != null) {
-                	if (s.length() == 0 || s.charAt(0) == idx.getmMeta()) continue;
-                	return s;
+                final int len = mFp.readLineBytes();
+                if(len >= 0) {
+                	if (len == 0 || mFp.getLineBuffer()[0] == idx.getmMeta()) continue;
+                	return len;
                 } else break;
             }
             iseof = true;
-            return null;
+            return -1;
 		}
 	}
 }
@@ -2,6 +2,7 @@ package org.mulinlab.varnote.operations.readers.db;
 
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import org.mulinlab.varnote.config.param.DBParam;
 import org.mulinlab.varnote.constants.GlobalParameter;
 import org.mulinlab.varnote.operations.decode.LocCodec;
@@ -27,11 +28,11 @@ public abstract class TbiReader extends AbstractDBReader {
 		super(db, isCount);
 
 		if(db.getConfig().getIntersect() == IntersectType.INTERSECT) {
-			stack = new IntervalStack(new TabixResultProcess());
+			stack = new IntervalStack(new TabixResultProcess(db.getFilterConfig()));
 		} else if(db.getConfig().getIntersect() == IntersectType.EXACT) {
-			stack = new ExactStack(new TabixResultProcess());
+			stack = new ExactStack(new TabixResultProcess(db.getFilterConfig()));
 		} else if(db.getConfig().getIntersect() == IntersectType.FULLCLOASE) {
-			stack = new IntervalStackFC(new TabixResultProcess());
+			stack = new IntervalStackFC(new TabixResultProcess(db.getFilterConfig()));
 		} else {
 			throw new InvalidArgumentException(VannoUtils.INTERSECT_ERROR);
 		}
@@ -53,6 +54,17 @@ public abstract class TbiReader extends AbstractDBReader {
 		this(DatabaseFactory.readDatabase(new DBParam(db)), isCount);
 	}
 
+	/** blocks of a tabix database are counted by the block reader */
+	@Override
+	public long getBlockCount() {
+		return mFp.getBlockCount();
+	}
+
+	@Override
+	public long getJumpCount() {
+		return mFp.getJumpCount();
+	}
+
 	protected class TbiIteratorImpl implements Iterator {
 		protected int tid;
 		protected boolean iseof;
@@ -63,24 +75,34 @@ public abstract class TbiReader extends AbstractDBReader {
 			this.tid = tid;
 	    }
 
+		/** read the next line into the line buffer of the reader, return the length of the line or -1 at the end */
+		protected int nextLine() throws IOException {
+			return -1;
+		}
+
 		@Override
 		public String next() throws IOException {
-			return null;
+			final int len = nextLine();
+			return (len < 0) ? null : new String(mFp.getLineBuffer(), 0, len, StandardCharsets.ISO_8859_1);
 		}
 
+		/** decode the line in the line buffer, the String of the line is made by getOrigStr() only for the lines printed */
 		@Override
 		public LocFeature nextNode() throws IOException {
 			if (iseof) return null;
 			
-			final String s = this.next();	
+			final int len = nextLine();
 	
-			if(s == null) {
+			if(len < 0) {
 				iseof = true;
 				return null;
 			} else {
-				node = codec.decode(s);
-				node.origStr = s;
-				if(chr2tid(node.chr) != tid) {
+				node = codec.decode(mFp.getLineBuffer(), 0, len);
+				if(node.origStr == null) {
+					node.origBytes = mFp.getLineBuffer();
+					node.origLength = len;
+				}
+				if(chr2tid(node) != tid) {
 					iseof = true;
 					return null;
 				}
@@ -2,6 +2,7 @@ package org.mulinlab.varnote.operations.readers.db;
 
 import java.io.IOException;
 
+import org.mulinlab.varnote.constants.GlobalParameter;
 import org.mulinlab.varnote.utils.database.Database;
 
 import org.mulinlab.varnote.utils.node.LocFeature;
@@ -31,8 +32,8 @@ public final class TbiSweepReader extends TbiReader {
 	    }
 	    		 
 		@Override
-		public String next() throws IOException {
-            return mFp.readLine();
+		protected int nextLine() throws IOException {
+            return mFp.readLineBytes();
 		}
 	}
 	 
@@ -45,6 +46,7 @@ public final class TbiSweepReader extends TbiReader {
 	public void initForChr(final int tid) throws IOException{
 		if (tid < 0 || tid >= idx.getmSeqLen()) return;
 		
+		mFp.setReadAhead(GlobalParameter.DEFAULT_READ_AHEAD_BLOCKS);
 		mFp.seek(idx.getMinOffForChr(tid));
 		stack.clearST();
 		stack.setIterator(new SweepIteratorImpl(tid));
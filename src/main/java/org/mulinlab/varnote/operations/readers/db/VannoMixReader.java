@@ -1,8 +1,10 @@
 package org.mulinlab.varnote.operations.readers.db;
 
 import htsjdk.samtools.util.BlockCompressedInputStream;
+import org.mulinlab.varnote.utils.block.AlleleHash;
 import org.mulinlab.varnote.utils.database.Database;
 import org.mulinlab.varnote.utils.node.LocFeature;
+import org.mulinlab.varnote.utils.node.NodeWithFilePointer;
 
 import java.io.IOException;
 
@@ -40,6 +42,7 @@ public final class VannoMixReader extends VannoReader{
 	@Override
 	public boolean query(final LocFeature query) throws IOException {
 		if(!super.query(query)) return false;
+		queryLongFeatures(query);
 		
 		if(isEnd) return false;
 		int r = readIndex(query);
@@ -48,6 +51,11 @@ public final class VannoMixReader extends VannoReader{
 			 return false;
 		} else if(r == FIND) {
 			if(isBlockStart) {
+				 final int allele = checkAlleleBloom(query);
+				 if(allele != SAME_ALLELE) {
+					 if(allele == OTHER_ALLELE) addOtherAllele(query);
+					 return false;
+				 }
 				 isBlockStart = false;
 				 it.seek(srob.getVannoFilePointer());
 				 it.clear();
@@ -59,6 +67,16 @@ public final class VannoMixReader extends VannoReader{
 		return true;
 	}
 	
+	/**
+	 * The block is not read when the bloom filters show the position only has other alleles, report a hit without
+	 * file pointer instead, which is returned as a feature without REF and ALT.
+	 */
+	private void addOtherAllele(final LocFeature query) {
+		final NodeWithFilePointer node = new NodeWithFilePointer(query.beg, query.end, -1, -1);
+		node.alleleHash = AlleleHash.mismatch(queryAllele);
+		stack.getResultProcessor().doProcess(node);
+	}
+
 	public final class MixVannoIteratorImpl extends VannoIteratorImpl {
 		public MixVannoIteratorImpl(final BlockCompressedInputStream _is) {
 		    super(_is);
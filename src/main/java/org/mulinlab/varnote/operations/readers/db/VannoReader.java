@@ -3,13 +3,13 @@ package org.mulinlab.varnote.operations.readers.db;
 import java.io.IOException;
 
 import htsjdk.samtools.util.BlockCompressedInputStream;
+import org.mulinlab.varnote.config.anno.databse.filter.FilterConfig;
 import org.mulinlab.varnote.config.param.DBParam;
 import org.mulinlab.varnote.constants.GlobalParameter;
 import org.mulinlab.varnote.operations.process.CountResultProcess;
 import org.mulinlab.varnote.operations.process.ProcessResult;
 import org.mulinlab.varnote.utils.database.DatabaseFactory;
 import org.mulinlab.varnote.utils.enumset.IntersectType;
-import htsjdk.samtools.seekablestream.SeekableStreamFactory;
 import org.mulinlab.varnote.utils.database.Database;
 import org.mulinlab.varnote.utils.database.VannoDatabase;
 import org.mulinlab.varnote.utils.node.LocFeature;
@@ -17,8 +17,15 @@ import org.mulinlab.varnote.utils.node.NodeWithFilePointer;
 import org.mulinlab.varnote.exceptions.InvalidArgumentException;
 import org.mulinlab.varnote.utils.VannoUtils;
 import org.mulinlab.varnote.utils.gz.BlockCompressedFilePointerUtil;
+import org.mulinlab.varnote.utils.gz.MappedFile;
 import org.mulinlab.varnote.utils.block.BlockFeature;
+import org.mulinlab.varnote.utils.block.AlleleHash;
 import org.mulinlab.varnote.utils.block.SROB;
+import org.mulinlab.varnote.utils.block.SROBBloom;
+import org.mulinlab.varnote.utils.block.SROBColumnReader;
+import org.mulinlab.varnote.utils.block.SROBDirectory;
+import org.mulinlab.varnote.utils.block.SROBStats;
+import org.mulinlab.varnote.utils.database.index.vannoIndex.VannoIndex;
 import org.mulinlab.varnote.utils.block.BlockFeature.VannoFeature;
 import org.mulinlab.varnote.operations.process.VannoResultProcess;
 import org.mulinlab.varnote.operations.stack.ExactStack;
@@ -29,6 +36,9 @@ public abstract class VannoReader extends AbstractDBReader {
 	protected static final int STOP = 1;
 	protected static final int FIND = 2;
 	protected static final int END = 0;
+	protected static final int NO_VARIANT = 0;
+	protected static final int OTHER_ALLELE = 1;
+	protected static final int SAME_ALLELE = 2;
 	
 	protected BlockCompressedInputStream vannoFile;
 	protected BlockCompressedInputStream vannoIndexFile;
@@ -36,6 +46,18 @@ public abstract class VannoReader extends AbstractDBReader {
 	protected final byte[] buf = new byte[8];
 	protected SROBListRead srobRead;
 	protected SROB srob;
+	protected SROBDirectory directory;
+	protected SROBDirectory longFeatures;
+	protected int longFeatureLength;
+	protected final FilterConfig filterConfig;
+	protected int[] statSlots;
+	protected SROBStats stats;
+	protected int blockIndex;
+	protected SROBColumnReader columnReader;
+	protected boolean alleleMatch;
+	protected int queryAllele;
+	protected boolean alleleBloom;
+	protected SROBBloom bloom;
 	protected boolean isEnd;
 	protected boolean isBlockStart;
 
@@ -54,19 +76,23 @@ public abstract class VannoReader extends AbstractDBReader {
 	protected VannoReader(final Database db, final boolean isCount) throws IOException {
 		super(db, isCount);
 
-		vannoIndexFile = new BlockCompressedInputStream(SeekableStreamFactory.getInstance().getBufferedStream(
-				SeekableStreamFactory.getInstance().getStreamFor(((VannoDatabase)db).getDbIndexPath())));
+		vannoIndexFile = new BlockCompressedInputStream(MappedFile.getStream(((VannoDatabase)db).getDbIndexPath()));
 
 		srobRead = new SROBListRead();
 		srob = new SROB(0, 0, 0);
 		isEnd = false;
 
-		vannoFile = new BlockCompressedInputStream(SeekableStreamFactory.getInstance().getBufferedStream(
-				SeekableStreamFactory.getInstance().getStreamFor(((VannoDatabase)db).getVannoFile())));
+		vannoFile = openVannoFile(((VannoDatabase)db).getVannoFile());
+
+		filterConfig = db.getFilterConfig();
+		if(filterConfig != null) {
+			statSlots = filterConfig.getStatSlots(((VannoIndex)idx).getStatColumns());
+			if(!filterConfig.hasStatSlot(statSlots)) statSlots = null;
+		}
 
 		ProcessResult processResult;
 
-		if(isCount) {
+		if(isCount && filterConfig == null) {
 			processResult = new CountResultProcess();
 		} else {
 			processResult = new VannoResultProcess();
@@ -82,8 +108,47 @@ public abstract class VannoReader extends AbstractDBReader {
 			throw new InvalidArgumentException(VannoUtils.INTERSECT_ERROR);
 		}
 
-		if(!isCount) {
-			((VannoResultProcess)stack.getResultProcessor()).setMFP(this.mFp);
+		if(processResult instanceof VannoResultProcess) {
+			((VannoResultProcess)processResult).setMFP(this.mFp);
+			((VannoResultProcess)processResult).setFilter(filterConfig);
+
+			final int[] annoColumns = ((VannoIndex)idx).getAnnoColumns();
+			final String columnFile = ((VannoDatabase)db).getColumnFile();
+			if(filterConfig == null && SROBColumnReader.isCovered(annoColumns, db.getColumnsToRead()) && VannoUtils.isExist(columnFile)) {
+				columnReader = new SROBColumnReader(columnFile, annoColumns, db.getColumnsToRead(), db.getFormat());
+			}
+			alleleMatch = filterConfig == null && db.isAlleleMatch() && ((VannoIndex)idx).hasAlleleHash();
+			if(columnReader != null || alleleMatch) {
+				((VannoResultProcess)processResult).setFeatureMode(db, columnReader);
+			}
+			alleleBloom = alleleMatch && db.getConfig().getIntersect() == IntersectType.EXACT && ((VannoIndex)idx).hasAlleleBloom();
+		}
+	}
+
+	protected BlockCompressedInputStream openVannoFile(final String path) throws IOException {
+		return new BlockCompressedInputStream(MappedFile.getStream(path));
+	}
+
+	@Override
+	public boolean query(final LocFeature query) throws IOException {
+		if(!super.query(query)) return false;
+		if(alleleMatch) {
+			queryAllele = AlleleHash.fingerprint(query.ref, query.alt);
+			((VannoResultProcess)getProcess()).setQueryAllele(queryAllele);
+		}
+		return true;
+	}
+
+	/**
+	 * Features of the hits are read from the column file when the database has one with all the columns needed,
+	 * hits with other alleles than the query are not read when the allele hash is used.
+	 */
+	@Override
+	public LocFeature[] getResultFeatures() {
+		if(columnReader != null || alleleMatch) {
+			return ((VannoResultProcess)getProcess()).getFeatures();
+		} else {
+			return super.getResultFeatures();
 		}
 	}
 
@@ -91,12 +156,20 @@ public abstract class VannoReader extends AbstractDBReader {
 	protected void initForChr(final int tid) throws IOException {
 		srobRead.init();
 		srob.setSROB(0, 0, 0);
+		directory = ((VannoIndex)idx).getDirectory(tid);
+		longFeatures = ((VannoIndex)idx).getLongFeatures(tid);
+		longFeatureLength = ((VannoIndex)idx).getLongFeatureLength();
+		stats = (statSlots == null) ? null : ((VannoIndex)idx).getStats(tid);
+		blockIndex = -1;
+		if(columnReader != null) columnReader.initChr(((VannoIndex)idx).getColumnChunks(tid), idx.tid2chr(tid));
+		bloom = alleleBloom ? ((VannoIndex)idx).getAlleleBloom(tid) : null;
+
 		final Long addr =  idx.getMinOffForChr(tid);
 		if(addr == null) {
 			isEnd = true;
 		} else {
 			isEnd = false;
-			vannoIndexFile.seek(addr);
+			if(directory == null) vannoIndexFile.seek(addr);
 		}
 	}
 	
@@ -106,6 +179,7 @@ public abstract class VannoReader extends AbstractDBReader {
             try {
 				vannoIndexFile.close();
 				vannoFile.close();
+				if(columnReader != null) columnReader.close();
             } catch (IOException e) {
             }
         }
@@ -145,7 +219,7 @@ public abstract class VannoReader extends AbstractDBReader {
 
 		protected VannoIteratorImpl(final BlockCompressedInputStream _is) {
 			iseof = false;
-			block = new BlockFeature();
+			block = new BlockFeature(((VannoIndex)idx).hasAlleleHash());
 			vannoFeature = null;
 			is = _is;
 			node = new NodeWithFilePointer(0, 0);
@@ -164,8 +238,20 @@ public abstract class VannoReader extends AbstractDBReader {
 
 		}
 
+		/**
+		 * Features in the long feature list are reported by queryLongFeatures, skip them here.
+		 * Features in blocks which can't pass the database filter are skipped without reading the database line.
+		 */
 		@Override
 		public LocFeature nextNode() throws IOException {
+			LocFeature feature = readNode();
+			while(feature != null && (isLongFeature(feature) || isFilterBlock(blockIndex))) {
+				feature = readNode();
+			}
+			return feature;
+		}
+
+		protected LocFeature readNode() throws IOException {
 			if (iseof)
 				return null;
 
@@ -176,35 +262,140 @@ public abstract class VannoReader extends AbstractDBReader {
 					return null;
 				} else {
 					processBlock(flag);
+					node.featureIndex = 0;
 				}
 			} else {
 				vannoFeature = block.makeVannoFeature(is, flag);
+				node.featureIndex++;
 			}
 			node.bgzStr = null;
 			node.beg = vannoFeature.getBeg();
 			node.end = vannoFeature.getEnd();
 			node.blockAddress = block.getBlockAddress();
 			node.blockOffset = vannoFeature.getBlockOffset();
+			node.blockIndex = (directory != null) ? blockIndex : -1;
+			node.alleleHash = vannoFeature.getAlleleHash();
 			return node;
 		}
 	}
 	
+	protected boolean isLongFeature(final LocFeature feature) {
+		return longFeatureLength > 0 && (feature.end - feature.beg) > longFeatureLength;
+	}
+
+	/**
+	 * return true if the block min and max show that no feature of the block can pass the database filter
+	 */
+	protected boolean isFilterBlock(final int index) {
+		return stats != null && index >= 0 && index < stats.size() && filterConfig.isFilterBlock(stats, index, statSlots);
+	}
+
+	/**
+	 * Report the features in the long feature list of the current chromosome which match the query.
+	 */
+	protected void queryLongFeatures(final LocFeature query) {
+		if(longFeatures == null || longFeatures.size() == 0) return;
+
+		final int end = longFeatures.upperBound(query.end);
+		long filePointer;
+		for (int i = longFeatures.lowerBound(query.beg); i < end; i++) {
+			filePointer = longFeatures.getVannoFilePointer(i);
+			final NodeWithFilePointer node = new NodeWithFilePointer(longFeatures.getMin(i), longFeatures.getMax(i),
+					BlockCompressedFilePointerUtil.getBlockAddress(filePointer), BlockCompressedFilePointerUtil.getBlockOffset(filePointer));
+			if(stack.isMatch(node, query)) {
+				stack.getResultProcessor().doProcess(node);
+			}
+		}
+	}
+
+	/**
+	 * Check the bloom filters of the blocks from the current one which could hold a feature at the position of the query.
+	 * return NO_VARIANT if none of them has the position, OTHER_ALLELE if they only have the position with other alleles,
+	 * SAME_ALLELE if the query variant may be in the blocks (or there is no bloom filter).
+	 */
+	protected int checkAlleleBloom(final LocFeature query) {
+		if(bloom == null || directory == null || bloom.size() != directory.size() || blockIndex < 0 || query.ref == null || query.alt == null) return SAME_ALLELE;
+
+		final long positionKey = SROBBloom.key(query.beg, query.end);
+		final String[] alts = query.alt.split(GlobalParameter.COMMA);
+		final long[] alleleKeys = new long[alts.length];
+		for (int i = 0; i < alts.length; i++) {
+			alleleKeys[i] = SROBBloom.key(query.beg, query.ref, alts[i]);
+		}
+
+		int r = NO_VARIANT;
+		for (int j = blockIndex; j < directory.size() && directory.getMin(j) <= query.beg; j++) {
+			if(directory.getMax(j) < query.end) continue;
+			for (long key : alleleKeys) {
+				if(bloom.mightContain(j, key)) return SAME_ALLELE;
+			}
+			if(r == NO_VARIANT && bloom.mightContain(j, positionKey)) r = OTHER_ALLELE;
+		}
+		return r;
+	}
+
 	protected int readIndex(final LocFeature query) throws IOException {
+		int r = END, moves = 0;
 	 	while(!isEnd) {
 	 		if(query.end < srob.getMin()) {
-	 			return STOP;
+	 			r = STOP;
+	 			break;
 			 } else {
 				 if(query.beg <= srob.getMax()) {
-					 return FIND;
+					 r = FIND;
+					 break;
 				 }
 				 isBlockStart = true;
-				 nextBlock();
+				 if(directory != null) {
+					 jumpBlock(query.beg);
+				 } else {
+					 nextBlock();
+					 if(!isEnd) moves++;
+				 }
 			 }
 	 	}
-	 	return END;
+	 	if(moves > 1) skipBlocks(moves - 1);
+	 	return r;
+	}
+
+	/**
+	 * Without a directory the SROB list is walked block by block, the blocks passed over without reading them count as
+	 * one jump and are not counted as blocks moved to, like the blocks jumpBlock skips.
+	 */
+	private void skipBlocks(final int skipped) {
+		jumpCount++;
+		blockCount -= skipped;
+	}
+
+	/**
+	 * Move to the first block after the current one which could overlap a query starting at beg,
+	 * found by binary search on the SROB directory. Blocks which can't pass the database filter are skipped.
+	 */
+	protected void jumpBlock(final int beg) {
+		int index = Math.max(blockIndex + 1, directory.lowerBound(beg));
+		while(index < directory.size() && isFilterBlock(index)) {
+			index++;
+		}
+		if(index > blockIndex + 1) jumpCount++;
+		setBlock(index);
+	}
+
+	protected void setBlock(final int index) {
+		blockIndex = index;
+		if(blockIndex >= directory.size()) {
+			isEnd = true;
+		} else {
+			srob.setSROB(directory.getVannoFilePointer(blockIndex), directory.getMin(blockIndex), directory.getMax(blockIndex));
+			blockCount++;
+		}
 	}
 	
 	protected void nextBlock() throws IOException {
+		if(directory != null) {
+			setBlock(blockIndex + 1);
+			return;
+		}
+
 		int blockOffset = GlobalParameter.readInt(vannoIndexFile);
  	 	if(blockOffset == GlobalParameter.CHR_START) {
  	 		isEnd = true;
@@ -217,6 +408,7 @@ public abstract class VannoReader extends AbstractDBReader {
 	 	 	}
  	 		srob.setMin(srobRead.getMin(GlobalParameter.readInt(vannoIndexFile)));
  	 	 	srob.setMax(srob.getMin() + GlobalParameter.readInt(vannoIndexFile));
+ 	 	 	blockCount++;
  	 	}
 	}
 }
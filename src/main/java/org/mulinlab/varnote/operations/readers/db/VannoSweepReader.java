@@ -1,10 +1,13 @@
 package org.mulinlab.varnote.operations.readers.db;
 
+import htsjdk.samtools.util.AsyncBlockCompressedInputStream;
 import htsjdk.samtools.util.BlockCompressedInputStream;
+import org.mulinlab.varnote.constants.GlobalParameter;
 import org.mulinlab.varnote.utils.database.Database;
 import org.mulinlab.varnote.config.param.DBParam;
 import org.mulinlab.varnote.utils.database.DatabaseFactory;
 import org.mulinlab.varnote.operations.process.ProcessResult;
+import org.mulinlab.varnote.utils.gz.MappedFile;
 import org.mulinlab.varnote.utils.node.LocFeature;
 
 import java.io.IOException;
@@ -26,6 +29,14 @@ public final class VannoSweepReader extends VannoReader{
 		super(db, isCount);
 	}
 
+	/**
+	 * The vanno file is scanned in order, blocks after the cursor are inflated by htsjdk's background threads.
+	 */
+	@Override
+	protected BlockCompressedInputStream openVannoFile(final String path) throws IOException {
+		return new AsyncBlockCompressedInputStream(MappedFile.getStream(path));
+	}
+
     public final class SweepIteratorImpl extends VannoIteratorImpl {
     		boolean isStart;
 		 public SweepIteratorImpl(final BlockCompressedInputStream _is) {
@@ -54,6 +65,7 @@ public final class VannoSweepReader extends VannoReader{
 	@Override
 	public void initForChr(final int tid) throws IOException{
 		super.initForChr(tid);
+		mFp.setReadAhead(GlobalParameter.DEFAULT_READ_AHEAD_BLOCKS);
 		nextBlock();
 		stack.clearST();
 		stack.setIterator(new SweepIteratorImpl(vannoFile));
@@ -63,6 +75,7 @@ public final class VannoSweepReader extends VannoReader{
 	@Override
 	public boolean query(final LocFeature query) throws IOException{
 		if(!super.query(query)) return false;
+		queryLongFeatures(query);
 		if(isEnd) return false;
 		stack.findOverlap(query);
 		
@@ -31,6 +31,10 @@ public final class BGZReader implements QueryReaderItf {
         return path;
     }
 
+    public void seek(final long filePointer) throws IOException {
+        bgzStream.seek(filePointer);
+    }
+
     public long getPosition() {
         return bgzStream.getFilePointer();
     }
@@ -0,0 +1,56 @@
+package org.mulinlab.varnote.operations.readers.itf.thread;
+
+import org.mulinlab.varnote.operations.readers.itf.QueryReaderItf;
+
+import java.io.IOException;
+
+/**
+ * Reads the lines of a chunk of a query file inflated in memory, the chunk ends with a whole line. A trailing '\r' of
+ * a line is removed.
+ */
+public final class ChunkReader implements QueryReaderItf {
+
+    private final String path;
+    private final byte[] data;
+    private final int length;
+    private int offset;
+
+    public ChunkReader(final String path, final byte[] data, final int length) {
+        this.path = path;
+        this.data = data;
+        this.length = length;
+    }
+
+    @Override
+    public void initReader() throws IOException {
+        offset = 0;
+    }
+
+    @Override
+    public String getFilePath() {
+        return path;
+    }
+
+    @Override
+    public String readLine() throws Exception {
+        if(offset >= length) return null;
+
+        int end = offset;
+        while(end < length && data[end] != '\n') {
+            end++;
+        }
+        final int lineEnd = (end > offset && data[end - 1] == '\r') ? end - 1 : end;
+        final String line = new String(data, offset, lineEnd - offset);
+        offset = end + 1;
+        return line;
+    }
+
+    @Override
+    public long getPosition() {
+        return 0;
+    }
+
+    @Override
+    public void closeReader() throws IOException {
+    }
+}
@@ -0,0 +1,92 @@
+package org.mulinlab.varnote.operations.readers.itf.thread;
+
+import htsjdk.samtools.util.BlockCompressedInputStream;
+import htsjdk.tribble.readers.LongLineBufferedReader;
+import org.mulinlab.varnote.operations.readers.itf.QueryReaderItf;
+import org.mulinlab.varnote.utils.enumset.FileType;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+/**
+ * Reads lineCount lines of a query file from the offset start (a virtual file pointer for bgzip files), uncompressed
+ * files are read by MappedLineReader.
+ * With an order file (written by QuerySorter for a sorted query), the position of the reader is the line number in
+ * the unsorted query file of the last line read, so the output of the line can be put back in input order.
+ */
+public final class LineRangeReader implements QueryReaderItf {
+
+    private final String path;
+    private final FileType fileType;
+    private final long start;
+    private final long lineCount;
+    private final String orderPath;
+    private final long firstLine;
+
+    private LongLineBufferedReader reader;
+    private MappedLineReader mappedReader;
+    private DataInputStream order;
+    private long count;
+    private long position = -1;
+
+    public LineRangeReader(final String path, final FileType fileType, final long start, final long lineCount, final String orderPath, final long firstLine) throws IOException {
+        this.path = path;
+        this.fileType = fileType;
+        this.start = start;
+        this.lineCount = lineCount;
+        this.orderPath = orderPath;
+        this.firstLine = firstLine;
+        initReader();
+    }
+
+    @Override
+    public void initReader() throws IOException {
+        if(fileType == FileType.BGZ) {
+            final BlockCompressedInputStream bgz = new BlockCompressedInputStream(new File(path));
+            bgz.seek(start);
+            reader = new LongLineBufferedReader(new InputStreamReader(bgz));
+        } else {
+            mappedReader = new MappedLineReader(path, start, lineCount);
+        }
+
+        if(orderPath != null) {
+            final FileInputStream in = new FileInputStream(orderPath);
+            in.getChannel().position(firstLine * Long.BYTES);
+            order = new DataInputStream(new BufferedInputStream(in));
+        }
+        count = 0;
+    }
+
+    @Override
+    public String getFilePath() {
+        return path;
+    }
+
+    @Override
+    public String readLine() throws Exception {
+        if(count == lineCount) return null;
+
+        final String line = (mappedReader != null) ? mappedReader.readLine() : reader.readLine();
+        if(line != null) {
+            count++;
+            if(order != null) position = order.readLong();
+        }
+        return line;
+    }
+
+    @Override
+    public long getPosition() {
+        return position;
+    }
+
+    @Override
+    public void closeReader() throws IOException {
+        if(mappedReader != null) mappedReader.closeReader();
+        else reader.close();
+        if(order != null) order.close();
+    }
+}
@@ -0,0 +1,121 @@
+package org.mulinlab.varnote.operations.readers.itf.thread;
+
+import org.mulinlab.varnote.operations.readers.itf.QueryReaderItf;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads lineCount lines (all lines for -1) of an uncompressed query file from the offset start. The file is mapped into
+ * memory in windows of at most 2GB, newlines are found by testing 8 bytes at a time.
+ */
+public final class MappedLineReader implements QueryReaderItf {
+    private static final long WINDOW_SIZE = Integer.MAX_VALUE;
+    private static final long NEWLINES = 0x0a0a0a0a0a0a0a0aL;
+    private static final long LOWS = 0x0101010101010101L;
+    private static final long HIGHS = 0x8080808080808080L;
+
+    private final String path;
+    private final long start;
+    private final long lineCount;
+
+    private FileChannel channel;
+    private long fileLength;
+    private MappedByteBuffer buffer;
+    private long bufferStart;
+    private int bufferLength;
+    private long offset;
+    private long count;
+    private byte[] line = new byte[1024];
+
+    public MappedLineReader(final String path, final long start, final long lineCount) throws IOException {
+        this.path = path;
+        this.start = start;
+        this.lineCount = lineCount;
+        initReader();
+    }
+
+    @Override
+    public void initReader() throws IOException {
+        channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        fileLength = channel.size();
+        offset = start;
+        count = 0;
+        map(start);
+    }
+
+    private void map(final long from) throws IOException {
+        bufferStart = from;
+        bufferLength = (int)Math.min(WINDOW_SIZE, Math.max(0, fileLength - from));
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, bufferLength);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /** return the index of the first newline in the window from index from, -1 if there is none */
+    private int indexOfNewline(final int from) {
+        int i = from;
+        long x, t;
+        for (; i <= bufferLength - Long.BYTES; i += Long.BYTES) {
+            x = buffer.getLong(i) ^ NEWLINES;
+            t = (x - LOWS) & ~x & HIGHS;
+            if(t != 0) return i + (Long.numberOfTrailingZeros(t) >>> 3);
+        }
+        for (; i < bufferLength; i++) {
+            if(buffer.get(i) == '\n') return i;
+        }
+        return -1;
+    }
+
+    @Override
+    public String getFilePath() {
+        return path;
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        final int len = readLineBytes();
+        return (len < 0) ? null : new String(line, 0, len);
+    }
+
+    /** read the next line into the line buffer without creating a String, return the length of the line or -1 at the end */
+    public int readLineBytes() throws IOException {
+        if(count == lineCount || offset >= fileLength) return -1;
+
+        int pos = (int)(offset - bufferStart);
+        int newline = indexOfNewline(pos);
+        if(newline == -1 && bufferStart + bufferLength < fileLength) {
+            map(offset);
+            pos = 0;
+            newline = indexOfNewline(pos);
+        }
+
+        final int end = (newline == -1) ? bufferLength : newline;
+        final int len = end - pos;
+        if(len > line.length) line = new byte[Math.max(len, line.length * 2)];
+        buffer.position(pos);
+        buffer.get(line, 0, len);
+
+        offset = bufferStart + end + 1;
+        count++;
+        return len;
+    }
+
+    public byte[] getLineBuffer() {
+        return line;
+    }
+
+    @Override
+    public long getPosition() {
+        return offset;
+    }
+
+    @Override
+    public void closeReader() throws IOException {
+        buffer = null;
+        channel.close();
+    }
+}
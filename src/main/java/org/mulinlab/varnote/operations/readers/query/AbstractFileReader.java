@@ -93,6 +93,20 @@ public abstract class AbstractFileReader {
         return null;
     }
 
+    /** replace the reader of the query, the line filters and the iterator are kept */
+    public void setReader(final QueryReaderItf itf) {
+        if(iterator != null) {
+            iterator.setReader(itf);
+        } else {
+            try {
+                reader.closeReader();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        this.reader = itf;
+    }
+
     public boolean isDecodeFull() {
         return decodeFull;
     }
@@ -0,0 +1,140 @@
+package org.mulinlab.varnote.operations.schedule;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.Logger;
+import org.mulinlab.varnote.operations.readers.itf.QueryReaderItf;
+import org.mulinlab.varnote.operations.readers.itf.thread.ChunkReader;
+import org.mulinlab.varnote.utils.LoggingUtils;
+import org.mulinlab.varnote.utils.database.Database;
+import org.mulinlab.varnote.utils.node.ContigDictionary;
+
+/**
+ * Reads a query stream which can't be read from the middle, an inflated gzip (not bgzip) file or the standard input, for
+ * several threads. One thread reads the stream once and cuts it into chunks of whole lines, the chunks are put into a
+ * bounded queue and each chunk is a task of the thread taking it. path is the file the header of the query is read from.
+ */
+public final class ChunkScheduler implements TaskScheduler {
+	private final static Logger logger = LoggingUtils.logger;
+	private static final int CHUNK_SIZE = 4 * 1024 * 1024;
+	private static final int CHUNKS_PER_THREAD = 2;
+	private static final Chunk END = new Chunk(-1, new byte[0], 0);
+
+	private final String path;
+	private final InputStream in;
+	private BlockingQueue<Chunk> queue;
+	private final Map<Integer, Chunk> chunks = new ConcurrentHashMap<Integer, Chunk>();
+	private Thread reader;
+	private volatile IOException error;
+
+	public ChunkScheduler(final String path, final InputStream in) {
+		this.path = path;
+		this.in = in;
+	}
+
+	/** start the thread reading the stream, the threads wait for the chunks in next */
+	@Override
+	public void build(final int thread, final List<Database> dbs) {
+		queue = new ArrayBlockingQueue<Chunk>(thread * CHUNKS_PER_THREAD);
+		reader = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					read();
+				} catch (IOException e) {
+					error = e;
+				} catch (InterruptedException e) {
+					return;
+				}
+				try {
+					queue.put(END);
+				} catch (InterruptedException e) {
+				}
+			}
+		}, "query-reader");
+		reader.setDaemon(true);
+		reader.start();
+	}
+
+	private void read() throws IOException, InterruptedException {
+		byte[] buf = new byte[CHUNK_SIZE];
+		int len = 0, n, index = 0, last;
+
+		while((n = in.read(buf, len, buf.length - len)) != -1) {
+			len += n;
+			if(len < buf.length) continue;
+
+			last = len - 1;
+			while(last >= 0 && buf[last] != '\n') {
+				last--;
+			}
+			if(last < 0) {
+				buf = Arrays.copyOf(buf, buf.length * 2);
+				continue;
+			}
+
+			final byte[] next = new byte[Math.max(CHUNK_SIZE, len - last - 1)];
+			System.arraycopy(buf, last + 1, next, 0, len - last - 1);
+			queue.put(new Chunk(index++, buf, last + 1));
+			len = len - last - 1;
+			buf = next;
+		}
+		if(len > 0) queue.put(new Chunk(index++, buf, len));
+		in.close();
+		logger.info(String.format("Read %d chunks of query.", index));
+	}
+
+	/** return a task for the next chunk, null after the last chunk */
+	@Override
+	public QueryTask next(final int thread) throws IOException {
+		final Chunk chunk;
+		try {
+			chunk = queue.take();
+			if(chunk == END) {
+				queue.put(END);
+				if(error != null) throw error;
+				return null;
+			}
+		} catch (InterruptedException e) {
+			throw new IOException(e);
+		}
+
+		chunks.put(chunk.index, chunk);
+		return new QueryTask(chunk.index, ContigDictionary.UNKNOWN, 0, 0, -1, chunk.length);
+	}
+
+	@Override
+	public QueryReaderItf getReader(final QueryTask task) {
+		final Chunk chunk = chunks.remove(task.getIndex());
+		return new ChunkReader(path, chunk.data, chunk.length);
+	}
+
+	@Override
+	public QueryReaderItf getEmptyReader() {
+		return new ChunkReader(path, END.data, 0);
+	}
+
+	@Override
+	public void close() {
+		if(reader != null) reader.interrupt();
+	}
+
+	private static final class Chunk {
+		private final int index;
+		private final byte[] data;
+		private final int length;
+
+		public Chunk(final int index, final byte[] data, final int length) {
+			this.index = index;
+			this.data = data;
+			this.length = length;
+		}
+	}
+}
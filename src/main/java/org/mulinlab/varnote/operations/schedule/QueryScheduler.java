@@ -0,0 +1,322 @@
+package org.mulinlab.varnote.operations.schedule;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.logging.log4j.Logger;
+import org.mulinlab.varnote.filters.query.line.LineFilter;
+import org.mulinlab.varnote.operations.decode.ChromosomeDictionary;
+import org.mulinlab.varnote.operations.readers.itf.QueryReaderItf;
+import org.mulinlab.varnote.operations.readers.itf.thread.LineRangeReader;
+import org.mulinlab.varnote.operations.readers.itf.thread.MappedLineReader;
+import org.mulinlab.varnote.utils.LoggingUtils;
+import org.mulinlab.varnote.utils.VannoUtils;
+import org.mulinlab.varnote.utils.database.Database;
+import org.mulinlab.varnote.utils.enumset.FileType;
+import org.mulinlab.varnote.utils.format.Format;
+import org.mulinlab.varnote.utils.gz.BlockCache;
+import org.mulinlab.varnote.utils.gz.BlockCacheReader;
+import org.mulinlab.varnote.utils.node.ContigDictionary;
+
+/**
+ * Splits a query file into many small tasks instead of one byte range for each thread. The lines of the query are
+ * collected in chunks of one chromosome, chunks are grouped into tasks by weight, which is the number of lines plus the
+ * database blocks of the chromosome shared by the lines. The tasks are dealt to the threads in turn, so the threads
+ * search neighbouring tasks at the same time and the outputs of the tasks can be printed in order keeping few of them
+ * in memory. Each thread searches its own tasks in order, a thread without tasks steals the last task of the thread
+ * with the most weight left.
+ */
+public final class QueryScheduler implements TaskScheduler {
+	private final static Logger logger = LoggingUtils.logger;
+	private static final int CHUNK_LINES = 4096;
+	private static final int TASKS_PER_THREAD = 16;
+
+	private final String path;
+	private final FileType fileType;
+	private final String orderPath;
+
+	private long[] chunkOffsets = new long[1024];
+	private long[] chunkLines = new long[1024];
+	private int[] chunkContigs = new int[1024];
+	private int chunkCount;
+	private long lineCount;
+
+	private QueryTask[] tasks;
+	private int[][] queues;
+	private int[] heads;
+	private int[] tails;
+	private int stealCount;
+
+	public QueryScheduler(final String path, final FileType fileType, final String orderPath) {
+		this.path = path;
+		this.fileType = fileType;
+		this.orderPath = orderPath;
+	}
+
+	/**
+	 * Scan the lines of a plain text or bgzip query file, only the chromosome column of the data lines is read here,
+	 * the lines are decoded by the threads searching the tasks.
+	 */
+	public static QueryScheduler scan(final String path, final FileType fileType, final Format format) throws IOException {
+		final QueryScheduler scheduler = new QueryScheduler(path, fileType, null);
+		final ChromosomeDictionary chromosomes = new ChromosomeDictionary();
+		final LineFilter headerFilter = VannoUtils.getHeaderLineFilter(format);
+		final byte[] comment = format.getCommentIndicator().getBytes(StandardCharsets.ISO_8859_1);
+		final byte delim = (byte) format.getDelimChar();
+
+		final LineScanner scanner = (fileType == FileType.BGZ) ? new BGZLineScanner(path) : new TextLineScanner(path);
+		boolean isHeader = true;
+		byte[] line;
+		int len, contig;
+		long offset = scanner.getOffset();
+		while((len = scanner.readLine()) >= 0) {
+			line = scanner.getLineBuffer();
+			contig = ContigDictionary.UNKNOWN;
+			if(isHeader) isHeader = headerFilter.isFilterLine(new String(line, 0, len, StandardCharsets.ISO_8859_1));
+			if(!isHeader && !startsWith(line, len, comment) && !isBlank(line, len)) {
+				contig = getContig(line, len, format.sequenceColumn, delim, chromosomes);
+			}
+			scheduler.addLine(offset, contig);
+			offset = scanner.getOffset();
+		}
+		scanner.close();
+		return scheduler;
+	}
+
+	/** return the contig id of the chromosome in the column of the line, normalized like the codecs do */
+	private static int getContig(final byte[] line, final int len, final int column, final byte delim, final ChromosomeDictionary chromosomes) {
+		int col = 1, from = 0, i;
+		for (i = 0; i < len; i++) {
+			if(line[i] == delim) {
+				if(col == column) break;
+				col++;
+				from = i + 1;
+			}
+		}
+		if(col != column) return ContigDictionary.UNKNOWN;
+		return chromosomes.getContig(chromosomes.get(line, from, i));
+	}
+
+	private static boolean startsWith(final byte[] line, final int len, final byte[] prefix) {
+		if(len < prefix.length) return false;
+		for (int i = 0; i < prefix.length; i++) {
+			if(line[i] != prefix[i]) return false;
+		}
+		return true;
+	}
+
+	private static boolean isBlank(final byte[] line, final int len) {
+		for (int i = 0; i < len; i++) {
+			if((line[i] & 0xff) > ' ') return false;
+		}
+		return true;
+	}
+
+	/** add the next line of the file, lines without a chromosome (header lines) have contig -1 */
+	public void addLine(final long offset, final int contig) {
+		if(chunkCount == 0 || lineCount - chunkLines[chunkCount - 1] >= CHUNK_LINES
+				|| (contig >= 0 && chunkContigs[chunkCount - 1] >= 0 && contig != chunkContigs[chunkCount - 1])) {
+			if(chunkCount == chunkOffsets.length) {
+				chunkOffsets = Arrays.copyOf(chunkOffsets, chunkCount * 2);
+				chunkLines = Arrays.copyOf(chunkLines, chunkCount * 2);
+				chunkContigs = Arrays.copyOf(chunkContigs, chunkCount * 2);
+			}
+			chunkOffsets[chunkCount] = offset;
+			chunkLines[chunkCount] = lineCount;
+			chunkContigs[chunkCount] = contig;
+			chunkCount++;
+		} else if(chunkContigs[chunkCount - 1] < 0) {
+			chunkContigs[chunkCount - 1] = contig;
+		}
+		lineCount++;
+	}
+
+	private long getChunkLines(final int i) {
+		return ((i + 1 < chunkCount) ? chunkLines[i + 1] : lineCount) - chunkLines[i];
+	}
+
+	private double[] getChunkWeights(final List<Database> dbs) {
+		int maxContig = -1;
+		for (int i = 0; i < chunkCount; i++) {
+			maxContig = Math.max(maxContig, chunkContigs[i]);
+		}
+
+		final long[] contigLines = new long[maxContig + 1];
+		for (int i = 0; i < chunkCount; i++) {
+			if(chunkContigs[i] >= 0) contigLines[chunkContigs[i]] += getChunkLines(i);
+		}
+
+		final long[] contigBlocks = new long[maxContig + 1];
+		int tid, blocks;
+		for (int c = 0; c <= maxContig; c++) {
+			if(contigLines[c] == 0) continue;
+			for (Database db : dbs) {
+				tid = db.getIndex().chr2tid(ContigDictionary.getName(c));
+				blocks = (tid < 0) ? -1 : db.getIndex().getBlockCount(tid);
+				if(blocks > 0) contigBlocks[c] += blocks;
+			}
+		}
+
+		final double[] weights = new double[chunkCount];
+		for (int i = 0; i < chunkCount; i++) {
+			weights[i] = getChunkLines(i);
+			if(chunkContigs[i] >= 0) weights[i] += (double)contigBlocks[chunkContigs[i]] * weights[i] / contigLines[chunkContigs[i]];
+		}
+		return weights;
+	}
+
+	/** group the chunks into tasks of about the same weight and deal them to the threads */
+	@Override
+	public void build(final int thread, final List<Database> dbs) {
+		final double[] weights = getChunkWeights(dbs);
+		double total = 0;
+		for (double w : weights) {
+			total += w;
+		}
+		final double target = total / ((double)thread * TASKS_PER_THREAD);
+
+		final List<QueryTask> list = new ArrayList<QueryTask>();
+		int first = 0, contig = ContigDictionary.UNKNOWN;
+		double weight = 0;
+		for (int i = 0; i < chunkCount; i++) {
+			if(i > first && (weight + weights[i] > target || (chunkContigs[i] >= 0 && contig >= 0 && chunkContigs[i] != contig && weight >= target / 2))) {
+				list.add(newTask(list.size(), first, i, contig, weight));
+				first = i;
+				weight = 0;
+				contig = ContigDictionary.UNKNOWN;
+			}
+			if(contig < 0) contig = chunkContigs[i];
+			weight += weights[i];
+		}
+		if(chunkCount > 0) list.add(newTask(list.size(), first, chunkCount, contig, weight));
+		tasks = list.toArray(new QueryTask[list.size()]);
+
+		queues = new int[thread][];
+		heads = new int[thread];
+		tails = new int[thread];
+		for (int w = 0; w < thread; w++) {
+			queues[w] = new int[(tasks.length - w + thread - 1) / thread];
+			for (int i = 0; i < queues[w].length; i++) {
+				queues[w][i] = w + i * thread;
+			}
+			tails[w] = queues[w].length;
+		}
+		logger.info(String.format("Split query into %d tasks for %d threads.", tasks.length, thread));
+	}
+
+	private QueryTask newTask(final int index, final int from, final int to, final int contig, final double weight) {
+		final long lines = ((to < chunkCount) ? chunkLines[to] : lineCount) - chunkLines[from];
+		return new QueryTask(index, contig, chunkOffsets[from], chunkLines[from], lines, weight);
+	}
+
+	/** return the next task of the thread, or a task stolen from another thread, null if all tasks are taken */
+	@Override
+	public synchronized QueryTask next(final int thread) {
+		if(heads[thread] < tails[thread]) return tasks[queues[thread][heads[thread]++]];
+
+		int victim = -1;
+		double max = 0, left;
+		for (int w = 0; w < heads.length; w++) {
+			left = 0;
+			for (int i = heads[w]; i < tails[w]; i++) {
+				left += tasks[queues[w][i]].getWeight();
+			}
+			if(heads[w] < tails[w] && (victim == -1 || left > max)) {
+				victim = w;
+				max = left;
+			}
+		}
+		if(victim == -1) return null;
+
+		stealCount++;
+		return tasks[queues[victim][--tails[victim]]];
+	}
+
+	public int getStealCount() {
+		return stealCount;
+	}
+
+	@Override
+	public QueryReaderItf getReader(final QueryTask task) throws IOException {
+		return new LineRangeReader(path, fileType, task.getStart(), task.getLineCount(), orderPath, task.getFirstLine());
+	}
+
+	/** return a reader without lines, the reader of a thread is replaced for each task */
+	@Override
+	public QueryReaderItf getEmptyReader() throws IOException {
+		return new LineRangeReader(path, fileType, 0, 0, null, 0);
+	}
+
+	@Override
+	public void close() {
+	}
+
+	private interface LineScanner {
+		public long getOffset();
+		/** read the next line into the line buffer, return the length of the line or -1 at the end of the file */
+		public int readLine() throws IOException;
+		public byte[] getLineBuffer();
+		public void close() throws IOException;
+	}
+
+	private static final class BGZLineScanner implements LineScanner {
+		private final BlockCacheReader in;
+
+		public BGZLineScanner(final String path) throws IOException {
+			in = new BlockCacheReader(path, new BlockCache(0));
+			in.seek(0);
+		}
+
+		@Override
+		public long getOffset() {
+			return in.getFilePointer();
+		}
+
+		@Override
+		public int readLine() throws IOException {
+			return in.readLineBytes();
+		}
+
+		@Override
+		public byte[] getLineBuffer() {
+			return in.getLineBuffer();
+		}
+
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+	}
+
+	private static final class TextLineScanner implements LineScanner {
+		private final MappedLineReader reader;
+
+		public TextLineScanner(final String path) throws IOException {
+			reader = new MappedLineReader(path, 0, -1);
+		}
+
+		@Override
+		public long getOffset() {
+			return reader.getPosition();
+		}
+
+		@Override
+		public int readLine() throws IOException {
+			final int len = reader.readLineBytes();
+			return (len > 0 && reader.getLineBuffer()[len - 1] == '\r') ? len - 1 : len;
+		}
+
+		@Override
+		public byte[] getLineBuffer() {
+			return reader.getLineBuffer();
+		}
+
+		@Override
+		public void close() throws IOException {
+			reader.closeReader();
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package org.mulinlab.varnote.operations.schedule;
+
+/**
+ * A range of lines of the query file searched by one thread, the outputs of the tasks are merged in order of the tasks.
+ */
+public final class QueryTask {
+	private final int index;
+	private final int contig;
+	private final long start;
+	private final long firstLine;
+	private final long lineCount;
+	private final double weight;
+
+	public QueryTask(final int index, final int contig, final long start, final long firstLine, final long lineCount, final double weight) {
+		this.index = index;
+		this.contig = contig;
+		this.start = start;
+		this.firstLine = firstLine;
+		this.lineCount = lineCount;
+		this.weight = weight;
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	/** return the contig id of the first chromosome of the task */
+	public int getContig() {
+		return contig;
+	}
+
+	public long getStart() {
+		return start;
+	}
+
+	public long getFirstLine() {
+		return firstLine;
+	}
+
+	public long getLineCount() {
+		return lineCount;
+	}
+
+	public double getWeight() {
+		return weight;
+	}
+}
@@ -0,0 +1,18 @@
+package org.mulinlab.varnote.operations.schedule;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.mulinlab.varnote.operations.readers.itf.QueryReaderItf;
+import org.mulinlab.varnote.utils.database.Database;
+
+/**
+ * Gives the threads the tasks of a query file, the outputs of the tasks are merged in order of the task indexes.
+ */
+public interface TaskScheduler {
+	public void build(final int thread, final List<Database> dbs) throws IOException;
+	public QueryTask next(final int thread) throws IOException;
+	public QueryReaderItf getReader(final QueryTask task) throws IOException;
+	public QueryReaderItf getEmptyReader() throws IOException;
+	public void close();
+}
@@ -0,0 +1,171 @@
+package org.mulinlab.varnote.operations.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.logging.log4j.Logger;
+import org.mulinlab.varnote.config.run.ServerConfig;
+import org.mulinlab.varnote.constants.GlobalParameter;
+import org.mulinlab.varnote.operations.query.AbstractQuery;
+import org.mulinlab.varnote.operations.query.VannoQuery;
+import org.mulinlab.varnote.utils.LoggingUtils;
+import org.mulinlab.varnote.utils.VannoUtils;
+import org.mulinlab.varnote.utils.node.LocFeature;
+
+/**
+ * A local HTTP server answering queries with databases loaded once. Each thread of the server borrows a query engine
+ * from a pool, the readers of the engines are opened at start and kept open between requests.
+ *
+ * GET /query?q=chr1:1000-2000&q=chr1:1500 returns the hits of regions ("chrN:beg-end"), positions ("chrN:pos") and
+ * variants ("chrN:pos-REF-ALT"), POST /query takes one query for each line of the body, like a batch file. With more than
+ * one query, the hits of each query follow a "#query" line.
+ */
+public final class QueryServer {
+	private final static Logger logger = LoggingUtils.logger;
+	private final static String CONTEXT = "/query";
+	private final static String PARAM = "q";
+
+	private final ServerConfig config;
+	private BlockingQueue<AbstractQuery> queryEngines;
+	private HttpServer server;
+	private ExecutorService executor;
+	private final CountDownLatch stopped = new CountDownLatch(1);
+
+	public QueryServer(final ServerConfig config) {
+		this.config = config;
+	}
+
+	public void start() throws IOException {
+		config.init();
+
+		final int thread = config.getThread();
+		queryEngines = new ArrayBlockingQueue<AbstractQuery>(thread);
+		for (int i = 0; i < thread; i++) {
+			queryEngines.add(new VannoQuery(config.getDatabses()));
+		}
+
+		server = HttpServer.create(new InetSocketAddress(config.getHost(), config.getPort()), 0);
+		server.createContext(CONTEXT, new QueryHandler());
+		executor = Executors.newFixedThreadPool(thread);
+		server.setExecutor(executor);
+		server.start();
+		logger.info(String.format("Server started on http://%s:%d%s with %d threads.", config.getHost(), getPort(), CONTEXT, thread));
+	}
+
+	public void stop() {
+		server.stop(0);
+		executor.shutdown();
+		for (AbstractQuery queryEngine : queryEngines) {
+			queryEngine.teardown();
+		}
+		stopped.countDown();
+	}
+
+	/** return the port the server listens on, the port chosen by the system when the configured port is 0 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/** block the calling thread until the server is stopped */
+	public void await() throws InterruptedException {
+		stopped.await();
+	}
+
+	/**
+	 * Convert a region "chrN:beg-end", a position "chrN:pos" or a variant "chrN:pos-REF-ALT" to a query. The format is
+	 * checked here, a bad query is answered with 400 instead of stopping the server with an InvalidArgumentException.
+	 */
+	public static LocFeature toNode(final String query) {
+		if(VannoUtils.isPosition(query)) {
+			return VannoUtils.posToNode(query);
+		} else if(VannoUtils.isRegion(query)) {
+			return VannoUtils.regionToNode(query);
+		} else if(VannoUtils.isPosAllele(query)) {
+			return VannoUtils.posAlleleToNode(query);
+		} else {
+			throw new IllegalArgumentException(String.format("Invalid query %s, use a region as chr1:1000-2000, a position as chr1:1000 or a variant as chr1:1000-A-G.", query));
+		}
+	}
+
+	/** return the hits of the queries, the query engine is returned to the pool after the queries */
+	public String query(final List<String> queries) throws IOException, InterruptedException {
+		final AbstractQuery queryEngine = queryEngines.take();
+		try {
+			queryEngine.resetChr();
+
+			final StringBuilder sb = new StringBuilder();
+			for (String query : queries) {
+				if(queries.size() > 1) sb.append(GlobalParameter.QUERY_START).append(GlobalParameter.TAB).append(query).append('\n');
+				queryEngine.doQuery(toNode(query));
+				config.printRecord(queryEngine.getResults(), sb);
+			}
+			return sb.toString();
+		} finally {
+			queryEngines.put(queryEngine);
+		}
+	}
+
+	private static List<String> readQueries(final HttpExchange exchange) throws IOException {
+		final List<String> queries = new ArrayList<String>();
+		if(exchange.getRequestMethod().equalsIgnoreCase("POST")) {
+			final BufferedReader reader = new BufferedReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8));
+			String line;
+			while((line = reader.readLine()) != null) {
+				line = line.trim();
+				if(!line.equals("") && !line.startsWith("#")) queries.add(line);
+			}
+			reader.close();
+		} else {
+			final String params = exchange.getRequestURI().getRawQuery();
+			if(params != null)
+				for (String param : params.split("&")) {
+					final int eq = param.indexOf('=');
+					if(eq > 0 && param.substring(0, eq).equals(PARAM)) {
+						queries.add(URLDecoder.decode(param.substring(eq + 1), "UTF-8").trim());
+					}
+				}
+		}
+		if(queries.size() == 0) throw new IllegalArgumentException(String.format("No query, use %s?%s=chr1:1000-2000 or post one query for each line.", CONTEXT, PARAM));
+		return queries;
+	}
+
+	private final class QueryHandler implements HttpHandler {
+		@Override
+		public void handle(final HttpExchange exchange) throws IOException {
+			int status = 200;
+			String response;
+			try {
+				response = query(readQueries(exchange));
+			} catch (IllegalArgumentException e) {
+				status = 400;
+				response = e.getMessage() + "\n";
+			} catch (Exception e) {
+				logger.error("Query failed.", e);
+				status = 500;
+				response = e.toString() + "\n";
+			}
+
+			final byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+			exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+			final OutputStream out = exchange.getResponseBody();
+			out.write(bytes);
+			out.close();
+		}
+	}
+}
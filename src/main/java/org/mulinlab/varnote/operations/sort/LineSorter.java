@@ -0,0 +1,200 @@
+package org.mulinlab.varnote.operations.sort;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.mulinlab.varnote.constants.GlobalParameter;
+
+/**
+ * Sorts lines by a long key with bounded memory. Lines in memory are sorted by a radix sort, when they exceed the memory
+ * limit they are spilled to a temporary run file, and the runs are merged (k-way) at the end.
+ * Lines with the same key keep the order they are added in. Each line carries a value which is written back with it.
+ */
+public final class LineSorter {
+	private static final int INIT_SIZE = 1024;
+	private static final int LINE_OVERHEAD = 64;
+
+	public interface LineWriter {
+		public void write(final long key, final long value, final String line) throws IOException;
+	}
+
+	private final File tempDir;
+	private final long maxMemory;
+
+	private long[] keys;
+	private long[] values;
+	private String[] lines;
+	private int size;
+	private long memory;
+	private final List<File> runs;
+
+	public LineSorter(final File tempDir, final long maxMemory) {
+		this.tempDir = tempDir;
+		this.maxMemory = maxMemory;
+		this.keys = new long[INIT_SIZE];
+		this.values = new long[INIT_SIZE];
+		this.lines = new String[INIT_SIZE];
+		this.runs = new ArrayList<File>();
+	}
+
+	public void add(final long key, final long value, final String line) throws IOException {
+		if(size == keys.length) {
+			keys = Arrays.copyOf(keys, size * 2);
+			values = Arrays.copyOf(values, size * 2);
+			lines = Arrays.copyOf(lines, size * 2);
+		}
+		keys[size] = key;
+		values[size] = value;
+		lines[size] = line;
+		size++;
+
+		memory += LINE_OVERHEAD + 2L * line.length();
+		if(memory >= maxMemory) spill();
+	}
+
+	/** return the number of runs spilled to disk */
+	public int getRunCount() {
+		return runs.size();
+	}
+
+	/** write all lines in order of their keys and delete the run files */
+	public void write(final LineWriter writer) throws IOException {
+		if(runs.size() == 0) {
+			final int[] order = radixSort(keys, size);
+			for (int i = 0; i < size; i++) {
+				writer.write(keys[order[i]], values[order[i]], lines[order[i]]);
+			}
+			clear();
+		} else {
+			if(size > 0) spill();
+			merge(writer);
+		}
+	}
+
+	private void clear() {
+		Arrays.fill(lines, 0, size, null);
+		size = 0;
+		memory = 0;
+	}
+
+	private void spill() throws IOException {
+		final File run = File.createTempFile("sort", ".run", tempDir);
+		run.deleteOnExit();
+		runs.add(run);
+
+		final int[] order = radixSort(keys, size);
+		final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run), GlobalParameter.BUFFER_SIZE));
+		byte[] b;
+		for (int i = 0; i < size; i++) {
+			b = lines[order[i]].getBytes();
+			out.writeLong(keys[order[i]]);
+			out.writeLong(values[order[i]]);
+			out.writeInt(b.length);
+			out.write(b);
+		}
+		out.close();
+		clear();
+	}
+
+	private void merge(final LineWriter writer) throws IOException {
+		final PriorityQueue<Run> queue = new PriorityQueue<Run>(runs.size());
+		for (int i = 0; i < runs.size(); i++) {
+			final Run run = new Run(runs.get(i), i);
+			if(run.next()) queue.add(run);
+		}
+
+		Run run;
+		while(!queue.isEmpty()) {
+			run = queue.poll();
+			writer.write(run.key, run.value, run.line);
+			if(run.next()) queue.add(run);
+		}
+
+		for (File file : runs) {
+			if(!file.delete()) file.deleteOnExit();
+		}
+		runs.clear();
+	}
+
+	/** return the indexes of the first n keys in sorted order, keys are compared as signed values and the sort is stable */
+	public static int[] radixSort(final long[] keys, final int n) {
+		int[] order = new int[n];
+		int[] temp = new int[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+		}
+		if(n < 2) return order;
+
+		final int[] count = new int[257];
+		int[] swap;
+		for (int shift = 0; shift < 64; shift += 8) {
+			Arrays.fill(count, 0);
+			for (int i = 0; i < n; i++) {
+				count[digit(keys[i], shift) + 1]++;
+			}
+			if(count[digit(keys[0], shift) + 1] == n) continue;
+
+			for (int d = 0; d < 256; d++) {
+				count[d + 1] += count[d];
+			}
+			for (int i = 0; i < n; i++) {
+				temp[count[digit(keys[order[i]], shift)]++] = order[i];
+			}
+			swap = order;
+			order = temp;
+			temp = swap;
+		}
+		return order;
+	}
+
+	private static int digit(final long key, final int shift) {
+		return (int)(((key ^ Long.MIN_VALUE) >>> shift) & 0xff);
+	}
+
+	private static final class Run implements Comparable<Run> {
+		private final DataInputStream in;
+		private final int index;
+		private long key;
+		private long value;
+		private String line;
+		private byte[] buffer = new byte[1024];
+
+		public Run(final File file, final int index) throws IOException {
+			this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), GlobalParameter.BUFFER_SIZE));
+			this.index = index;
+		}
+
+		public boolean next() throws IOException {
+			try {
+				key = in.readLong();
+			} catch (EOFException e) {
+				in.close();
+				line = null;
+				return false;
+			}
+			value = in.readLong();
+			final int len = in.readInt();
+			if(len > buffer.length) buffer = new byte[Math.max(len, buffer.length * 2)];
+			in.readFully(buffer, 0, len);
+			line = new String(buffer, 0, len);
+			return true;
+		}
+
+		@Override
+		public int compareTo(final Run o) {
+			if(key != o.key) return key < o.key ? -1 : 1;
+			return Integer.compare(index, o.index);
+		}
+	}
+}
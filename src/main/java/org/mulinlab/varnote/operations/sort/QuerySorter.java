@@ -0,0 +1,143 @@
+package org.mulinlab.varnote.operations.sort;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.Logger;
+import org.mulinlab.varnote.constants.GlobalParameter;
+import org.mulinlab.varnote.filters.iterator.NoFilterIterator;
+import org.mulinlab.varnote.operations.decode.LocCodec;
+import org.mulinlab.varnote.operations.schedule.QueryScheduler;
+import org.mulinlab.varnote.utils.LoggingUtils;
+import org.mulinlab.varnote.utils.VannoUtils;
+import org.mulinlab.varnote.utils.enumset.FileType;
+import org.mulinlab.varnote.utils.format.Format;
+import org.mulinlab.varnote.utils.node.ContigDictionary;
+import org.mulinlab.varnote.utils.node.LocFeature;
+
+/**
+ * Sorts the records of an unsorted query file by chromosome and position into a temporary file, so each chromosome of
+ * the databases is searched once. Comment and header lines are kept before the records. If the order is kept, the line
+ * number of each line in the query file is written to an order file and read back by LineRangeReader.
+ */
+public final class QuerySorter {
+	private final static Logger logger = LoggingUtils.logger;
+
+	private final String path;
+	private final Format format;
+	private final boolean keepOrder;
+	private final File tempDir;
+	private long maxMemory = GlobalParameter.DEFAULT_SORT_MEMORY * 1024L * 1024L;
+
+	private File sortedFile;
+	private File orderFile;
+	private QueryScheduler scheduler;
+
+	public QuerySorter(final String path, final Format format, final boolean keepOrder) {
+		this.path = path;
+		this.format = format;
+		this.keepOrder = keepOrder;
+		this.tempDir = new File(System.getProperty("java.io.tmpdir"));
+	}
+
+	public void setMaxMemory(final long maxMemory) {
+		this.maxMemory = maxMemory;
+	}
+
+	public static long getKey(final LocFeature feature) {
+		final int contig = (feature.contig >= 0) ? feature.contig : ContigDictionary.getId(feature.chr);
+		return ((long)contig << 32) | (feature.beg & 0xffffffffL);
+	}
+
+	/** sort the query file, the lines of the sorted file are added to the scheduler to split them into tasks */
+	public void sort() throws IOException {
+		final LocCodec codec = VannoUtils.getDefaultLocCodec(format, false, null);
+		final LineSorter sorter = new LineSorter(tempDir, maxMemory);
+		final List<String> headers = new ArrayList<String>();
+		final List<Long> headerLines = new ArrayList<Long>();
+
+		final NoFilterIterator it = new NoFilterIterator(path);
+		boolean isHeader = !(format.isHasHeader() && format.getHeaderPath() == null);
+		boolean isData = false;
+		long lineNum = 0, records = 0;
+		String line;
+		LocFeature feature;
+
+		while(it.hasNext()) {
+			line = it.next();
+			if(line.startsWith(format.getCommentIndicator()) || (!isData && (!isHeader || line.startsWith(GlobalParameter.VCF_HEADER_INDICATOR)))) {
+				if(!line.startsWith(format.getCommentIndicator())) isHeader = true;
+				headers.add(line);
+				headerLines.add(lineNum);
+			} else if(!line.trim().equals("")) {
+				isData = true;
+				feature = codec.decode(line);
+				sorter.add(feature == null ? -1 : getKey(feature), lineNum, line);
+				records++;
+			}
+			lineNum++;
+		}
+		it.close();
+		logger.info(String.format("Sorting %d query records with %d temporary runs.", records, sorter.getRunCount()));
+
+		sortedFile = File.createTempFile(new File(path).getName(), ".sorted.txt", tempDir);
+		sortedFile.deleteOnExit();
+		if(keepOrder) {
+			orderFile = File.createTempFile(new File(path).getName(), ".order", tempDir);
+			orderFile.deleteOnExit();
+		}
+		scheduler = new QueryScheduler(sortedFile.getAbsolutePath(), FileType.TXT, keepOrder ? orderFile.getAbsolutePath() : null);
+
+		final SortedWriter writer = new SortedWriter();
+		for (int i = 0; i < headers.size(); i++) {
+			writer.write(-1, headerLines.get(i), headers.get(i));
+		}
+		sorter.write(writer);
+		writer.close();
+	}
+
+	public QueryScheduler getScheduler() {
+		return scheduler;
+	}
+
+	public String getSortedPath() {
+		return sortedFile.getAbsolutePath();
+	}
+
+	public void close() {
+		if(sortedFile != null) sortedFile.delete();
+		if(orderFile != null) orderFile.delete();
+	}
+
+	private final class SortedWriter implements LineSorter.LineWriter {
+		private final BufferedOutputStream out;
+		private final DataOutputStream order;
+		private long offset;
+
+		public SortedWriter() throws IOException {
+			out = new BufferedOutputStream(new FileOutputStream(sortedFile), GlobalParameter.BUFFER_SIZE);
+			order = keepOrder ? new DataOutputStream(new BufferedOutputStream(new FileOutputStream(orderFile), GlobalParameter.BUFFER_SIZE)) : null;
+		}
+
+		@Override
+		public void write(final long key, final long value, final String line) throws IOException {
+			scheduler.addLine(offset, (int)(key >> 32));
+
+			final byte[] b = line.getBytes();
+			out.write(b);
+			out.write('\n');
+			if(order != null) order.writeLong(value);
+			offset += b.length + 1;
+		}
+
+		public void close() throws IOException {
+			out.close();
+			if(order != null) order.close();
+		}
+	}
+}
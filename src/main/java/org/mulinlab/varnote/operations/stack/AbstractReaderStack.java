@@ -1,7 +1,5 @@
 package org.mulinlab.varnote.operations.stack;
 
-import java.util.List;
-
 import org.mulinlab.varnote.operations.process.ProcessResult;
 import org.mulinlab.varnote.operations.readers.db.AbstractDBReader.Iterator;
 import org.mulinlab.varnote.utils.node.LocFeature;
@@ -42,7 +40,7 @@ public abstract class AbstractReaderStack{
 		return resultProcessor;
 	}
 
-	public abstract void findOverlaps(List<LocFeature> nodes);
 	public abstract void findOverlap(LocFeature node);
 	public abstract boolean findOverlapInST(LocFeature query) ;
+	public abstract boolean isMatch(LocFeature db, LocFeature query);
 }
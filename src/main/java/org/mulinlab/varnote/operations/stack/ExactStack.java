@@ -1,35 +1,23 @@
 package org.mulinlab.varnote.operations.stack;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 
 import org.mulinlab.varnote.operations.process.ProcessResult;
 import org.mulinlab.varnote.utils.node.LocFeature;
 
 public final class ExactStack extends AbstractReaderStack {
-	protected List<LocFeature> st;
-	protected LocFeature tempNode;
+	protected final IntervalBuffer st;
+	protected final IntervalBuffer tempNode;
 	
 	public ExactStack(final ProcessResult resultProcessor) {
 		super(resultProcessor);
-		if(st == null) {
-			st = new ArrayList<LocFeature>();
-		}
-		tempNode = null;
+		st = new IntervalBuffer();
+		tempNode = new IntervalBuffer(1);
 	}
 
 	public void clearST() {
-		st = null;
-		st = new ArrayList<LocFeature>();
-		tempNode = null;
-	}
-
-	
-	public void findOverlaps(List<LocFeature> list) {
-		for (LocFeature intvNode : list) {
-			findOverlap(intvNode);
-		}
+		st.clear();
+		tempNode.clear();
 	}
 	
 	public void loadDB(LocFeature query) {
@@ -38,10 +26,11 @@ public final class ExactStack extends AbstractReaderStack {
 			while((curNode = it.nextNode()) != null) {
 				if(query.beg == curNode.beg) {
 					if(query.end == curNode.end) resultProcessor.doProcess(curNode); 
-					st.add(curNode.clone());
+					st.add(curNode);
 					
 				} else if(query.beg < curNode.beg){
-					tempNode = curNode.clone();
+					tempNode.clear();
+					tempNode.add(curNode);
 					break;
 				} else {
 					continue;
@@ -55,27 +44,37 @@ public final class ExactStack extends AbstractReaderStack {
 	public void findOverlap(LocFeature query) {
 		if(it == null) return;
 		
-		if(tempNode == null) {
+		if(tempNode.size() == 0) {
 			loadDB(query);
 			return;
 		}
-		if(query.beg > tempNode.beg) {
-			st = null;
-			st = new ArrayList<LocFeature>();
+		if(query.beg > tempNode.getBeg(0)) {
+			st.clear();
 			loadDB(query);
 			
-		} else if(query.beg == tempNode.beg) {
-			if(query.end == tempNode.end) resultProcessor.doProcess(tempNode); 
-			st.add(tempNode.clone());
+		} else if(query.beg == tempNode.getBeg(0)) {
+			if(query.end == tempNode.getEnd(0)) {
+				resultProcessor.doProcess(tempNode.get(0));
+				tempNode.update(0);
+			}
+			st.add(tempNode, 0);
 			
 			loadDB(query);
 		} else {
 			for(int k=0; k<st.size(); k++) {
-				if(query.beg == st.get(k).beg && query.end == st.get(k).end) resultProcessor.doProcess(st.get(k)); 
+				if(query.beg == st.getBeg(k) && query.end == st.getEnd(k)) {
+					resultProcessor.doProcess(st.get(k));
+					st.update(k);
+				}
 			}
 		}	
 	}
 
+	@Override
+	public boolean isMatch(LocFeature db, LocFeature query) {
+		return db.beg == query.beg && db.end == query.end;
+	}
+
 	@Override
 	public boolean findOverlapInST(LocFeature query) {
 		// TODO Auto-generated method stub
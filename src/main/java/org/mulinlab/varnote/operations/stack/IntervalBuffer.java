@@ -0,0 +1,187 @@
+package org.mulinlab.varnote.operations.stack;
+
+import java.util.Arrays;
+
+import org.mulinlab.varnote.utils.node.LocFeature;
+import org.mulinlab.varnote.utils.node.NodeWithFilePointer;
+
+/**
+ * Database features kept by a stack, held in parallel primitive arrays so a feature is added without cloning it.
+ * Entries are kept in the order they are added, entries removed from the start only move the head.
+ * Entry i is read through one reusable node returned by get(i), the line the result processor reads for the node
+ * is kept with the entry by update(i), so the line of a feature matching many queries is read once. A line still in
+ * the buffer of the reader is copied as bytes, the String of the line is made only if the entry matches a query.
+ */
+public final class IntervalBuffer {
+	private static final int INIT_SIZE = 64;
+
+	private int head;
+	private int tail;
+	private int[] beg;
+	private int[] end;
+	private long[] blockAddress;
+	private int[] blockOffset;
+	private int[] blockIndex;
+	private int[] featureIndex;
+	private int[] alleleHash;
+	private String[] bgzStr;
+	private String[] origStr;
+	private byte[][] origBytes;
+
+	private final NodeWithFilePointer node;
+
+	public IntervalBuffer() {
+		this(INIT_SIZE);
+	}
+
+	public IntervalBuffer(final int capacity) {
+		beg = new int[capacity];
+		end = new int[capacity];
+		blockAddress = new long[capacity];
+		blockOffset = new int[capacity];
+		blockIndex = new int[capacity];
+		featureIndex = new int[capacity];
+		alleleHash = new int[capacity];
+		bgzStr = new String[capacity];
+		origStr = new String[capacity];
+		origBytes = new byte[capacity][];
+		node = new NodeWithFilePointer(0, 0);
+		head = 0;
+		tail = 0;
+	}
+
+	public int size() {
+		return tail - head;
+	}
+
+	public void clear() {
+		Arrays.fill(bgzStr, head, tail, null);
+		Arrays.fill(origStr, head, tail, null);
+		Arrays.fill(origBytes, head, tail, null);
+		head = 0;
+		tail = 0;
+	}
+
+	public void add(final LocFeature feature) {
+		ensureCapacity();
+		beg[tail] = feature.beg;
+		end[tail] = feature.end;
+		bgzStr[tail] = feature.bgzStr;
+		origStr[tail] = feature.origStr;
+		origBytes[tail] = (feature.origStr == null && feature.origBytes != null) ? Arrays.copyOf(feature.origBytes, feature.origLength) : null;
+		if(feature instanceof NodeWithFilePointer) {
+			final NodeWithFilePointer n = (NodeWithFilePointer)feature;
+			blockAddress[tail] = n.blockAddress;
+			blockOffset[tail] = n.blockOffset;
+			blockIndex[tail] = n.blockIndex;
+			featureIndex[tail] = n.featureIndex;
+			alleleHash[tail] = n.alleleHash;
+		} else {
+			blockAddress[tail] = 0;
+			blockOffset[tail] = 0;
+			blockIndex[tail] = -1;
+			featureIndex[tail] = -1;
+			alleleHash[tail] = 0;
+		}
+		tail++;
+	}
+
+	/** add entry i of another buffer */
+	public void add(final IntervalBuffer buffer, final int i) {
+		add(buffer.get(i));
+	}
+
+	/** remove entries from .. to - 1 */
+	public void remove(final int from, final int to) {
+		if(from >= to) return;
+		final int f = head + from, t = head + to;
+		if(from == 0) {
+			Arrays.fill(bgzStr, f, t, null);
+			Arrays.fill(origStr, f, t, null);
+			Arrays.fill(origBytes, f, t, null);
+			head = t;
+		} else {
+			move(t, f, tail - t);
+			Arrays.fill(bgzStr, tail - (t - f), tail, null);
+			Arrays.fill(origStr, tail - (t - f), tail, null);
+			Arrays.fill(origBytes, tail - (t - f), tail, null);
+			tail -= t - f;
+		}
+		if(head == tail) {
+			head = 0;
+			tail = 0;
+		}
+	}
+
+	public int getBeg(final int i) {
+		return beg[head + i];
+	}
+
+	public int getEnd(final int i) {
+		return end[head + i];
+	}
+
+	/** return entry i in the reusable node, it changes on the next call */
+	public NodeWithFilePointer get(final int i) {
+		final int k = head + i;
+		node.beg = beg[k];
+		node.end = end[k];
+		node.blockAddress = blockAddress[k];
+		node.blockOffset = blockOffset[k];
+		node.blockIndex = blockIndex[k];
+		node.featureIndex = featureIndex[k];
+		node.alleleHash = alleleHash[k];
+		node.bgzStr = bgzStr[k];
+		node.origStr = origStr[k];
+		node.origBytes = origBytes[k];
+		node.origLength = (origBytes[k] == null) ? 0 : origBytes[k].length;
+		return node;
+	}
+
+	/** keep the lines set to the node returned by get(i) */
+	public void update(final int i) {
+		bgzStr[head + i] = node.bgzStr;
+		if(node.origStr != null) {
+			origStr[head + i] = node.origStr;
+			origBytes[head + i] = null;
+		}
+	}
+
+	private void ensureCapacity() {
+		if(tail < beg.length) return;
+		final int size = size();
+		if(head > 0 && size <= beg.length / 2) {
+			move(head, 0, size);
+			Arrays.fill(bgzStr, size, tail, null);
+			Arrays.fill(origStr, size, tail, null);
+			Arrays.fill(origBytes, size, tail, null);
+		} else {
+			final int capacity = beg.length * 2;
+			beg = Arrays.copyOfRange(beg, head, head + capacity);
+			end = Arrays.copyOfRange(end, head, head + capacity);
+			blockAddress = Arrays.copyOfRange(blockAddress, head, head + capacity);
+			blockOffset = Arrays.copyOfRange(blockOffset, head, head + capacity);
+			blockIndex = Arrays.copyOfRange(blockIndex, head, head + capacity);
+			featureIndex = Arrays.copyOfRange(featureIndex, head, head + capacity);
+			alleleHash = Arrays.copyOfRange(alleleHash, head, head + capacity);
+			bgzStr = Arrays.copyOfRange(bgzStr, head, head + capacity);
+			origStr = Arrays.copyOfRange(origStr, head, head + capacity);
+			origBytes = Arrays.copyOfRange(origBytes, head, head + capacity);
+		}
+		head = 0;
+		tail = size;
+	}
+
+	private void move(final int from, final int to, final int length) {
+		System.arraycopy(beg, from, beg, to, length);
+		System.arraycopy(end, from, end, to, length);
+		System.arraycopy(blockAddress, from, blockAddress, to, length);
+		System.arraycopy(blockOffset, from, blockOffset, to, length);
+		System.arraycopy(blockIndex, from, blockIndex, to, length);
+		System.arraycopy(featureIndex, from, featureIndex, to, length);
+		System.arraycopy(alleleHash, from, alleleHash, to, length);
+		System.arraycopy(bgzStr, from, bgzStr, to, length);
+		System.arraycopy(origStr, from, origStr, to, length);
+		System.arraycopy(origBytes, from, origBytes, to, length);
+	}
+}
@@ -1,63 +1,78 @@
 package org.mulinlab.varnote.operations.stack;
 
 import java.io.IOException;
-import java.util.LinkedList;
-import java.util.List;
 import org.mulinlab.varnote.operations.process.ProcessResult;
 import org.mulinlab.varnote.utils.node.LocFeature;
 
 public class IntervalStack extends AbstractReaderStack {
-	protected List<LocFeature> st;
-	protected LocFeature tempNode;
+	protected final IntervalBuffer st;
+	protected final IntervalBuffer tempNode;
 	
 	public IntervalStack(final ProcessResult resultProcessor) {
 		super(resultProcessor);
-		if(st == null) {
-			st = new LinkedList<LocFeature>();
-		}
-		tempNode = null;
+		st = new IntervalBuffer();
+		tempNode = new IntervalBuffer(1);
 	}
 
 	public void clearST() {
-		st = null;
-		st = new LinkedList<LocFeature>();
-		tempNode = null;
-	}
-	
-	public void findOverlaps(List<LocFeature> list) {
-		for (LocFeature intvNode : list) {
-			findOverlap(intvNode);
-		}
+		st.clear();
+		tempNode.clear();
 	}
 	
 	public boolean findOverlapInST(LocFeature query) {
-
+		int removeFrom = -1;
 		for(int k=0; k<st.size(); k++) { 
-			if(st.get(k).end <= query.beg) {
-				st.remove(k);
-				k--;
+			if(st.getEnd(k) <= query.beg) {
+				if(removeFrom < 0) removeFrom = k;
 			} else {
-				if(st.get(k).beg < query.end) {
-					resultProcessor.doProcess(st.get(k)); 
+				if(removeFrom >= 0) {
+					st.remove(removeFrom, k);
+					k = removeFrom;
+					removeFrom = -1;
+				}
+				if(st.getBeg(k) < query.end) {
+					processST(k);
 				} else {
 					return false;
 				}
 			}
 		}
+		if(removeFrom >= 0) st.remove(removeFrom, st.size());
 		
-		if(tempNode != null) { 
-			if( tempNode.beg >= query.end) {	
+		if(tempNode.size() > 0) { 
+			if( tempNode.getBeg(0) >= query.end) {	
 				return false;
-			} else if(tempNode.end > query.beg) {
-				resultProcessor.doProcess(tempNode); 			
-				st.add(tempNode.clone());
-
-				tempNode = null;
+			} else if(tempNode.getEnd(0) > query.beg) {
+				processTemp();
+			} else {
+				tempNode.clear();
 			}
 		}
 		return true;
 	}
+
+	protected void processST(final int k) {
+		resultProcessor.doProcess(st.get(k));
+		st.update(k);
+	}
+
+	/** report the node after the last query and keep it in the stack */
+	protected void processTemp() {
+		resultProcessor.doProcess(tempNode.get(0));
+		tempNode.update(0);
+		st.add(tempNode, 0);
+		tempNode.clear();
+	}
+
+	protected void setTemp(final LocFeature node) {
+		tempNode.clear();
+		tempNode.add(node);
+	}
 	
+	public boolean isMatch(LocFeature db, LocFeature query) {
+		return db.end > query.beg && db.beg < query.end;
+	}
+
 	public void findOverlap(LocFeature query) {
 
 //		if(query.beg == 668629) {
@@ -75,9 +90,9 @@ public class IntervalStack extends AbstractReaderStack {
 				} else {
 					if(curNode.beg < query.end) {
 						resultProcessor.doProcess(curNode); 
-						st.add(curNode.clone());
+						st.add(curNode);
 					} else {
-						tempNode = curNode.clone();
+						setTemp(curNode);
 						break;
 					}
 				}
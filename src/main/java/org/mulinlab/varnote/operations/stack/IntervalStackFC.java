@@ -10,25 +10,32 @@ public final class IntervalStackFC extends IntervalStack {
 	}
 	
 	public boolean findOverlapInST(LocFeature query) {
+		int removeFrom = -1;
 		for(int k=0; k<st.size(); k++) { 
-			if(st.get(k).end < query.beg) {
-				st.remove(k);
-				k--;
+			if(st.getEnd(k) < query.beg) {
+				if(removeFrom < 0) removeFrom = k;
 			} else {
-				if(st.get(k).beg <= query.end) {
-					resultProcessor.doProcess(st.get(k)); 
+				if(removeFrom >= 0) {
+					st.remove(removeFrom, k);
+					k = removeFrom;
+					removeFrom = -1;
+				}
+				if(st.getBeg(k) <= query.end) {
+					processST(k);
 				} else {
 					return false;
 				}
 			}
 		}
-		if(tempNode != null) { 
-			if( tempNode.beg > query.end) {
+		if(removeFrom >= 0) st.remove(removeFrom, st.size());
+
+		if(tempNode.size() > 0) { 
+			if( tempNode.getBeg(0) > query.end) {
 				return false;
-			} else if(tempNode.end >= query.beg) {
-				resultProcessor.doProcess(tempNode); 
-				st.add(tempNode.clone());
-				tempNode = null;
+			} else if(tempNode.getEnd(0) >= query.beg) {
+				processTemp();
+			} else {
+				tempNode.clear();
 			}
 		}
 		return true;
@@ -45,9 +52,9 @@ public final class IntervalStackFC extends IntervalStack {
 				} else {
 					if(curNode.beg <= query.end) { 
 						resultProcessor.doProcess(curNode); 
-						st.add(curNode.clone());
+						st.add(curNode);
 					} else {
-						tempNode = curNode.clone();
+						setTemp(curNode);
 						break;
 					}
 				}
@@ -56,4 +63,9 @@ public final class IntervalStackFC extends IntervalStack {
 			e.printStackTrace();
 		}
 	}
+
+	@Override
+	public boolean isMatch(LocFeature db, LocFeature query) {
+		return db.end >= query.beg && db.beg <= query.end;
+	}
 }
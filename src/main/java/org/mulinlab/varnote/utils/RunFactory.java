@@ -19,6 +19,7 @@ import org.mulinlab.varnote.utils.database.Database;
 import org.mulinlab.varnote.utils.mapreduce.MapReduce;
 import org.mulinlab.varnote.utils.mapreduce.SimpleMapReduce;
 import org.mulinlab.varnote.operations.query.VannoQuery;
+import org.mulinlab.varnote.operations.server.QueryServer;
 import org.mulinlab.varnote.utils.node.LocFeature;
 
 public final class RunFactory {
@@ -112,6 +113,22 @@ public final class RunFactory {
 		}
 	}
 
+	public static void runServer(final ServerConfig serverConfig) {
+		final QueryServer server = new QueryServer(serverConfig);
+		try {
+			server.start();
+			Runtime.getRuntime().addShutdownHook(new Thread() {
+				@Override
+				public void run() {
+					server.stop();
+				}
+			});
+			server.await();
+		} catch (IOException | InterruptedException e) {
+			e.printStackTrace();
+		}
+	}
+
 	public static void runCount(final CountRunConfig config) {
 		config.init();
 
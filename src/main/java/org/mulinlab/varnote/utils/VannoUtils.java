@@ -9,7 +9,9 @@ import htsjdk.variant.vcf.VCFHeader;
 import org.mulinlab.varnote.config.param.DBParam;
 import org.mulinlab.varnote.constants.GlobalParameter;
 import org.mulinlab.varnote.operations.decode.*;
+import org.mulinlab.varnote.filters.query.line.*;
 import org.mulinlab.varnote.operations.query.AbstractQuery;
+import org.mulinlab.varnote.operations.query.AutoQuery;
 import org.mulinlab.varnote.operations.query.SweepQuery;
 import org.mulinlab.varnote.operations.query.TabixQuery;
 import org.mulinlab.varnote.operations.query.VannoQuery;
@@ -96,9 +98,21 @@ public final class VannoUtils {
 		return true;
 	}
 
+	public static boolean isRegion(final String reg) {
+		return Pattern.matches("^(CHR)?([0-9]{1,2}|X|Y|MT|\\w+):\\d+-\\d+$", reg.toUpperCase());
+	}
+
+	public static boolean isPosition(final String reg) {
+		return Pattern.matches("^(CHR)?([0-9]{1,2}|X|Y|MT|\\w+):\\d+$", reg.toUpperCase());
+	}
+
+	public static boolean isPosAllele(final String reg) {
+		return Pattern.matches("^(CHR)?([0-9]{1,2}|X|Y|MT|\\w+):\\d+-[ATCG]+-[ATCG]+$", reg.toUpperCase());
+	}
+
 	public static LocFeature regionToNode(String reg) {
 		reg = reg.toUpperCase();
-		if(!Pattern.matches("^(CHR)?([0-9]{1,2}|X|Y|MT|\\w+):\\d+-\\d+$", reg)) {
+		if(!isRegion(reg)) {
 			throw new InvalidArgumentException(String.format("Invalid format for chromosome region %s, please type correct one as chr1:4380800-4380801 or 1:4380800-4380801", reg));
 		}
 		LocFeature query = new LocFeature();
@@ -122,7 +136,7 @@ public final class VannoUtils {
 	public static LocFeature posToNode(String reg) {
 		reg = reg.toUpperCase();
 
-		if(!Pattern.matches("^(CHR)?([0-9]{1,2}|X|Y|MT|\\w+):\\d+$", reg)) {
+		if(!isPosition(reg)) {
 			throw new InvalidArgumentException(String.format("Invalid format for chromosome position %s, please type correct one as chr1:4380800 or 1:4380800", reg));
 		}
 
@@ -141,7 +155,7 @@ public final class VannoUtils {
 	public static LocFeature posAlleleToNode(String reg) {
 		reg = reg.toUpperCase();
 
-		if(!Pattern.matches("^(CHR)?([0-9]{1,2}|X|Y|MT|\\w+):\\d+-[ATCG]+-[ATCG]+$", reg)) {
+		if(!isPosAllele(reg)) {
 			throw new InvalidArgumentException(String.format("Invalid format for chromosome position with alleles %s, please type correct one as chr1:4380800-A-G or 1:4380800-A-G", reg));
 		}
 
@@ -238,7 +252,7 @@ public final class VannoUtils {
 				return m;
 			}
 		}	
-		throw new InvalidArgumentException("Invalid searching mode, effective value should be 0, 1 or 2. 0:random access mode, 1:mix mode, 2:sweep mode.");
+		throw new InvalidArgumentException("Invalid searching mode, effective value should be 0, 1, 2 or 3. 0:random access mode, 1:mix mode, 2:sweep mode, 3:auto mode.");
 	}
 	
 	public static Format determineFileType(String fileName) {
@@ -371,8 +385,13 @@ public final class VannoUtils {
 	}
 
 	public static void writeFormats(final MyEndianOutputStream indexLos, final Format formatSpec, final String[] headerParts, final List<String> sequenceNames, final Map<Integer, Long> addressOfChr) {
+		writeFormats(indexLos, formatSpec, headerParts, sequenceNames, addressOfChr, GlobalParameter.version1);
+	}
+
+	public static void writeFormats(final MyEndianOutputStream indexLos, final Format formatSpec, final String[] headerParts, final List<String> sequenceNames, final Map<Integer, Long> addressOfChr,
+									final int version) {
 		try {
-			indexLos.writeInt(GlobalParameter.version);
+			indexLos.writeInt(version);
 			indexLos.writeInt(IndexFactory.MAGIC_NUMBER);
 			indexLos.writeInt(formatSpec.getFlags());
 			indexLos.writeInt(formatSpec.sequenceColumn);
@@ -428,6 +447,25 @@ public final class VannoUtils {
 		}
 	}
 
+
+	/** skip the formats written by writeFormats after the version, the stream is left at the first byte after them */
+	public static void skipFormats(final InputStream is) throws IOException {
+		GlobalParameter.readInt(is); //magic
+		for (int i = 0; i < 4; i++) GlobalParameter.readInt(is); //flags, sequence, start and end columns
+		skipBytes(is, GlobalParameter.readInt(is)); //comment indicator
+		if(GlobalParameter.readInt(is) > 0) skipBytes(is, GlobalParameter.readInt(is)); //header
+		for (int i = 0; i < 4; i++) GlobalParameter.readInt(is); //skip, ref and alt columns
+		GlobalParameter.readBoolean(is);
+		GlobalParameter.readInt(is); //number of sequences
+		skipBytes(is, GlobalParameter.readInt(is)); //sequence names
+		skipBytes(is, GlobalParameter.readInt(is) * 12L); //address of chr
+	}
+
+	private static void skipBytes(final InputStream is, final long n) throws IOException {
+		for (long i = 0; i < n; i++) {
+			if(is.read() < 0) throw new EOFException("Unexpected end of the formats");
+		}
+	}
 	
 	public static void checkValidBGZ(final String path) {
 		if(VannoUtils.checkFileType(path) != FileType.BGZ) 
@@ -468,14 +506,47 @@ public final class VannoUtils {
 	}
 	
 	private static boolean isValidBlockHeader(final byte[] buffer) {
-        return (buffer[0] == BlockCompressedStreamConstants.GZIP_ID1 &&
-                (buffer[1] & 0xFF) == BlockCompressedStreamConstants.GZIP_ID2 &&
-                (buffer[3] & BlockCompressedStreamConstants.GZIP_FLG) != 0 &&
-                buffer[10] == BlockCompressedStreamConstants.GZIP_XLEN &&
-                buffer[12] == BlockCompressedStreamConstants.BGZF_ID1 &&
-                buffer[13] == BlockCompressedStreamConstants.BGZF_ID2);
+        return isValidBlockHeader(buffer, 0);
+    }
+
+	private static boolean isValidBlockHeader(final byte[] buffer, final int i) {
+        return (buffer[i] == BlockCompressedStreamConstants.GZIP_ID1 &&
+                (buffer[i + 1] & 0xFF) == BlockCompressedStreamConstants.GZIP_ID2 &&
+                (buffer[i + 3] & BlockCompressedStreamConstants.GZIP_FLG) != 0 &&
+                buffer[i + 10] == BlockCompressedStreamConstants.GZIP_XLEN &&
+                buffer[i + 12] == BlockCompressedStreamConstants.BGZF_ID1 &&
+                buffer[i + 13] == BlockCompressedStreamConstants.BGZF_ID2);
     }
 
+	/**
+	 * Find the address of the first BGZF block starting at or after pos. A candidate header is accepted only when
+	 * the block it describes is followed by another block header or by the end of file. Returns -1 if no block is found.
+	 */
+	public static long nextBGZBlockAddress(final RandomAccessFile raf, final long pos) throws IOException {
+		final int headerLength = BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH;
+		final byte[] buffer = new byte[2 * BlockCompressedStreamConstants.MAX_COMPRESSED_BLOCK_SIZE + headerLength];
+
+		raf.seek(pos);
+		int count = 0, n;
+		while (count < buffer.length && (n = raf.read(buffer, count, buffer.length - count)) > 0) {
+			count += n;
+		}
+		final long length = raf.length();
+
+		int blockLength;
+		for (int i = 0; i + headerLength <= count; i++) {
+			if(isValidBlockHeader(buffer, i)) {
+				blockLength = ((buffer[i + 16] & 0xFF) | ((buffer[i + 17] & 0xFF) << 8)) + 1;
+				if(pos + i + blockLength == length) {
+					return pos + i;
+				} else if(i + blockLength + headerLength <= count && isValidBlockHeader(buffer, i + blockLength)) {
+					return pos + i;
+				}
+			}
+		}
+		return -1;
+	}
+
 	public static long getAddress(final SeekableStream mFile) {
 		try {
 			mFile.seek(mFile.length() - BlockCompressedStreamConstants.EMPTY_GZIP_BLOCK.length - 8);
@@ -508,6 +579,27 @@ public final class VannoUtils {
         return bytesRead;
     }
 
+	/** parse the int in b[from] .. b[to - 1] as Integer.parseInt does, without creating a String */
+	public static int parseInt(final byte[] b, final int from, final int to) {
+		int i = from;
+		boolean negative = false;
+		if(i < to && (b[i] == '-' || b[i] == '+')) {
+			negative = b[i] == '-';
+			i++;
+		}
+		if(i == to) throw new NumberFormatException(String.format("For input string: \"%s\"", new String(b, from, to - from)));
+
+		long value = 0;
+		for (; i < to; i++) {
+			if(b[i] < '0' || b[i] > '9') throw new NumberFormatException(String.format("For input string: \"%s\"", new String(b, from, to - from)));
+			value = value * 10 + (b[i] - '0');
+			if(value > Integer.MAX_VALUE + 1L) throw new NumberFormatException(String.format("For input string: \"%s\"", new String(b, from, to - from)));
+		}
+		if(negative) value = -value;
+		if(value > Integer.MAX_VALUE) throw new NumberFormatException(String.format("For input string: \"%s\"", new String(b, from, to - from)));
+		return (int) value;
+	}
+
 	public static <T> T nonNull(final T object, final String message) {
 		if (object == null) {
 			throw new IllegalArgumentException(message);
@@ -551,6 +643,42 @@ public final class VannoUtils {
 	}
 
 
+	/**
+	 * Return the column col (1-based) of the line without splitting the whole line, or null if the line has fewer columns.
+	 */
+	public static String getColumn(final String line, final char delim, final int col) {
+		int start = 0, end, n = 1;
+		while (n < col) {
+			start = line.indexOf(delim, start);
+			if(start == -1) return null;
+			start++;
+			n++;
+		}
+		end = line.indexOf(delim, start);
+		return (end == -1) ? line.substring(start) : line.substring(start, end);
+	}
+
+	/**
+	 * Return the column number of col, which is a column name in the header or a column number, or -1 if not found.
+	 */
+	public static int parseColumn(final Format format, final String col) {
+		if(col.matches("\\d+")) return Integer.parseInt(col);
+		if(format.getHeaderPart() == null) return -1;
+		return format.getCol(col);
+	}
+
+	/**
+	 * Parse a numeric column value, return NaN for missing or non-numeric values such as "." or "NA".
+	 */
+	public static double parseNumber(final String val) {
+		if(val == null || val.isEmpty()) return Double.NaN;
+		try {
+			return Double.parseDouble(val);
+		} catch (NumberFormatException e) {
+			return Double.NaN;
+		}
+	}
+
 	public static String[] setDefaultCol(final String[] parts) {
 		for (int i = 0; i < parts.length; i++) {
 			parts[i] = GlobalParameter.COL + (i + 1);
@@ -578,6 +706,16 @@ public final class VannoUtils {
 		}
 	}
 
+	public static HeaderLineFilter getHeaderLineFilter(final Format format) {
+		if(format.type == FormatType.VCF) {
+			return new VCFHeaderLineFilter();
+		} else if(format.type == FormatType.BED) {
+			return new BEDHeaderLineFilter(format);
+		} else {
+			return new TABHeaderLineFilter(format);
+		}
+	}
+
 	public static LocCodec getDefaultLocCodec(final Format format, final boolean isFull, final VCFHeader vcfHeader) {
 		LocCodec locCodec;
 		if(format.type == FormatType.VCF) {
@@ -597,6 +735,8 @@ public final class VannoUtils {
 			return new TabixQuery(dbs);
 		} else if(mode == Mode.SWEEP) {
 			return new SweepQuery(dbs);
+		} else if(mode == Mode.AUTO) {
+			return new AutoQuery(dbs, isCount);
 		} else {
 			return new VannoQuery(dbs, isCount);
 		}
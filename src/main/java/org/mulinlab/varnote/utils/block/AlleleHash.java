@@ -0,0 +1,55 @@
+package org.mulinlab.varnote.utils.block;
+
+
+/**
+ * A 32 bit fingerprint of REF and ALT kept with each vanno feature. The high 16 bits are a hash of REF, each allele of
+ * ALT (separated by comma) sets one of the low 16 bits. A query can only match a feature when REF hashes are equal and
+ * they share an ALT bit, so a mismatch means the alleles are different. 0 means the fingerprint is unknown.
+ */
+public final class AlleleHash {
+	public static final int UNKNOWN = 0;
+
+	private AlleleHash() {
+	}
+
+	public static int fingerprint(final String ref, final String alt) {
+		if(ref == null || alt == null) return UNKNOWN;
+
+		int mask = 0, beg = 0, end;
+		while (beg <= alt.length()) {
+			end = alt.indexOf(',', beg);
+			if(end == -1) end = alt.length();
+			mask |= 1 << (mix(hash(alt, beg, end)) & 15);
+			beg = end + 1;
+		}
+		return (mix(hash(ref, 0, ref.length())) & 0xFFFF0000) | mask;
+	}
+
+	/** return false only if the feature and the query have different alleles */
+	public static boolean isMatch(final int feature, final int query) {
+		if(feature == UNKNOWN || query == UNKNOWN) return true;
+		return ((feature ^ query) >>> 16) == 0 && (feature & query & 0xFFFF) != 0;
+	}
+
+	/** return a fingerprint which never matches the fingerprint given, used for features known to have other alleles */
+	public static int mismatch(final int fingerprint) {
+		return fingerprint ^ 0xFFFF0000;
+	}
+
+	private static int hash(final String s, final int beg, final int end) {
+		int h = 0;
+		for (int i = beg; i < end; i++) {
+			h = 31 * h + s.charAt(i);
+		}
+		return h;
+	}
+
+	private static int mix(int h) {
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+		return h;
+	}
+}
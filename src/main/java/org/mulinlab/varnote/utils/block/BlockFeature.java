@@ -14,10 +14,17 @@ public final class BlockFeature {
 	private int avgOffset;
 	private VannoFeature feature;
 	private boolean isReadBlock;
+	private final boolean hasAlleleHash;
+	private int firstAlleleHash;
 	
 	public BlockFeature() {
+		this(false);
+	}
+
+	public BlockFeature(final boolean hasAlleleHash) {
 		feature = new VannoFeature();
 		isReadBlock = false;
+		this.hasAlleleHash = hasAlleleHash;
 	}
 	
 	public void readBlock(final BlockCompressedInputStream is, final int min, final int flag, byte[] buf) throws IOException {
@@ -43,6 +50,7 @@ public final class BlockFeature {
 		this.preOffset = BlockCompressedFilePointerUtil.getBlockOffset(filePointer);
 		
 		avgOffset = readShort(is);
+		if(hasAlleleHash) firstAlleleHash = GlobalParameter.readInt(is);
 		isReadBlock = true;
 	}
 	
@@ -54,6 +62,7 @@ public final class BlockFeature {
 	
 	public VannoFeature makeFirstVannoFeature() throws IOException {
 		feature.setVannoFeature(this.preOffset, this.preBeg, this.offsetEnd);
+		feature.alleleHash = firstAlleleHash;
 		return feature;
 	}
 
@@ -77,6 +86,7 @@ public final class BlockFeature {
 			preOffset = preOffset + avgOffset - offset;
 		}
 		feature.setVannoFeature(preOffset, preBeg, offsetEnd);
+		if(hasAlleleHash) feature.alleleHash = GlobalParameter.readInt(is);
 		return feature;
 	}
 	
@@ -108,6 +118,7 @@ public final class BlockFeature {
 		int blockOffset;
 		int beg;
 		int end;
+		int alleleHash;
 		
 		public VannoFeature() {
 			
@@ -130,7 +141,11 @@ public final class BlockFeature {
 		}
 		public void setEnd(int end) {
 			this.end = end;
-		}	
+		}
+		/** REF and ALT hash of the feature, or AlleleHash.UNKNOWN if the vanno file has no allele hash */
+		public int getAlleleHash() {
+			return alleleHash;
+		}
 	}
 
 	public long getBlockAddress() {
@@ -11,6 +11,7 @@ public class SROB {
 	private long bgzFilePointer;
 	private int min;
 	private int max;
+	private int shortMax;
 	
 	private List<Feature> blockFeature;
 	private int preBeg;
@@ -38,6 +39,7 @@ public class SROB {
 		this.bgzFilePointer = bgzFilePointer;
 		this.min = min;
 		this.max = max;
+		this.shortMax = min;
 		
 		this.preBeg = min;	
 		this.totalOffset = 0;
@@ -70,6 +72,15 @@ public class SROB {
 	public int getMax() {
 		return max;
 	}
+
+	/** max end of the features not stored in the long feature list */
+	public int getShortMax() {
+		return shortMax;
+	}
+
+	public void updateShortMax(final int end) {
+		if(end > this.shortMax) this.shortMax = end;
+	}
 	
 	public long getVannoFilePointer() {
 		return vannoFilePointer;
@@ -92,6 +103,7 @@ public class SROB {
 		final int beg;
 		final int end;
 		final int offset;
+		int alleleHash;
 		
 		public Feature(final int beg, final int end, final int offset) {
 			super();
@@ -112,6 +124,15 @@ public class SROB {
 		public int getOffset() {
 			return offset;
 		}
+
+		public int getAlleleHash() {
+			return alleleHash;
+		}
+	}
+
+	/** set the REF and ALT fingerprint of the last feature added */
+	public void setAlleleHash(final int alleleHash) {
+		blockFeature.get(blockFeature.size() - 1).alleleHash = alleleHash;
 	}
 
 	public List<Feature> getBlockFeature() { 
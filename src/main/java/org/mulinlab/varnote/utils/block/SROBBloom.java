@@ -0,0 +1,152 @@
+package org.mulinlab.varnote.utils.block;
+
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.mulinlab.varnote.constants.GlobalParameter;
+import org.mulinlab.varnote.utils.gz.MyEndianOutputStream;
+
+/**
+ * Bloom filters of all SROBs of one chromosome, in the same order as the SROB directory. Each filter keeps the
+ * position (start and end) and the position with each REF and ALT of the features of the SROB, so a reader can
+ * know that a variant is not in a SROB without reading it. Keys of the current SROB are collected by add(key)
+ * and the filter is built by add().
+ */
+public final class SROBBloom {
+	private static final int INIT_SIZE = 1024;
+	private static final int BITS_PER_KEY = 8;
+	private static final int HASH_COUNT = 5;
+
+	private int size;
+	private int[] wordOffset;
+	private long[] words;
+	private int wordCount;
+
+	private long[] keys;
+	private int keyCount;
+
+	public SROBBloom() {
+		this(INIT_SIZE);
+	}
+
+	public SROBBloom(final int capacity) {
+		this.size = 0;
+		this.wordOffset = new int[capacity + 1];
+		this.words = new long[capacity];
+		this.wordCount = 0;
+		this.keys = new long[16];
+		this.keyCount = 0;
+	}
+
+	public static long key(final int beg, final int end) {
+		return mix((((long) beg) << 32) | (end & 0xFFFFFFFFL));
+	}
+
+	public static long key(final int beg, final String ref, final String alt) {
+		return mix((((long) beg) << 32) ^ (ref.hashCode() * 0x9E3779B97F4A7C15L) ^ (alt.hashCode() & 0xFFFFFFFFL) ^ 0x5851F42D4C957F2DL);
+	}
+
+	/** collect the position key and the allele keys (one for each allele of ALT) of a feature of the current SROB */
+	public void add(final int beg, final int end, final String ref, final String alt) {
+		add(key(beg, end));
+		for (String a : alt.split(GlobalParameter.COMMA)) {
+			add(key(beg, ref, a));
+		}
+	}
+
+	private void add(final long key) {
+		if(keyCount == keys.length) keys = Arrays.copyOf(keys, keyCount * 2);
+		keys[keyCount++] = key;
+	}
+
+	/** build the filter of the keys collected by add(key) as the next SROB */
+	public void add() {
+		final int n = (Math.max(keyCount * BITS_PER_KEY, 64) + 63) >>> 6;
+		ensureCapacity(n);
+
+		final int bits = n << 6;
+		int h1, h2, bit;
+		for (int i = 0; i < keyCount; i++) {
+			h1 = (int) keys[i];
+			h2 = (int) (keys[i] >>> 32) | 1;
+			for (int j = 0; j < HASH_COUNT; j++) {
+				bit = ((h1 + j * h2) & 0x7FFFFFFF) % bits;
+				words[wordCount + (bit >>> 6)] |= 1L << (bit & 63);
+			}
+		}
+		append(n);
+		keyCount = 0;
+	}
+
+	/** store the SROB i of another SROBBloom as the next SROB */
+	public void add(final SROBBloom bloom, final int i) {
+		final int n = bloom.wordOffset[i + 1] - bloom.wordOffset[i];
+		ensureCapacity(n);
+		System.arraycopy(bloom.words, bloom.wordOffset[i], words, wordCount, n);
+		append(n);
+	}
+
+	private void ensureCapacity(final int n) {
+		if(wordCount + n > words.length) words = Arrays.copyOf(words, Math.max(words.length * 2, wordCount + n));
+		if(size + 2 > wordOffset.length) wordOffset = Arrays.copyOf(wordOffset, wordOffset.length * 2);
+	}
+
+	private void append(final int n) {
+		wordCount += n;
+		size++;
+		wordOffset[size] = wordCount;
+	}
+
+	/** return false if the key is not in SROB i */
+	public boolean mightContain(final int i, final long key) {
+		final int offset = wordOffset[i], bits = (wordOffset[i + 1] - offset) << 6;
+		final int h1 = (int) key, h2 = (int) (key >>> 32) | 1;
+		int bit;
+		for (int j = 0; j < HASH_COUNT; j++) {
+			bit = ((h1 + j * h2) & 0x7FFFFFFF) % bits;
+			if((words[offset + (bit >>> 6)] & (1L << (bit & 63))) == 0) return false;
+		}
+		return true;
+	}
+
+	public void write(final MyEndianOutputStream os) throws IOException {
+		os.writeInt(size);
+		for (int i = 0; i < size; i++) {
+			os.writeInt(wordOffset[i + 1] - wordOffset[i]);
+		}
+		for (int i = 0; i < wordCount; i++) {
+			os.writeLong(words[i]);
+		}
+	}
+
+	public static SROBBloom read(final InputStream is, final byte[] buf) throws IOException {
+		final int n = GlobalParameter.readInt(is);
+		final SROBBloom bloom = new SROBBloom(Math.max(n, 1));
+
+		for (int i = 0; i < n; i++) {
+			bloom.wordOffset[i + 1] = bloom.wordOffset[i] + GlobalParameter.readInt(is);
+		}
+		bloom.size = n;
+		bloom.wordCount = bloom.wordOffset[n];
+		bloom.words = new long[bloom.wordCount];
+		for (int i = 0; i < bloom.wordCount; i++) {
+			bloom.words[i] = GlobalParameter.readLong(is, buf);
+		}
+		return bloom;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	private static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		h *= 0xC4CEB9FE1A85EC53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
@@ -0,0 +1,107 @@
+package org.mulinlab.varnote.utils.block;
+
+
+import java.io.IOException;
+
+import htsjdk.samtools.util.BlockCompressedInputStream;
+import org.mulinlab.varnote.constants.GlobalParameter;
+import org.mulinlab.varnote.utils.format.Format;
+import org.mulinlab.varnote.utils.gz.MappedFile;
+import org.mulinlab.varnote.utils.node.LocFeature;
+import org.mulinlab.varnote.utils.node.NodeWithFilePointer;
+
+/**
+ * Read features from the column file of a vanno database. Only the columns needed are set in the parts of the feature,
+ * the column chunk of the last SROB is kept so features of the same SROB are decoded once.
+ */
+public final class SROBColumnReader {
+
+	private final BlockCompressedInputStream is;
+	private final Format format;
+	private final int columnCount;
+	private final int[] slots;
+
+	private long[] chunks;
+	private String chr;
+	private int chunkIndex;
+	private String[][] values;
+
+	public SROBColumnReader(final String path, final int[] annoColumns, final int[] columns, final Format format) throws IOException {
+		this.is = new BlockCompressedInputStream(MappedFile.getStream(path));
+		this.format = format;
+		this.columnCount = annoColumns.length;
+
+		int size = (format.getHeaderPart() == null) ? 0 : format.getHeaderPartSize();
+		for (int col : columns) {
+			if(col > size) size = col;
+		}
+		this.slots = new int[size];
+		for (int i = 0; i < size; i++) {
+			slots[i] = -1;
+		}
+		for (int col : columns) {
+			if(col < 1) continue;
+			for (int j = 0; j < annoColumns.length; j++) {
+				if(annoColumns[j] == col) slots[col - 1] = j;
+			}
+		}
+	}
+
+	/** return true if all the columns greater than 0 are stored in the column file */
+	public static boolean isCovered(final int[] annoColumns, final int[] columns) {
+		if(annoColumns == null || annoColumns.length == 0 || columns == null) return false;
+
+		boolean found;
+		for (int col : columns) {
+			if(col < 1) continue;
+			found = false;
+			for (int annoCol : annoColumns) {
+				if(annoCol == col) {
+					found = true;
+					break;
+				}
+			}
+			if(!found) return false;
+		}
+		return true;
+	}
+
+	public void initChr(final long[] chunks, final String chr) {
+		this.chunks = chunks;
+		this.chr = chr;
+		this.chunkIndex = -1;
+		this.values = null;
+	}
+
+	/** return the feature of the node read from the column file, or null if the node is not in the column file */
+	public LocFeature getFeature(final NodeWithFilePointer node) throws IOException {
+		if(chunks == null || node.blockIndex < 0 || node.blockIndex >= chunks.length || node.featureIndex < 0) return null;
+		if(node.blockIndex != chunkIndex) {
+			readChunk(node.blockIndex);
+		}
+
+		final LocFeature feature = new LocFeature(node.beg, node.end, chr);
+		feature.parts = new String[slots.length];
+		for (int i = 0; i < slots.length; i++) {
+			if(slots[i] >= 0) feature.parts[i] = values[slots[i]][node.featureIndex];
+		}
+		if(format.refPositionColumn > 1) feature.ref = feature.parts[format.refPositionColumn - 1];
+		if(format.altPositionColumn > 1) feature.alt = feature.parts[format.altPositionColumn - 1];
+		return feature;
+	}
+
+	private void readChunk(final int index) throws IOException {
+		is.seek(chunks[index]);
+		final byte[] data = new byte[GlobalParameter.readInt(is)];
+		is.read(data);
+		values = SROBColumns.decode(data, columnCount);
+		chunkIndex = index;
+	}
+
+	public void close() {
+		try {
+			is.close();
+		} catch (IOException e) {
+		}
+	}
+}
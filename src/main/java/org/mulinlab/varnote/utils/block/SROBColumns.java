@@ -0,0 +1,175 @@
+package org.mulinlab.varnote.utils.block;
+
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.mulinlab.varnote.utils.VannoUtils;
+import org.mulinlab.varnote.utils.gz.MyEndianOutputStream;
+
+/**
+ * Annotation columns of the features of one SROB, stored column by column in the column file of a vanno database.
+ * Values of the current SROB are collected by update and encoded by encode, the features keep the order of the vanno file.
+ * A column is stored as int or double when every value prints back to the same text, otherwise the distinct values
+ * are stored once in a dictionary and each feature keeps the index of its value.
+ */
+public final class SROBColumns {
+	public static final byte INT = 1;
+	public static final byte DOUBLE = 2;
+	public static final byte DICT = 3;
+
+	private final int[] columns;
+	private final char delim;
+	private List<String[]> rows;
+
+	public SROBColumns(final int[] columns, final char delim) {
+		this.columns = columns;
+		this.delim = delim;
+		this.rows = new ArrayList<String[]>();
+	}
+
+	/** collect the column values of the next feature of the current SROB */
+	public void update(final String line) {
+		final String[] row = new String[columns.length];
+		for (int i = 0; i < columns.length; i++) {
+			row[i] = VannoUtils.getColumn(line, delim, columns[i]);
+		}
+		rows.add(row);
+	}
+
+	/** encode the values collected by update and start the next SROB */
+	public byte[] encode() throws IOException {
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		final MyEndianOutputStream os = new MyEndianOutputStream(buffer);
+
+		os.writeInt(rows.size());
+		for (int i = 0; i < columns.length; i++) {
+			if(isInt(i)) {
+				os.write(INT);
+				for (String[] row : rows) {
+					os.writeInt(Integer.parseInt(row[i]));
+				}
+			} else if(isDouble(i)) {
+				os.write(DOUBLE);
+				for (String[] row : rows) {
+					os.writeLong(Double.doubleToLongBits(Double.parseDouble(row[i])));
+				}
+			} else {
+				os.write(DICT);
+				writeDict(os, i);
+			}
+		}
+		rows = new ArrayList<String[]>();
+		return buffer.toByteArray();
+	}
+
+	private boolean isInt(final int col) {
+		try {
+			for (String[] row : rows) {
+				if(row[col] == null || !row[col].equals(Integer.toString(Integer.parseInt(row[col])))) return false;
+			}
+			return true;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	private boolean isDouble(final int col) {
+		try {
+			for (String[] row : rows) {
+				if(row[col] == null || !row[col].equals(Double.toString(Double.parseDouble(row[col])))) return false;
+			}
+			return true;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	private void writeDict(final MyEndianOutputStream os, final int col) throws IOException {
+		final Map<String, Integer> dictIndex = new HashMap<String, Integer>();
+		final List<String> dict = new ArrayList<String>();
+		final int[] index = new int[rows.size()];
+
+		Integer val;
+		for (int i = 0; i < index.length; i++) {
+			val = dictIndex.get(rows.get(i)[col]);
+			if(val == null) {
+				val = dict.size();
+				dictIndex.put(rows.get(i)[col], val);
+				dict.add(rows.get(i)[col]);
+			}
+			index[i] = val;
+		}
+
+		os.writeInt(dict.size());
+		byte[] bytes;
+		for (String s : dict) {
+			if(s == null) {
+				os.writeInt(-1);
+			} else {
+				bytes = s.getBytes(StandardCharsets.UTF_8);
+				os.writeInt(bytes.length);
+				os.write(bytes, 0, bytes.length);
+			}
+		}
+		for (int i : index) {
+			if(dict.size() <= 256) {
+				os.write(i);
+			} else if(dict.size() <= 65536) {
+				os.writeShort(i);
+			} else {
+				os.writeInt(i);
+			}
+		}
+	}
+
+	/**
+	 * Decode a SROB written by encode, return the values of each column, values[column][feature].
+	 * Numbers are formatted back to text when decoded, so the values equal the text of the database line.
+	 */
+	public static String[][] decode(final byte[] data, final int columnCount) {
+		final ByteBuffer bb = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+		final int n = bb.getInt();
+		final String[][] values = new String[columnCount][n];
+
+		for (int i = 0; i < columnCount; i++) {
+			final byte type = bb.get();
+			if(type == INT) {
+				for (int j = 0; j < n; j++) {
+					values[i][j] = Integer.toString(bb.getInt());
+				}
+			} else if(type == DOUBLE) {
+				for (int j = 0; j < n; j++) {
+					values[i][j] = Double.toString(Double.longBitsToDouble(bb.getLong()));
+				}
+			} else {
+				final String[] dict = new String[bb.getInt()];
+				int len;
+				for (int j = 0; j < dict.length; j++) {
+					len = bb.getInt();
+					if(len >= 0) {
+						dict[j] = new String(data, bb.position(), len, StandardCharsets.UTF_8);
+						bb.position(bb.position() + len);
+					}
+				}
+				for (int j = 0; j < n; j++) {
+					if(dict.length <= 256) {
+						values[i][j] = dict[bb.get() & 0xff];
+					} else if(dict.length <= 65536) {
+						values[i][j] = dict[bb.getShort() & 0xffff];
+					} else {
+						values[i][j] = dict[bb.getInt()];
+					}
+				}
+			}
+		}
+		return values;
+	}
+}
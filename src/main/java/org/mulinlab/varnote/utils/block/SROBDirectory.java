@@ -0,0 +1,121 @@
+package org.mulinlab.varnote.utils.block;
+
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.mulinlab.varnote.constants.GlobalParameter;
+import org.mulinlab.varnote.utils.gz.MyEndianOutputStream;
+
+/**
+ * All SROBs of one chromosome held in primitive arrays, in the same order as they are written to the vanno file.
+ * runMax[i] is the largest max of SROB 0..i, it is non-decreasing and used to binary search the first SROB
+ * which could overlap a query.
+ * The long feature list of a chromosome uses the same layout, with one entry per feature and the file pointer
+ * of the feature line in the database file.
+ */
+public final class SROBDirectory {
+	private static final int INIT_SIZE = 1024;
+
+	private int size;
+	private int[] min;
+	private int[] max;
+	private int[] runMax;
+	private long[] vannoFilePointer;
+
+	public SROBDirectory() {
+		this(INIT_SIZE);
+	}
+
+	public SROBDirectory(final int capacity) {
+		this.size = 0;
+		this.min = new int[capacity];
+		this.max = new int[capacity];
+		this.runMax = new int[capacity];
+		this.vannoFilePointer = new long[capacity];
+	}
+
+	public void add(final long filePointer, final int min, final int max) {
+		if(size == this.min.length) {
+			final int capacity = Math.max(INIT_SIZE, size * 2);
+			this.min = Arrays.copyOf(this.min, capacity);
+			this.max = Arrays.copyOf(this.max, capacity);
+			this.runMax = Arrays.copyOf(this.runMax, capacity);
+			this.vannoFilePointer = Arrays.copyOf(this.vannoFilePointer, capacity);
+		}
+
+		this.vannoFilePointer[size] = filePointer;
+		this.min[size] = min;
+		this.max[size] = max;
+		this.runMax[size] = (size == 0 || max > runMax[size - 1]) ? max : runMax[size - 1];
+		size++;
+	}
+
+	/** return the index of the first SROB whose running max is not less than beg, or size if there is none */
+	public int lowerBound(final int beg) {
+		int lo = 0, hi = size, mid;
+		while (lo < hi) {
+			mid = (lo + hi) >>> 1;
+			if(runMax[mid] < beg) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/** return the index of the first SROB whose min is greater than end, or size if there is none */
+	public int upperBound(final int end) {
+		int lo = 0, hi = size, mid;
+		while (lo < hi) {
+			mid = (lo + hi) >>> 1;
+			if(min[mid] <= end) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	public void write(final MyEndianOutputStream os) throws IOException {
+		os.writeInt(size);
+		for (int i = 0; i < size; i++) {
+			os.writeLong(vannoFilePointer[i]);
+			os.writeInt(min[i]);
+			os.writeInt(max[i]);
+		}
+	}
+
+	public static SROBDirectory read(final InputStream is, final byte[] buf) throws IOException {
+		final int n = GlobalParameter.readInt(is);
+		final SROBDirectory directory = new SROBDirectory(Math.max(n, 1));
+
+		long filePointer;
+		int min;
+		for (int i = 0; i < n; i++) {
+			filePointer = GlobalParameter.readLong(is, buf);
+			min = GlobalParameter.readInt(is);
+			directory.add(filePointer, min, GlobalParameter.readInt(is));
+		}
+		return directory;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getMin(final int i) {
+		return min[i];
+	}
+
+	public int getMax(final int i) {
+		return max[i];
+	}
+
+	public long getVannoFilePointer(final int i) {
+		return vannoFilePointer[i];
+	}
+}
@@ -0,0 +1,110 @@
+package org.mulinlab.varnote.utils.block;
+
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.mulinlab.varnote.constants.GlobalParameter;
+import org.mulinlab.varnote.utils.gz.MyEndianOutputStream;
+
+/**
+ * Min and max of numeric columns for all SROBs of one chromosome, in the same order as the SROB directory.
+ * Values of the current SROB are collected by update and stored by add. Missing values are ignored, a SROB without
+ * any value has min +Infinity and max -Infinity so no numeric filter can match it.
+ */
+public final class SROBStats {
+	private static final int INIT_SIZE = 1024;
+
+	private final int columnCount;
+	private int size;
+	private double[] min;
+	private double[] max;
+	private final double[] curMin;
+	private final double[] curMax;
+
+	public SROBStats(final int columnCount) {
+		this(columnCount, INIT_SIZE);
+	}
+
+	public SROBStats(final int columnCount, final int capacity) {
+		this.columnCount = columnCount;
+		this.size = 0;
+		this.min = new double[capacity * columnCount];
+		this.max = new double[capacity * columnCount];
+		this.curMin = new double[columnCount];
+		this.curMax = new double[columnCount];
+		reset();
+	}
+
+	private void reset() {
+		Arrays.fill(curMin, Double.POSITIVE_INFINITY);
+		Arrays.fill(curMax, Double.NEGATIVE_INFINITY);
+	}
+
+	public void update(final double[] values) {
+		for (int i = 0; i < columnCount; i++) {
+			if(Double.isNaN(values[i])) continue;
+			if(values[i] < curMin[i]) curMin[i] = values[i];
+			if(values[i] > curMax[i]) curMax[i] = values[i];
+		}
+	}
+
+	/** store the values collected by update as the next SROB */
+	public void add() {
+		add(curMin, 0, curMax, 0);
+		reset();
+	}
+
+	/** store the SROB i of another SROBStats as the next SROB */
+	public void add(final SROBStats stats, final int i) {
+		add(stats.min, i * columnCount, stats.max, i * columnCount);
+	}
+
+	private void add(final double[] minArr, final int minPos, final double[] maxArr, final int maxPos) {
+		if((size + 1) * columnCount > min.length) {
+			final int capacity = Math.max(INIT_SIZE, size * 2) * columnCount;
+			min = Arrays.copyOf(min, capacity);
+			max = Arrays.copyOf(max, capacity);
+		}
+		System.arraycopy(minArr, minPos, min, size * columnCount, columnCount);
+		System.arraycopy(maxArr, maxPos, max, size * columnCount, columnCount);
+		size++;
+	}
+
+	public void write(final MyEndianOutputStream os) throws IOException {
+		os.writeInt(size);
+		for (int i = 0; i < size * columnCount; i++) {
+			os.writeLong(Double.doubleToLongBits(min[i]));
+			os.writeLong(Double.doubleToLongBits(max[i]));
+		}
+	}
+
+	public static SROBStats read(final InputStream is, final byte[] buf, final int columnCount) throws IOException {
+		final int n = GlobalParameter.readInt(is);
+		final SROBStats stats = new SROBStats(columnCount, Math.max(n, 1));
+
+		for (int i = 0; i < n * columnCount; i++) {
+			stats.min[i] = Double.longBitsToDouble(GlobalParameter.readLong(is, buf));
+			stats.max[i] = Double.longBitsToDouble(GlobalParameter.readLong(is, buf));
+		}
+		stats.size = n;
+		return stats;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getColumnCount() {
+		return columnCount;
+	}
+
+	public double getMin(final int i, final int column) {
+		return min[i * columnCount + column];
+	}
+
+	public double getMax(final int i, final int column) {
+		return max[i * columnCount + column];
+	}
+}
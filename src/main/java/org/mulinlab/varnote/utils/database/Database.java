@@ -4,6 +4,7 @@ import java.io.File;
 import htsjdk.variant.vcf.VCFCodec;
 import org.mulinlab.varnote.utils.headerparser.HeaderFormatReader;
 import org.mulinlab.varnote.config.anno.databse.VCFParser;
+import org.mulinlab.varnote.config.anno.databse.filter.FilterConfig;
 import org.mulinlab.varnote.config.param.DBParam;
 import org.mulinlab.varnote.operations.decode.LocCodec;
 import org.mulinlab.varnote.operations.decode.VCFLocCodec;
@@ -26,6 +27,9 @@ public abstract class Database {
 	protected DBParam config;
 	protected LocCodec locCodec;
 	protected VCFParser vcfParser;
+	protected FilterConfig filterConfig;
+	protected int[] columnsToRead;
+	protected boolean alleleMatch;
 
 	public Database(final DBParam config) {
 		super();
@@ -42,6 +46,9 @@ public abstract class Database {
 		db.index = this.index;
 		db.dbIndexPath = dbIndexPath;
 		db.format = this.format;
+		db.filterConfig = this.filterConfig;
+		db.columnsToRead = this.columnsToRead;
+		db.alleleMatch = this.alleleMatch;
 
 		if(locCodec != null) db.locCodec = locCodec.clone();
 		return db;
@@ -129,6 +136,32 @@ public abstract class Database {
 		return locCodec;
 	}
 
+	/** return the database filter, or null if the database has no filter */
+	public FilterConfig getFilterConfig() {
+		if(filterConfig == null && config.getFilter() != null) {
+			filterConfig = new FilterConfig(config.getFilter(), getFormat());
+		}
+		return filterConfig;
+	}
+
+	/** return the columns read from the hits, or null if the full lines are needed */
+	public int[] getColumnsToRead() {
+		return columnsToRead;
+	}
+
+	public void setColumnsToRead(final int[] columnsToRead) {
+		this.columnsToRead = columnsToRead;
+	}
+
+	/** return true if only the hits with the same REF and ALT as the query are used */
+	public boolean isAlleleMatch() {
+		return alleleMatch;
+	}
+
+	public void setAlleleMatch(final boolean alleleMatch) {
+		this.alleleMatch = alleleMatch;
+	}
+
 	public void readHeader() {
 		this.format = HeaderFormatReader.readHeader(this.format, getDbPath(), FileType.BGZ);
 	}
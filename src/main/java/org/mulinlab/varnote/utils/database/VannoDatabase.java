@@ -1,6 +1,7 @@
 package org.mulinlab.varnote.utils.database;
 
 import org.mulinlab.varnote.config.param.DBParam;
+import org.mulinlab.varnote.constants.GlobalParameter;
 import org.mulinlab.varnote.exceptions.InvalidArgumentException;
 import org.mulinlab.varnote.utils.VannoUtils;
 import org.mulinlab.varnote.utils.enumset.IndexType;
@@ -44,4 +45,8 @@ public final class VannoDatabase extends Database{
 	public String getVannoFile() {
 		return vannoFile;
 	}
+
+	public String getColumnFile() {
+		return vannoFile + GlobalParameter.COLUMN_FILE_EXT;
+	}
 }
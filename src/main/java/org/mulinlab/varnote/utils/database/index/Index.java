@@ -158,4 +158,9 @@ public abstract class Index {
 	}
 
 	public abstract String[] getColumnNames();
+
+	/** return the number of data blocks of the chromosome estimated from the index, or -1 if it is unknown */
+	public int getBlockCount(final int tid) {
+		return -1;
+	}
 }
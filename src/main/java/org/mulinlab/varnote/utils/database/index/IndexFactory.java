@@ -9,10 +9,17 @@ import htsjdk.samtools.util.BlockCompressedInputStream;
 import org.mulinlab.varnote.constants.GlobalParameter;
 import org.mulinlab.varnote.utils.VannoUtils;
 import org.mulinlab.varnote.utils.enumset.IndexType;
+import org.mulinlab.varnote.utils.gz.MappedFile;
 import htsjdk.samtools.seekablestream.ISeekableStreamFactory;
 import htsjdk.samtools.seekablestream.SeekableStreamFactory;
 import org.mulinlab.varnote.utils.database.index.vannoIndex.VannoIndex;
 import org.mulinlab.varnote.utils.database.index.vannoIndex.VannoIndexV1;
+import org.mulinlab.varnote.utils.database.index.vannoIndex.VannoIndexV2;
+import org.mulinlab.varnote.utils.database.index.vannoIndex.VannoIndexV3;
+import org.mulinlab.varnote.utils.database.index.vannoIndex.VannoIndexV4;
+import org.mulinlab.varnote.utils.database.index.vannoIndex.VannoIndexV5;
+import org.mulinlab.varnote.utils.database.index.vannoIndex.VannoIndexV6;
+import org.mulinlab.varnote.utils.database.index.vannoIndex.VannoIndexV7;
 import org.mulinlab.varnote.exceptions.InvalidArgumentException;
 
 public final class IndexFactory {
@@ -33,7 +40,7 @@ public final class IndexFactory {
 			ISeekableStreamFactory ssf = SeekableStreamFactory.getInstance();
 		    VannoIndex index = null;
 			try {
-				SeekableStream stream = ssf.getBufferedStream(ssf.getStreamFor(path), 128000);
+				SeekableStream stream = MappedFile.isEnabled() ? MappedFile.getStream(path) : ssf.getBufferedStream(ssf.getStreamFor(path), 128000);
 				BlockCompressedInputStream is = new BlockCompressedInputStream(stream);
 				long addr = VannoUtils.getAddress(stream);
 				is.seek(addr);
@@ -41,6 +48,20 @@ public final class IndexFactory {
 		
 				if(version == 1) {
 					index = new VannoIndexV1(is, version);
+				} else if(version == 2) {
+					index = new VannoIndexV2(is, version);
+				} else if(version == 3) {
+					index = new VannoIndexV3(is, version);
+				} else if(version == 4) {
+					index = new VannoIndexV4(is, version);
+				} else if(version == 5) {
+					index = new VannoIndexV5(is, version);
+				} else if(version == 6) {
+					index = new VannoIndexV6(is, version);
+				} else if(version == 7) {
+					index = new VannoIndexV7(is, version);
+				} else {
+					throw new InvalidArgumentException(String.format("Unsupported vanno index version %d for %s, please rebuild the index.", version, path));
 				}
 			} catch (IOException e) {
 				e.printStackTrace();
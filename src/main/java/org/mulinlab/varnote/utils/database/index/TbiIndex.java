@@ -93,6 +93,23 @@ public final class TbiIndex extends Index{
 		}
 	}
 
+	/** the number of distinct BGZF blocks in the linear index of the chromosome */
+	@Override
+	public int getBlockCount(final int tid) {
+		if(tid < 0 || tid >= mIndex.length || mIndex[tid] == null) return -1;
+
+		int count = 0;
+		long pre = -1, address;
+		for (long offset : mIndex[tid].l) {
+			address = offset >>> 16;
+			if(offset > 0 && address != pre) {
+				count++;
+				pre = address;
+			}
+		}
+		return count;
+	}
+
 	public TIndex[] getmIndex() {
 		return mIndex;
 	}
@@ -1,12 +1,16 @@
 package org.mulinlab.varnote.utils.database.index.vannoIndex;
 
 import htsjdk.samtools.util.BlockCompressedInputStream;
+import org.mulinlab.varnote.utils.block.SROBBloom;
+import org.mulinlab.varnote.utils.block.SROBDirectory;
+import org.mulinlab.varnote.utils.block.SROBStats;
 import org.mulinlab.varnote.utils.database.index.Index;
 import org.mulinlab.varnote.utils.database.index.IndexFactory;
 import org.mulinlab.varnote.constants.GlobalParameter;
 import org.mulinlab.varnote.exceptions.InvalidArgumentException;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 public class VannoIndex extends Index{
 	protected String commentIndicator;
@@ -43,6 +47,61 @@ public class VannoIndex extends Index{
 		return headerParts;
 	}
 
+	/** return the SROB directory of the chromosome, or null if the index does not store one (version 1) */
+	public SROBDirectory getDirectory(final int tid) {
+		return null;
+	}
+
+	@Override
+	public int getBlockCount(final int tid) {
+		final SROBDirectory directory = getDirectory(tid);
+		return (directory == null) ? -1 : directory.size();
+	}
+
+	public Map<Integer, SROBDirectory> getDirectories() {
+		return null;
+	}
+
+	public SROBDirectory getLongFeatures(final int tid) {
+		return null;
+	}
+
+	public int getLongFeatureLength() {
+		return 0;
+	}
+
+	/** return the columns with block min and max in the index, or an empty array if there is none */
+	public int[] getStatColumns() {
+		return new int[0];
+	}
+
+	public SROBStats getStats(final int tid) {
+		return null;
+	}
+
+	/** return the columns stored in the column file, or an empty array if there is none */
+	public int[] getAnnoColumns() {
+		return new int[0];
+	}
+
+	public long[] getColumnChunks(final int tid) {
+		return null;
+	}
+
+	/** return true if each feature in the vanno file is followed by its REF and ALT hash */
+	public boolean hasAlleleHash() {
+		return false;
+	}
+
+	/** return true if the index keeps a bloom filter of the positions and alleles of every SROB */
+	public boolean hasAlleleBloom() {
+		return false;
+	}
+
+	public SROBBloom getAlleleBloom(final int tid) {
+		return null;
+	}
+
 	public int getVersion() {
 		return version;
 	}
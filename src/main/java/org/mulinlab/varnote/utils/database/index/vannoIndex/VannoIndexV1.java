@@ -10,7 +10,7 @@ import org.mulinlab.varnote.constants.GlobalParameter;
 import org.mulinlab.varnote.utils.database.index.IndexFactory;
 import org.mulinlab.varnote.utils.format.Format;
 
-public final class VannoIndexV1 extends VannoIndex{
+public class VannoIndexV1 extends VannoIndex{
 	
 	public VannoIndexV1(final BlockCompressedInputStream is, final int version) {
 		super(is, version);
@@ -0,0 +1,43 @@
+package org.mulinlab.varnote.utils.database.index.vannoIndex;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import htsjdk.samtools.util.BlockCompressedInputStream;
+import org.mulinlab.varnote.constants.GlobalParameter;
+import org.mulinlab.varnote.utils.block.SROBDirectory;
+
+/**
+ * Version 2 keeps the version 1 layout and appends the SROB directory of every chromosome,
+ * so readers can locate blocks by binary search instead of walking the SROB list.
+ */
+public class VannoIndexV2 extends VannoIndexV1 {
+
+	private Map<Integer, SROBDirectory> directories;
+
+	public VannoIndexV2(final BlockCompressedInputStream is, final int version) {
+		super(is, version);
+	}
+
+	@Override
+	public void readIndex() throws IOException {
+		super.readIndex();
+
+		directories = new HashMap<Integer, SROBDirectory>();
+		int chrSize = GlobalParameter.readInt(is);
+		for (int j = 0; j < chrSize; j++) {
+			directories.put(GlobalParameter.readInt(is), SROBDirectory.read(is, buf));
+		}
+	}
+
+	@Override
+	public SROBDirectory getDirectory(final int tid) {
+		return directories.get(tid);
+	}
+
+	@Override
+	public Map<Integer, SROBDirectory> getDirectories() {
+		return directories;
+	}
+}
@@ -0,0 +1,46 @@
+package org.mulinlab.varnote.utils.database.index.vannoIndex;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import htsjdk.samtools.util.BlockCompressedInputStream;
+import org.mulinlab.varnote.constants.GlobalParameter;
+import org.mulinlab.varnote.utils.block.SROBDirectory;
+
+/**
+ * Version 3 appends the long feature list of every chromosome after the SROB directories.
+ * Features longer than the long feature length are left out of the max of the directory,
+ * so a single Mb-scale feature no longer forces readers to scan every block it covers.
+ */
+public class VannoIndexV3 extends VannoIndexV2 {
+
+	private int longFeatureLength;
+	private Map<Integer, SROBDirectory> longFeatures;
+
+	public VannoIndexV3(final BlockCompressedInputStream is, final int version) {
+		super(is, version);
+	}
+
+	@Override
+	public void readIndex() throws IOException {
+		super.readIndex();
+
+		longFeatureLength = GlobalParameter.readInt(is);
+		longFeatures = new HashMap<Integer, SROBDirectory>();
+		int chrSize = GlobalParameter.readInt(is);
+		for (int j = 0; j < chrSize; j++) {
+			longFeatures.put(GlobalParameter.readInt(is), SROBDirectory.read(is, buf));
+		}
+	}
+
+	@Override
+	public SROBDirectory getLongFeatures(final int tid) {
+		return longFeatures.get(tid);
+	}
+
+	@Override
+	public int getLongFeatureLength() {
+		return longFeatureLength;
+	}
+}
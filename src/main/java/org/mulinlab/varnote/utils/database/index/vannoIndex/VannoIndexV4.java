@@ -0,0 +1,49 @@
+package org.mulinlab.varnote.utils.database.index.vannoIndex;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import htsjdk.samtools.util.BlockCompressedInputStream;
+import org.mulinlab.varnote.constants.GlobalParameter;
+import org.mulinlab.varnote.utils.block.SROBStats;
+
+/**
+ * Version 4 appends the stat columns and the min and max of these columns for every SROB,
+ * so readers can skip blocks which can't pass a database filter.
+ */
+public class VannoIndexV4 extends VannoIndexV3 {
+
+	private int[] statColumns;
+	private Map<Integer, SROBStats> stats;
+
+	public VannoIndexV4(final BlockCompressedInputStream is, final int version) {
+		super(is, version);
+	}
+
+	@Override
+	public void readIndex() throws IOException {
+		super.readIndex();
+
+		statColumns = new int[GlobalParameter.readInt(is)];
+		for (int i = 0; i < statColumns.length; i++) {
+			statColumns[i] = GlobalParameter.readInt(is);
+		}
+
+		stats = new HashMap<Integer, SROBStats>();
+		int chrSize = GlobalParameter.readInt(is);
+		for (int j = 0; j < chrSize; j++) {
+			stats.put(GlobalParameter.readInt(is), SROBStats.read(is, buf, statColumns.length));
+		}
+	}
+
+	@Override
+	public int[] getStatColumns() {
+		return statColumns;
+	}
+
+	@Override
+	public SROBStats getStats(final int tid) {
+		return stats.get(tid);
+	}
+}
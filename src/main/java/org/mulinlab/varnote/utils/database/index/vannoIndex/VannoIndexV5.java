@@ -0,0 +1,54 @@
+package org.mulinlab.varnote.utils.database.index.vannoIndex;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import htsjdk.samtools.util.BlockCompressedInputStream;
+import org.mulinlab.varnote.constants.GlobalParameter;
+
+/**
+ * Version 5 appends the columns stored in the column file and the file pointer of the column chunk of every SROB,
+ * so annotation can read these columns without parsing the database lines.
+ */
+public class VannoIndexV5 extends VannoIndexV4 {
+
+	private int[] annoColumns;
+	private Map<Integer, long[]> columnChunks;
+
+	public VannoIndexV5(final BlockCompressedInputStream is, final int version) {
+		super(is, version);
+	}
+
+	@Override
+	public void readIndex() throws IOException {
+		super.readIndex();
+
+		annoColumns = new int[GlobalParameter.readInt(is)];
+		for (int i = 0; i < annoColumns.length; i++) {
+			annoColumns[i] = GlobalParameter.readInt(is);
+		}
+
+		columnChunks = new HashMap<Integer, long[]>();
+		int chrSize = GlobalParameter.readInt(is);
+		long[] filePointers;
+		for (int j = 0; j < chrSize; j++) {
+			final int tid = GlobalParameter.readInt(is);
+			filePointers = new long[GlobalParameter.readInt(is)];
+			for (int i = 0; i < filePointers.length; i++) {
+				filePointers[i] = GlobalParameter.readLong(is, buf);
+			}
+			columnChunks.put(tid, filePointers);
+		}
+	}
+
+	@Override
+	public int[] getAnnoColumns() {
+		return annoColumns;
+	}
+
+	@Override
+	public long[] getColumnChunks(final int tid) {
+		return columnChunks.get(tid);
+	}
+}
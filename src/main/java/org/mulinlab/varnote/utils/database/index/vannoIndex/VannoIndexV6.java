@@ -0,0 +1,29 @@
+package org.mulinlab.varnote.utils.database.index.vannoIndex;
+
+import java.io.IOException;
+
+import htsjdk.samtools.util.BlockCompressedInputStream;
+import org.mulinlab.varnote.constants.GlobalParameter;
+
+/**
+ * Version 6 appends a flag which tells whether each feature in the vanno file is followed by its REF and ALT hash.
+ */
+public class VannoIndexV6 extends VannoIndexV5 {
+
+	private boolean alleleHash;
+
+	public VannoIndexV6(final BlockCompressedInputStream is, final int version) {
+		super(is, version);
+	}
+
+	@Override
+	public void readIndex() throws IOException {
+		super.readIndex();
+		alleleHash = GlobalParameter.readInt(is) == 1;
+	}
+
+	@Override
+	public boolean hasAlleleHash() {
+		return alleleHash;
+	}
+}
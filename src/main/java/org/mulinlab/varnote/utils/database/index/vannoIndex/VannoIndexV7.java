@@ -0,0 +1,46 @@
+package org.mulinlab.varnote.utils.database.index.vannoIndex;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import htsjdk.samtools.util.BlockCompressedInputStream;
+import org.mulinlab.varnote.constants.GlobalParameter;
+import org.mulinlab.varnote.utils.block.SROBBloom;
+
+/**
+ * Version 7 appends a bloom filter of the positions and alleles of every SROB, so annotation in exact mode can skip
+ * SROBs without the query variant.
+ */
+public class VannoIndexV7 extends VannoIndexV6 {
+
+	private Map<Integer, SROBBloom> blooms;
+
+	public VannoIndexV7(final BlockCompressedInputStream is, final int version) {
+		super(is, version);
+	}
+
+	@Override
+	public void readIndex() throws IOException {
+		super.readIndex();
+
+		if(GlobalParameter.readInt(is) == 1) {
+			blooms = new HashMap<Integer, SROBBloom>();
+			int chrSize = GlobalParameter.readInt(is);
+			for (int j = 0; j < chrSize; j++) {
+				final int tid = GlobalParameter.readInt(is);
+				blooms.put(tid, SROBBloom.read(is, buf));
+			}
+		}
+	}
+
+	@Override
+	public boolean hasAlleleBloom() {
+		return blooms != null;
+	}
+
+	@Override
+	public SROBBloom getAlleleBloom(final int tid) {
+		return (blooms == null) ? null : blooms.get(tid);
+	}
+}
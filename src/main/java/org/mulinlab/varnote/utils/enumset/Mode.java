@@ -3,7 +3,8 @@ package org.mulinlab.varnote.utils.enumset;
 public enum Mode {
     TABIX(0),
     MIX(1),
-    SWEEP(2);
+    SWEEP(2),
+    AUTO(3);
 
     private final int num;
     Mode(final int num) {
@@ -0,0 +1,139 @@
+package org.mulinlab.varnote.utils.gz;
+
+
+import org.mulinlab.varnote.constants.GlobalParameter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process wide cache of inflated BGZF blocks keyed by (file, block address), shared by all database readers and threads.
+ * The cache is bounded by the total size of inflated data and evicts blocks with the CLOCK (second chance) policy:
+ * a block read since it was last checked is kept for one more round.
+ */
+public final class BlockCache {
+	private static final BlockCache INSTANCE = new BlockCache(GlobalParameter.DEFAULT_BLOCK_CACHE_SIZE * 1024L * 1024L);
+
+	private final ConcurrentHashMap<Key, Block> blocks;
+	private final ConcurrentLinkedQueue<Key> clock;
+	private final AtomicLong size;
+	private volatile long maxSize;
+
+	public BlockCache(final long maxSize) {
+		this.blocks = new ConcurrentHashMap<Key, Block>();
+		this.clock = new ConcurrentLinkedQueue<Key>();
+		this.size = new AtomicLong(0);
+		this.maxSize = maxSize;
+	}
+
+	public static BlockCache getInstance() {
+		return INSTANCE;
+	}
+
+	/** set the max size in bytes of inflated blocks, 0 disables the cache */
+	public void setMaxSize(final long maxSize) {
+		this.maxSize = maxSize;
+		evict();
+	}
+
+	public long getMaxSize() {
+		return maxSize;
+	}
+
+	public long size() {
+		return size.get();
+	}
+
+	public Block get(final String path, final long blockAddress) {
+		final Block block = blocks.get(new Key(path, blockAddress));
+		if(block != null) block.referenced = true;
+		return block;
+	}
+
+	/** add a block to the cache, return the block already in the cache if another reader added it first */
+	public Block put(final String path, final long blockAddress, final Block block) {
+		if(maxSize <= 0) return block;
+
+		final Key key = new Key(path, blockAddress);
+		final Block old = blocks.putIfAbsent(key, block);
+		if(old != null) {
+			old.referenced = true;
+			return old;
+		}
+
+		clock.offer(key);
+		size.addAndGet(block.data.length);
+		evict();
+		return block;
+	}
+
+	public void clear() {
+		blocks.clear();
+		clock.clear();
+		size.set(0);
+	}
+
+	private void evict() {
+		Key key;
+		Block block;
+		while(size.get() > maxSize && (key = clock.poll()) != null) {
+			block = blocks.get(key);
+			if(block == null) continue;
+
+			if(block.referenced) {
+				block.referenced = false;
+				clock.offer(key);
+			} else if(blocks.remove(key, block)) {
+				size.addAndGet(-block.data.length);
+			}
+		}
+	}
+
+	public static final class Block {
+		private final byte[] data;
+		private final long nextBlockAddress;
+		private volatile boolean referenced;
+
+		public Block(final byte[] data, final long nextBlockAddress) {
+			this.data = data;
+			this.nextBlockAddress = nextBlockAddress;
+			this.referenced = false;
+		}
+
+		public byte[] getData() {
+			return data;
+		}
+
+		public int length() {
+			return data.length;
+		}
+
+		public long getNextBlockAddress() {
+			return nextBlockAddress;
+		}
+	}
+
+	private static final class Key {
+		private final String path;
+		private final long blockAddress;
+
+		public Key(final String path, final long blockAddress) {
+			this.path = path;
+			this.blockAddress = blockAddress;
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+			if(this == o) return true;
+			if(!(o instanceof Key)) return false;
+			final Key key = (Key) o;
+			return blockAddress == key.blockAddress && path.equals(key.path);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * path.hashCode() + (int) (blockAddress ^ (blockAddress >>> 32));
+		}
+	}
+}
@@ -0,0 +1,349 @@
+package org.mulinlab.varnote.utils.gz;
+
+
+import htsjdk.samtools.seekablestream.SeekableStream;
+import htsjdk.samtools.util.BlockCompressedStreamConstants;
+import htsjdk.samtools.util.BlockGunzipper;
+import org.mulinlab.varnote.utils.VannoUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Seek and read lines of a BGZF file like BlockCompressedInputStream, inflated blocks are taken from and added to the
+ * shared BlockCache, so a block read by one reader is not inflated again by other readers of the same file.
+ * A reader is not thread safe, each thread should use its own reader.
+ *
+ * With read ahead, the compressed blocks after the current one are read by the reader and inflated by a shared pool
+ * of threads, so a sequential scan doesn't wait for inflating each block. Blocks already in the cache are taken from the
+ * cache without reading or inflating them. A seek to a block out of the pipeline drops it.
+ */
+public final class BlockCacheReader {
+	private final String path;
+	private final SeekableStream stream;
+	private final BlockCache cache;
+	private final BlockInflater inflater;
+	private final byte[] compressedBlock = new byte[BlockCompressedStreamConstants.MAX_COMPRESSED_BLOCK_SIZE];
+
+	private BlockCache.Block block;
+	private long blockAddress;
+	private int offset;
+
+	private byte[] lineBuffer = new byte[1024];
+	private int lineLength;
+
+	private static ExecutorService inflatePool;
+	private static final ThreadLocal<BlockInflater> poolInflater = new ThreadLocal<BlockInflater>() {
+		@Override
+		protected BlockInflater initialValue() {
+			return new BlockInflater();
+		}
+	};
+	private int readAhead = 0;
+	private final ArrayDeque<Long> aheadAddress = new ArrayDeque<Long>();
+	private final ArrayDeque<Future<BlockCache.Block>> aheadBlock = new ArrayDeque<Future<BlockCache.Block>>();
+	private long nextAheadAddress = -1;
+
+	private long blockCount = 0;
+	private long jumpCount = 0;
+
+	public BlockCacheReader(final String path) throws IOException {
+		this(path, BlockCache.getInstance());
+	}
+
+	public BlockCacheReader(final String path, final BlockCache cache) throws IOException {
+		this.path = path;
+		this.cache = cache;
+		this.stream = MappedFile.getStream(path);
+		this.inflater = new BlockInflater();
+		this.block = null;
+		this.blockAddress = 0;
+		this.offset = 0;
+	}
+
+	/** set the number of blocks to inflate ahead of the current block, 0 disables read ahead */
+	public void setReadAhead(final int readAhead) {
+		this.readAhead = Math.max(readAhead, 0);
+		if(this.readAhead > 0) {
+			initInflatePool();
+		} else {
+			clearReadAhead();
+		}
+	}
+
+	private static synchronized void initInflatePool() {
+		if(inflatePool == null) {
+			inflatePool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+				@Override
+				public Thread newThread(final Runnable r) {
+					final Thread thread = new Thread(r, "block-inflater");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+	}
+
+	public void seek(final long filePointer) throws IOException {
+		final long address = BlockCompressedFilePointerUtil.getBlockAddress(filePointer);
+		final int blockOffset = BlockCompressedFilePointerUtil.getBlockOffset(filePointer);
+
+		if(block == null || address != blockAddress) {
+			if(block != null && address != block.getNextBlockAddress()) jumpCount++;
+			block = getBlock(address);
+			blockAddress = address;
+		}
+		if((block == null && blockOffset > 0) || (block != null && blockOffset > block.length())) {
+			throw new IOException(String.format("Invalid file pointer: %s", BlockCompressedFilePointerUtil.asString(filePointer)));
+		}
+		offset = blockOffset;
+	}
+
+	public long getFilePointer() {
+		if(block != null && offset == block.length()) {
+			return BlockCompressedFilePointerUtil.makeFilePointer(block.getNextBlockAddress(), 0);
+		}
+		return BlockCompressedFilePointerUtil.makeFilePointer(blockAddress, offset);
+	}
+
+	/**
+	 * Read a line terminated by \n, \r or \r\n, return null at the end of the file.
+	 */
+	public String readLine() throws IOException {
+		if(readLineBytes() < 0) return null;
+		return new String(lineBuffer, 0, lineLength, StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * Read a line into the line buffer without creating a String, return the length of the line or -1 at the end of the file.
+	 * The line is in getLineBuffer() until the next line is read.
+	 */
+	public int readLineBytes() throws IOException {
+		lineLength = 0;
+		boolean eol = false, hasData = false;
+		byte[] data;
+		int i, end;
+
+		while(!eol && available()) {
+			hasData = true;
+			data = block.getData();
+			end = block.length();
+			for (i = offset; i < end; i++) {
+				if(data[i] == '\n' || data[i] == '\r') {
+					eol = true;
+					break;
+				}
+			}
+			append(data, offset, i - offset);
+
+			if(eol) {
+				offset = i + 1;
+				if(data[i] == '\r' && available() && block.getData()[offset] == '\n') offset++;
+			} else {
+				offset = i;
+			}
+		}
+
+		if(!hasData) return -1;
+		return lineLength;
+	}
+
+	public byte[] getLineBuffer() {
+		return lineBuffer;
+	}
+
+	public int getLineLength() {
+		return lineLength;
+	}
+
+	/** return the number of blocks the reader has moved to */
+	public long getBlockCount() {
+		return blockCount;
+	}
+
+	/** return the number of seeks which jumped over blocks */
+	public long getJumpCount() {
+		return jumpCount;
+	}
+
+	public void close() throws IOException {
+		block = null;
+		clearReadAhead();
+		stream.close();
+	}
+
+	private void append(final byte[] data, final int from, final int length) {
+		if(lineLength + length > lineBuffer.length) {
+			lineBuffer = Arrays.copyOf(lineBuffer, Math.max(lineBuffer.length * 2, lineLength + length));
+		}
+		System.arraycopy(data, from, lineBuffer, lineLength, length);
+		lineLength += length;
+	}
+
+	/** move to the next block with data if the current block is used up, return false at the end of the file */
+	private boolean available() throws IOException {
+		while(block != null && offset >= block.length()) {
+			blockAddress = block.getNextBlockAddress();
+			block = getBlock(blockAddress);
+			offset = 0;
+		}
+		return block != null;
+	}
+
+	private BlockCache.Block getBlock(final long address) throws IOException {
+		blockCount++;
+		if(readAhead > 0) {
+			final BlockCache.Block ahead = getAheadBlock(address);
+			return (ahead == null) ? null : cache.put(path, address, ahead);
+		}
+
+		BlockCache.Block cached = cache.get(path, address);
+		if(cached == null) {
+			cached = readBlock(address);
+			if(cached != null) cached = cache.put(path, address, cached);
+		}
+		return cached;
+	}
+
+	/**
+	 * return the block at address from the read ahead pipeline, blocks before address are dropped if address is in the pipeline,
+	 * otherwise the pipeline restarts at address.
+	 */
+	private BlockCache.Block getAheadBlock(final long address) throws IOException {
+		if(aheadAddress.contains(address)) {
+			while(aheadAddress.peek() != address) {
+				aheadAddress.poll();
+				aheadBlock.poll().cancel(false);
+			}
+		} else {
+			clearReadAhead();
+			nextAheadAddress = address;
+		}
+
+		int blockLength;
+		BlockCache.Block cached;
+		while(aheadBlock.size() < readAhead && nextAheadAddress >= 0) {
+			cached = cache.get(path, nextAheadAddress);
+			if(cached != null) {
+				aheadAddress.add(nextAheadAddress);
+				aheadBlock.add(CompletableFuture.completedFuture(cached));
+				nextAheadAddress = cached.getNextBlockAddress();
+				continue;
+			}
+
+			blockLength = readCompressedBlock(nextAheadAddress);
+			if(blockLength == 0) {
+				nextAheadAddress = -1;
+				break;
+			}
+			aheadAddress.add(nextAheadAddress);
+			aheadBlock.add(inflatePool.submit(new InflateTask(Arrays.copyOf(compressedBlock, blockLength), nextAheadAddress)));
+			nextAheadAddress += blockLength;
+		}
+		if(aheadBlock.isEmpty()) return null;
+
+		aheadAddress.poll();
+		try {
+			return aheadBlock.poll().get();
+		} catch (InterruptedException e) {
+			throw new IOException(e);
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause());
+		}
+	}
+
+	private void clearReadAhead() {
+		for (Future<BlockCache.Block> future : aheadBlock) {
+			future.cancel(false);
+		}
+		aheadBlock.clear();
+		aheadAddress.clear();
+		nextAheadAddress = -1;
+	}
+
+	private BlockCache.Block readBlock(final long address) throws IOException {
+		final int blockLength = readCompressedBlock(address);
+		if(blockLength == 0) return null;
+		return inflater.inflate(compressedBlock, blockLength, address);
+	}
+
+	/** read the compressed block at address into compressedBlock, return the length of the block or 0 at the end of the file */
+	private int readCompressedBlock(final long address) throws IOException {
+		stream.seek(address);
+		final int headerLength = VannoUtils.readBytes(stream, compressedBlock, 0, BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH);
+		if(headerLength == 0) return 0;
+		if(headerLength != BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH) {
+			throw new IOException(String.format("Premature end of file %s at block %d", path, address));
+		}
+
+		final int blockLength = ((compressedBlock[BlockCompressedStreamConstants.BLOCK_LENGTH_OFFSET] & 0xff) |
+				((compressedBlock[BlockCompressedStreamConstants.BLOCK_LENGTH_OFFSET + 1] & 0xff) << 8)) + 1;
+		final int remaining = blockLength - BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH;
+		if(VannoUtils.readBytes(stream, compressedBlock, BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH, remaining) != remaining) {
+			throw new IOException(String.format("Premature end of file %s at block %d", path, address));
+		}
+		return blockLength;
+	}
+
+	private static int readInt(final byte[] b, final int off) {
+		return (b[off] & 0xff) | ((b[off + 1] & 0xff) << 8) | ((b[off + 2] & 0xff) << 16) | ((b[off + 3] & 0xff) << 24);
+	}
+
+	/** inflate the deflated data of a block and check it against the CRC32 and ISIZE of the block footer */
+	private static final class BlockInflater {
+		private final Inflater inflater = BlockGunzipper.getDefaultInflaterFactory().makeInflater(true);
+		private final CRC32 crc32 = new CRC32();
+
+		public BlockCache.Block inflate(final byte[] compressed, final int blockLength, final long address) throws IOException {
+			final int deflatedLength = blockLength - BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH - BlockCompressedStreamConstants.BLOCK_FOOTER_LENGTH;
+			if(deflatedLength < 0) throw new IOException(String.format("Invalid block length %d at block %d", blockLength, address));
+
+			final int uncompressedLength = readInt(compressed, blockLength - 4);
+			final byte[] data = new byte[uncompressedLength];
+			try {
+				inflater.reset();
+				inflater.setInput(compressed, BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH, deflatedLength);
+				final int inflated = inflater.inflate(data, 0, uncompressedLength);
+				if(inflated != uncompressedLength || (uncompressedLength > 0 && !inflater.finished())) {
+					throw new IOException(String.format("Inflated %d bytes, expected %d bytes at block %d", inflated, uncompressedLength, address));
+				}
+			} catch (DataFormatException e) {
+				throw new IOException(String.format("Invalid deflated data at block %d", address), e);
+			}
+
+			crc32.reset();
+			crc32.update(data, 0, uncompressedLength);
+			if((int)crc32.getValue() != readInt(compressed, blockLength - 8)) {
+				throw new IOException(String.format("CRC mismatch at block %d", address));
+			}
+			return new BlockCache.Block(data, address + blockLength);
+		}
+	}
+
+	private static final class InflateTask implements Callable<BlockCache.Block> {
+		private final byte[] compressed;
+		private final long address;
+
+		public InflateTask(final byte[] compressed, final long address) {
+			this.compressed = compressed;
+			this.address = address;
+		}
+
+		@Override
+		public BlockCache.Block call() throws IOException {
+			return poolInflater.get().inflate(compressed, compressed.length, address);
+		}
+	}
+}
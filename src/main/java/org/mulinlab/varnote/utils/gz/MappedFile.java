@@ -0,0 +1,111 @@
+package org.mulinlab.varnote.utils.gz;
+
+
+import htsjdk.samtools.seekablestream.SeekableStream;
+import htsjdk.samtools.seekablestream.SeekableStreamFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A local file mapped into memory once per process and shared by all readers and threads. The file is mapped in
+ * chunks of at most 1GB as a MappedByteBuffer can't be larger than 2GB, a reader reads the file through its own
+ * MappedSeekableStream, which keeps the position and duplicates of the chunks, so no lock or file handle is needed per reader.
+ */
+public final class MappedFile {
+	private static final int CHUNK_SHIFT = 30;
+	private static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+	private static final ConcurrentHashMap<String, MappedFile> FILES = new ConcurrentHashMap<String, MappedFile>();
+	private static volatile boolean enabled = false;
+
+	private final String path;
+	private final long length;
+	private final MappedByteBuffer[] chunks;
+
+	private MappedFile(final String path) throws IOException {
+		this.path = path;
+		final RandomAccessFile file = new RandomAccessFile(path, "r");
+		try {
+			final FileChannel channel = file.getChannel();
+			this.length = channel.size();
+			this.chunks = new MappedByteBuffer[(int) ((length + CHUNK_SIZE - 1) >>> CHUNK_SHIFT)];
+			for (int i = 0; i < chunks.length; i++) {
+				chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, i * CHUNK_SIZE, Math.min(CHUNK_SIZE, length - i * CHUNK_SIZE));
+			}
+		} finally {
+			file.close();
+		}
+	}
+
+	/** set whether database files are read by memory mapping */
+	public static void setEnabled(final boolean enabled) {
+		MappedFile.enabled = enabled;
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/** return the mapped file of path, the file is mapped by the first caller */
+	public static MappedFile getInstance(final String path) throws IOException {
+		final String key = new File(path).getCanonicalPath();
+		MappedFile file = FILES.get(key);
+		if(file == null) {
+			synchronized (FILES) {
+				file = FILES.get(key);
+				if(file == null) {
+					file = new MappedFile(key);
+					FILES.put(key, file);
+				}
+			}
+		}
+		return file;
+	}
+
+	/**
+	 * return a stream to read path, which is a view of the mapped file when memory mapping is enabled and path is a local file,
+	 * otherwise a buffered stream of the file.
+	 */
+	public static SeekableStream getStream(final String path) throws IOException {
+		if(enabled && new File(path).isFile()) {
+			return new MappedSeekableStream(getInstance(path));
+		} else {
+			return SeekableStreamFactory.getInstance().getBufferedStream(SeekableStreamFactory.getInstance().getStreamFor(path));
+		}
+	}
+
+	/** remove all the files from the registry, a mapping is released by the garbage collector once no stream uses it */
+	public static void clear() {
+		FILES.clear();
+	}
+
+	public String getPath() {
+		return path;
+	}
+
+	public long length() {
+		return length;
+	}
+
+	int chunkCount() {
+		return chunks.length;
+	}
+
+	/** return a duplicate of chunk i with its own position, the content is shared with the mapped file */
+	ByteBuffer duplicateChunk(final int i) {
+		return chunks[i].duplicate();
+	}
+
+	static int chunkIndex(final long position) {
+		return (int) (position >>> CHUNK_SHIFT);
+	}
+
+	static int chunkOffset(final long position) {
+		return (int) (position & (CHUNK_SIZE - 1));
+	}
+}
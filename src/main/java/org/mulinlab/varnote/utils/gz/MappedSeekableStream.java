@@ -0,0 +1,95 @@
+package org.mulinlab.varnote.utils.gz;
+
+
+import htsjdk.samtools.seekablestream.SeekableStream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A positional view of a MappedFile. Reads copy bytes straight from the mapped memory, so there is no system call and
+ * no read buffer. A stream is not thread safe, each thread should use its own stream of the shared MappedFile.
+ */
+public final class MappedSeekableStream extends SeekableStream {
+	private final MappedFile file;
+	private final ByteBuffer[] chunks;
+	private long position;
+
+	public MappedSeekableStream(final MappedFile file) {
+		this.file = file;
+		this.chunks = new ByteBuffer[file.chunkCount()];
+		this.position = 0;
+	}
+
+	@Override
+	public long length() {
+		return file.length();
+	}
+
+	@Override
+	public long position() {
+		return position;
+	}
+
+	@Override
+	public void seek(final long position) throws IOException {
+		if(position < 0) throw new IOException(String.format("Invalid position %d of %s", position, file.getPath()));
+		this.position = position;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if(position >= file.length()) return -1;
+		final int b = chunk(MappedFile.chunkIndex(position)).get(MappedFile.chunkOffset(position)) & 0xff;
+		position++;
+		return b;
+	}
+
+	@Override
+	public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+		if(length == 0) return 0;
+		if(position >= file.length()) return -1;
+
+		final int n = (int) Math.min(length, file.length() - position);
+		int count = 0, size;
+		ByteBuffer chunk;
+		while(count < n) {
+			chunk = chunk(MappedFile.chunkIndex(position));
+			chunk.position(MappedFile.chunkOffset(position));
+			size = Math.min(n - count, chunk.remaining());
+			chunk.get(buffer, offset + count, size);
+			count += size;
+			position += size;
+		}
+		return n;
+	}
+
+	@Override
+	public long skip(final long n) throws IOException {
+		final long skipped = Math.max(0, Math.min(n, file.length() - position));
+		position += skipped;
+		return skipped;
+	}
+
+	@Override
+	public boolean eof() throws IOException {
+		return position >= file.length();
+	}
+
+	@Override
+	public String getSource() {
+		return file.getPath();
+	}
+
+	@Override
+	public void close() throws IOException {
+		for (int i = 0; i < chunks.length; i++) {
+			chunks[i] = null;
+		}
+	}
+
+	private ByteBuffer chunk(final int i) {
+		if(chunks[i] == null) chunks[i] = file.duplicateChunk(i);
+		return chunks[i];
+	}
+}
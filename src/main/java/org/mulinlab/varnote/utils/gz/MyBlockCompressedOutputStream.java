@@ -5,12 +5,20 @@ import htsjdk.samtools.util.BlockCompressedInputStream;
 import htsjdk.samtools.util.BlockCompressedStreamConstants;
 import htsjdk.samtools.util.LocationAware;
 import htsjdk.samtools.util.Log;
+import htsjdk.samtools.util.RuntimeIOException;
 import htsjdk.samtools.util.zip.DeflaterFactory;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.CRC32;
 import java.util.zip.Deflater;
 
@@ -28,6 +36,11 @@ import java.util.zip.Deflater;
  * when done writing in order to force the last gzip block to be written.
  *
  * c.f. http://samtools.sourceforge.net/SAM1.pdf for details of BGZF file format.
+ *
+ * When created with more than one thread, filled blocks are deflated by a pool of threads and written in order by
+ * the calling thread. The address of a block is only known when all the blocks before it are written, so getFilePointer()
+ * waits for the blocks in flight. Callers which need many file pointers should use getPendingFilePointer(), which
+ * doesn't wait, and turn it into the virtual file pointer by resolveFilePointer() once the block is written.
  */
 public class MyBlockCompressedOutputStream
         extends OutputStream
@@ -72,7 +85,7 @@ public class MyBlockCompressedOutputStream
     }
 
     private final BinaryCodec codec;
-    private final byte[] uncompressedBuffer = new byte[BlockCompressedStreamConstants.DEFAULT_UNCOMPRESSED_BLOCK_SIZE];
+    private byte[] uncompressedBuffer = new byte[BlockCompressedStreamConstants.DEFAULT_UNCOMPRESSED_BLOCK_SIZE];
     private int numUncompressedBytes = 0;
     private final byte[] compressedBuffer =
             new byte[BlockCompressedStreamConstants.MAX_COMPRESSED_BLOCK_SIZE -
@@ -100,6 +113,15 @@ public class MyBlockCompressedOutputStream
     // Really a local variable, but allocate once to reduce GC burden.
     private final byte[] singleByteArray = new byte[1];
 
+    private ExecutorService deflatePool = null;
+    private ThreadLocal<Deflater[]> poolDeflaters;
+    private final ArrayDeque<Future<DeflatedBlock>> pending = new ArrayDeque<Future<DeflatedBlock>>();
+    private final ArrayDeque<byte[]> freeBuffers = new ArrayDeque<byte[]>();
+    private int maxPending = 0;
+    private long[] blockAddresses = new long[1024];
+    private int blockCount = 0;
+    private int writtenBlockCount = 0;
+
     /**
      * Uses default compression level, which is 5 unless changed by setCompressionLevel
      * Note: this constructor uses the default {@link DeflaterFactory}, see {@link #getDefaultDeflaterFactory()}.
@@ -143,10 +165,32 @@ public class MyBlockCompressedOutputStream
      * @param deflaterFactory custom factory to create deflaters (overrides the default)
      */
     public MyBlockCompressedOutputStream(final File file, final int compressionLevel, final DeflaterFactory deflaterFactory) {
+        this(file, compressionLevel, deflaterFactory, 1);
+    }
+
+    /**
+     * Prepare to compress at the given compression level
+     * @param compressionLevel 1 <= compressionLevel <= 9
+     * @param deflaterFactory custom factory to create deflaters (overrides the default)
+     * @param threads number of threads to deflate blocks, 1 deflates blocks in the calling thread
+     */
+    public MyBlockCompressedOutputStream(final File file, final int compressionLevel, final DeflaterFactory deflaterFactory, final int threads) {
         this.file = file;
         codec = new BinaryCodec(file, true);
         deflater = deflaterFactory.makeDeflater(compressionLevel, true);
 //        log.debug("Using deflater: " + deflater.getClass().getSimpleName());
+        if (threads > 1) initDeflatePool(compressionLevel, deflaterFactory, threads);
+    }
+
+    private void initDeflatePool(final int compressionLevel, final DeflaterFactory deflaterFactory, final int threads) {
+        deflatePool = Executors.newFixedThreadPool(threads);
+        maxPending = threads * 2;
+        poolDeflaters = new ThreadLocal<Deflater[]>() {
+            @Override
+            protected Deflater[] initialValue() {
+                return new Deflater[]{deflaterFactory.makeDeflater(compressionLevel, true), new Deflater(Deflater.NO_COMPRESSION, true)};
+            }
+        };
     }
 
     /**
@@ -246,6 +290,7 @@ public class MyBlockCompressedOutputStream
         while (numUncompressedBytes > 0) {
             deflateBlock();
         }
+        writePending(0);
         codec.getOutputStream().flush();
     }
 
@@ -264,6 +309,7 @@ public class MyBlockCompressedOutputStream
         // }
         codec.writeBytes(BlockCompressedStreamConstants.EMPTY_GZIP_BLOCK);
         codec.close();
+        if (deflatePool != null) deflatePool.shutdown();
         // Can't re-open something that is not a regular file, e.g. a named pipe or an output stream
         if (this.file == null || !this.file.isFile() || !Files.isRegularFile(this.file.toPath())) return;
         if (BlockCompressedInputStream.checkTermination(this.file) !=
@@ -283,6 +329,7 @@ public class MyBlockCompressedOutputStream
         codec.writeLong(address);
         codec.writeBytes(BlockCompressedStreamConstants.EMPTY_GZIP_BLOCK);
         codec.close();
+        if (deflatePool != null) deflatePool.shutdown();
         // Can't re-open something that is not a regular file, e.g. a named pipe or an output stream
         if (this.file == null || !this.file.isFile() || !Files.isRegularFile(this.file.toPath())) return;
         if (BlockCompressedInputStream.checkTermination(this.file) !=
@@ -309,9 +356,39 @@ public class MyBlockCompressedOutputStream
      * Lower 16 bits is the byte offset into the uncompressed stream inside the block.
      */
     public long getFilePointer(){
+        if (!pending.isEmpty()) {
+            try {
+                writePending(0);
+            } catch (IOException e) {
+                throw new RuntimeIOException(e);
+            }
+        }
         return BlockCompressedFilePointerUtil.makeFilePointer(mBlockAddress, numUncompressedBytes);
     }
 
+    /**
+     * Like getFilePointer(), but the upper 48 bits are the sequence number of the current block instead of its address,
+     * so the caller doesn't wait for the blocks in flight.
+     */
+    public long getPendingFilePointer() {
+        return BlockCompressedFilePointerUtil.makeFilePointer(blockCount, numUncompressedBytes);
+    }
+
+    /** return true if the block of a pointer from getPendingFilePointer() is written and the pointer can be resolved without waiting */
+    public boolean isResolvable(final long pendingFilePointer) {
+        return BlockCompressedFilePointerUtil.getBlockAddress(pendingFilePointer) < writtenBlockCount;
+    }
+
+    /** return the virtual file pointer of a pointer from getPendingFilePointer(), waits for the block to be written if needed */
+    public long resolveFilePointer(final long pendingFilePointer) {
+        final int block = (int) BlockCompressedFilePointerUtil.getBlockAddress(pendingFilePointer);
+        final int offset = BlockCompressedFilePointerUtil.getBlockOffset(pendingFilePointer);
+        if (block >= writtenBlockCount) {
+            getFilePointer();
+        }
+        return BlockCompressedFilePointerUtil.makeFilePointer((block < writtenBlockCount) ? blockAddresses[block] : mBlockAddress, offset);
+    }
+
     @Override
     public long getPosition() {
         return getFilePointer();
@@ -324,33 +401,23 @@ public class MyBlockCompressedOutputStream
      * up in the next deflate event.
      * @return size of gzip block that was written.
      */
-    private int deflateBlock() {
+    private int deflateBlock() throws IOException {
         if (numUncompressedBytes == 0) {
             return 0;
         }
+        if (deflatePool != null) {
+            submitBlock();
+            return 0;
+        }
         final int bytesToCompress = numUncompressedBytes;
         // Compress the input
-        deflater.reset();
-        deflater.setInput(uncompressedBuffer, 0, bytesToCompress);
-        deflater.finish();
-        int compressedSize = deflater.deflate(compressedBuffer, 0, compressedBuffer.length);
-
-        // If it didn't all fit in compressedBuffer.length, set compression level to NO_COMPRESSION
-        // and try again.  This should always fit.
-        if (!deflater.finished()) {
-            noCompressionDeflater.reset();
-            noCompressionDeflater.setInput(uncompressedBuffer, 0, bytesToCompress);
-            noCompressionDeflater.finish();
-            compressedSize = noCompressionDeflater.deflate(compressedBuffer, 0, compressedBuffer.length);
-            if (!noCompressionDeflater.finished()) {
-                throw new IllegalStateException("unpossible");
-            }
-        }
+        final int compressedSize = deflate(deflater, noCompressionDeflater, uncompressedBuffer, bytesToCompress, compressedBuffer);
         // Data compressed small enough, so write it out.
         crc32.reset();
         crc32.update(uncompressedBuffer, 0, bytesToCompress);
 
-        final int totalBlockSize = writeGzipBlock(compressedSize, bytesToCompress, crc32.getValue());
+        blockCount++;
+        final int totalBlockSize = writeBlock(compressedBuffer, compressedSize, bytesToCompress, crc32.getValue());
         assert(bytesToCompress <= numUncompressedBytes);
 
         // Clear out from uncompressedBuffer the data that was written
@@ -361,15 +428,102 @@ public class MyBlockCompressedOutputStream
                     numUncompressedBytes - bytesToCompress);
             numUncompressedBytes -= bytesToCompress;
         }
+        return totalBlockSize;
+    }
+
+    /** write a deflated block and keep its address */
+    private int writeBlock(final byte[] compressed, final int compressedSize, final int uncompressedSize, final long crc) {
+        if (writtenBlockCount == blockAddresses.length) {
+            blockAddresses = Arrays.copyOf(blockAddresses, blockAddresses.length * 2);
+        }
+        blockAddresses[writtenBlockCount++] = mBlockAddress;
+        final int totalBlockSize = writeGzipBlock(compressed, compressedSize, uncompressedSize, crc);
         mBlockAddress += totalBlockSize;
         return totalBlockSize;
     }
 
+    private static int deflate(final Deflater deflater, final Deflater noCompressionDeflater, final byte[] input, final int length, final byte[] output) {
+        deflater.reset();
+        deflater.setInput(input, 0, length);
+        deflater.finish();
+        int compressedSize = deflater.deflate(output, 0, output.length);
+
+        // If it didn't all fit in compressedBuffer.length, set compression level to NO_COMPRESSION
+        // and try again.  This should always fit.
+        if (!deflater.finished()) {
+            noCompressionDeflater.reset();
+            noCompressionDeflater.setInput(input, 0, length);
+            noCompressionDeflater.finish();
+            compressedSize = noCompressionDeflater.deflate(output, 0, output.length);
+            if (!noCompressionDeflater.finished()) {
+                throw new IllegalStateException("unpossible");
+            }
+        }
+        return compressedSize;
+    }
+
+    /**
+     * Hand the data in uncompressedBuffer to the deflate pool and continue with an empty buffer. The oldest blocks are
+     * written when there are too many blocks in flight.
+     */
+    private void submitBlock() throws IOException {
+        final byte[] input = uncompressedBuffer;
+        final int length = numUncompressedBytes;
+        pending.add(deflatePool.submit(new Callable<DeflatedBlock>() {
+            @Override
+            public DeflatedBlock call() {
+                final Deflater[] deflaters = poolDeflaters.get();
+                final byte[] output = new byte[compressedBuffer.length];
+                final int compressedSize = deflate(deflaters[0], deflaters[1], input, length, output);
+                final CRC32 crc = new CRC32();
+                crc.update(input, 0, length);
+                return new DeflatedBlock(input, output, compressedSize, length, crc.getValue());
+            }
+        }));
+
+        blockCount++;
+        uncompressedBuffer = freeBuffers.isEmpty() ? new byte[input.length] : freeBuffers.poll();
+        numUncompressedBytes = 0;
+        writePending(maxPending);
+    }
+
+    /** write the deflated blocks in order until at most max blocks are in flight */
+    private void writePending(final int max) throws IOException {
+        DeflatedBlock block;
+        while (pending.size() > max) {
+            try {
+                block = pending.poll().get();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            } catch (ExecutionException e) {
+                throw new IOException(e.getCause());
+            }
+            writeBlock(block.compressed, block.compressedSize, block.uncompressedSize, block.crc);
+            freeBuffers.add(block.uncompressed);
+        }
+    }
+
+    private static final class DeflatedBlock {
+        private final byte[] uncompressed;
+        private final byte[] compressed;
+        private final int compressedSize;
+        private final int uncompressedSize;
+        private final long crc;
+
+        public DeflatedBlock(final byte[] uncompressed, final byte[] compressed, final int compressedSize, final int uncompressedSize, final long crc) {
+            this.uncompressed = uncompressed;
+            this.compressed = compressed;
+            this.compressedSize = compressedSize;
+            this.uncompressedSize = uncompressedSize;
+            this.crc = crc;
+        }
+    }
+
     /**
-     * Writes the entire gzip block, assuming the compressed data is stored in compressedBuffer
+     * Writes the entire gzip block, assuming the compressed data is stored in compressed
      * @return  size of gzip block that was written.
      */
-    private int writeGzipBlock(final int compressedSize, final int uncompressedSize, final long crc) {
+    private int writeGzipBlock(final byte[] compressed, final int compressedSize, final int uncompressedSize, final long crc) {
         // Init gzip header
         codec.writeByte(BlockCompressedStreamConstants.GZIP_ID1);
         codec.writeByte(BlockCompressedStreamConstants.GZIP_ID2);
@@ -387,7 +541,7 @@ public class MyBlockCompressedOutputStream
 
         // I don't know why we store block size - 1, but that is what the spec says
         codec.writeShort((short)(totalBlockSize - 1));
-        codec.writeBytes(compressedBuffer, 0, compressedSize);
+        codec.writeBytes(compressed, 0, compressedSize);
         codec.writeInt((int)crc);
         codec.writeInt(uncompressedSize);
         return totalBlockSize;
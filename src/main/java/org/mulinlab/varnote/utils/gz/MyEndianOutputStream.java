@@ -2,17 +2,23 @@ package org.mulinlab.varnote.utils.gz;
 
 import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 
 public final class MyEndianOutputStream  extends FilterOutputStream {
 
-	private final MyBlockCompressedOutputStream out;
+	private final MyBlockCompressedOutputStream bgzOut;
     public MyEndianOutputStream(MyBlockCompressedOutputStream out) {
         super(out);
-        this.out = out; 
+        this.bgzOut = out;
+    }
+
+    public MyEndianOutputStream(OutputStream out) {
+        super(out);
+        this.bgzOut = null;
     }
 
     public MyBlockCompressedOutputStream getOut() {
-		return out; 
+		return bgzOut;
 	}
 
 
@@ -20,6 +26,10 @@ public final class MyEndianOutputStream  extends FilterOutputStream {
         out.write(b);
     }
 
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+    }
+
     public void writeBoolean(boolean b) throws IOException {
         if (b) this.write(1);
         else this.write(0);
@@ -73,7 +83,7 @@ public final class MyEndianOutputStream  extends FilterOutputStream {
     }
     
     public void close(long address) throws IOException {
-        out.flush();
-        out.close(address);
+        bgzOut.flush();
+        bgzOut.close(address);
     }
 }
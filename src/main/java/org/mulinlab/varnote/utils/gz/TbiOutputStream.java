@@ -0,0 +1,142 @@
+package org.mulinlab.varnote.utils.gz;
+
+import htsjdk.tribble.SimpleFeature;
+import htsjdk.tribble.index.tabix.TabixIndexCreator;
+import org.mulinlab.varnote.exceptions.InvalidArgumentException;
+import org.mulinlab.varnote.operations.decode.LocCodec;
+import org.mulinlab.varnote.utils.VannoUtils;
+import org.mulinlab.varnote.utils.enumset.IndexType;
+import org.mulinlab.varnote.utils.format.Format;
+import org.mulinlab.varnote.utils.node.LocFeature;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Writes sorted records to a BGZF file and builds the tabix index of the file while writing, the index is written to
+ * file.tbi when the stream is closed. Blocks are deflated by threads, so the records are added to the index once the
+ * blocks they start in are written, like the bins of IndexWriter.
+ */
+public final class TbiOutputStream extends OutputStream {
+	private final File file;
+	private final Format format;
+	private final MyBlockCompressedOutputStream out;
+	private final TabixIndexCreator indexCreator;
+	private final LocCodec codec;
+	private final ArrayDeque<PendingFeature> pending = new ArrayDeque<PendingFeature>();
+	private final Set<String> sequenceNamesSeen = new HashSet<String>();
+
+	private byte[] line = new byte[1024];
+	private int lineLength = 0;
+	private long lineCount = 0;
+	private String preChr = null;
+	private int preBeg = -1;
+
+	public TbiOutputStream(final File file, final Format format, final int threads) {
+		this.file = file;
+		this.format = format;
+		this.out = new MyBlockCompressedOutputStream(file, MyBlockCompressedOutputStream.getDefaultCompressionLevel(),
+				MyBlockCompressedOutputStream.getDefaultDeflaterFactory(), threads);
+		this.indexCreator = new TabixIndexCreator(format);
+		this.codec = VannoUtils.getDefaultLocCodec(format, false, null);
+	}
+
+	@Override
+	public void write(final int b) throws IOException {
+		if(lineLength == line.length) line = Arrays.copyOf(line, line.length * 2);
+		line[lineLength++] = (byte)b;
+		if(b == '\n') endLine();
+	}
+
+	@Override
+	public void write(final byte[] b, final int off, final int len) throws IOException {
+		int start = off;
+		for (int i = off; i < off + len; i++) {
+			if(b[i] == '\n') {
+				append(b, start, i + 1 - start);
+				endLine();
+				start = i + 1;
+			}
+		}
+		append(b, start, off + len - start);
+	}
+
+	private void append(final byte[] b, final int off, final int len) {
+		if(lineLength + len > line.length) line = Arrays.copyOf(line, Math.max(lineLength + len, line.length * 2));
+		System.arraycopy(b, off, line, lineLength, len);
+		lineLength += len;
+	}
+
+	/** write the line and keep the record with the pending pointer of the line, header and comment lines aren't indexed */
+	private void endLine() throws IOException {
+		final long pointer = out.getPendingFilePointer();
+		out.write(line, 0, lineLength);
+
+		final int len = (line[lineLength - 1] == '\n') ? lineLength - 1 : lineLength;
+		if(lineCount++ >= format.numHeaderLinesToSkip && len > 0 && line[0] != format.metaCharacter) {
+			final LocFeature feature = codec.decode(line, 0, len);
+			final String chr = getSequenceName(len);
+
+			if(!chr.equals(preChr)) {
+				if(!sequenceNamesSeen.add(chr)) throw new InvalidArgumentException(String.format("Records of chr %s are not together, please sort the query by chr column, start column to index the output.", chr));
+				preChr = chr;
+				preBeg = -1;
+			}
+			if(feature.beg < preBeg) throw new InvalidArgumentException(String.format("Records added out of order: next start %d < previous start %d, please sort the query by chr column, start column to index the output.", feature.beg, preBeg));
+			preBeg = feature.beg;
+
+			pending.add(new PendingFeature(new SimpleFeature(chr, feature.beg + 1, feature.end), pointer));
+		}
+		lineLength = 0;
+		addFeatures(false);
+	}
+
+	/** return the sequence name as written in the line, the chr of the decoded feature is normalized by ChromosomeDictionary */
+	private String getSequenceName(final int len) {
+		final char delim = format.getDelimChar();
+		int column = 1, start = 0, i;
+		for (i = 0; i < len; i++) {
+			if(line[i] == delim) {
+				if(column == format.sequenceColumn) break;
+				column++;
+				start = i + 1;
+			}
+		}
+		if(column != format.sequenceColumn) throw new InvalidArgumentException(String.format("Chr column %d is not found in line: %s", format.sequenceColumn, new String(line, 0, len, StandardCharsets.ISO_8859_1)));
+		return new String(line, start, i - start, StandardCharsets.ISO_8859_1);
+	}
+
+	private void addFeatures(final boolean force) {
+		while(!pending.isEmpty() && (force || out.isResolvable(pending.peek().pointer))) {
+			final PendingFeature feature = pending.poll();
+			indexCreator.addFeature(feature.feature, out.resolveFilePointer(feature.pointer));
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if(lineLength > 0) endLine();
+		out.flush();
+		addFeatures(true);
+
+		final long end = out.getFilePointer();
+		out.close();
+		indexCreator.finalizeIndex(end).write(new File(file.getPath() + IndexType.TBI.getExtIndex()));
+	}
+
+	private static final class PendingFeature {
+		private final SimpleFeature feature;
+		private final long pointer;
+
+		public PendingFeature(final SimpleFeature feature, final long pointer) {
+			this.feature = feature;
+			this.pointer = pointer;
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package org.mulinlab.varnote.utils.node;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Global ids of the chromosome names (normalized by the codecs) seen by all threads. The id of a feature is set once
+ * when the feature is decoded, readers translate it to the tid of their database with an array.
+ */
+public final class ContigDictionary {
+	public static final int UNKNOWN = -1;
+
+	private static final Map<String, Integer> ids = new HashMap<String, Integer>();
+	private static final List<String> names = new ArrayList<String>();
+
+	private ContigDictionary() {
+	}
+
+	public static synchronized int getId(final String chr) {
+		if(chr == null) return UNKNOWN;
+		Integer id = ids.get(chr);
+		if(id == null) {
+			id = names.size();
+			ids.put(chr, id);
+			names.add(chr);
+		}
+		return id;
+	}
+
+	public static synchronized String getName(final int id) {
+		return (id < 0 || id >= names.size()) ? null : names.get(id);
+	}
+}
@@ -4,11 +4,14 @@ import htsjdk.tribble.Feature;
 import htsjdk.variant.variantcontext.VariantContext;
 import org.mulinlab.varnote.utils.enumset.VariantType;
 
+import java.nio.charset.StandardCharsets;
+
 public class LocFeature implements Feature {
     public int beg;
     public int end;
 
     public String chr;
+    public int contig;
     public String ref;
     public String alt;
     private String[] alts;
@@ -16,6 +19,10 @@ public class LocFeature implements Feature {
     public String origStr;
     public String bgzStr;
 
+    /** the line in a buffer of the reader, valid until the reader reads the next line, getOrigStr() makes origStr from it */
+    public byte[] origBytes;
+    public int origLength;
+
     public String[] parts;
     public VariantContext variantContext;
 
@@ -59,10 +66,13 @@ public class LocFeature implements Feature {
         beg = -1;
         end = -1;
         chr = null;
+        contig = ContigDictionary.UNKNOWN;
         ref = null;
         alt = null;
         origStr = null;
         bgzStr = null;
+        origBytes = null;
+        origLength = 0;
         parts = null;
         alts = null;
         variantContext = null;
@@ -77,15 +87,19 @@ public class LocFeature implements Feature {
     }
 
     public String getOrigStr() {
+        if(this.origStr == null && this.origBytes != null) {
+            this.origStr = new String(this.origBytes, 0, this.origLength, StandardCharsets.ISO_8859_1);
+        }
         return this.origStr;
     }
 
     public LocFeature clone()   {
         LocFeature cloned = new LocFeature(this.beg, this.end, this.chr);
+        cloned.contig = this.contig;
         cloned.ref = this.ref;
         cloned.alt = this.alt;
         cloned.bgzStr = this.bgzStr;
-        cloned.origStr = this.origStr;
+        cloned.origStr = this.getOrigStr();
         cloned.vt = this.vt;
 
         if(this.parts != null && this.parts.length > 0) {
@@ -4,6 +4,9 @@ package org.mulinlab.varnote.utils.node;
 public final class NodeWithFilePointer extends LocFeature {
 	public long blockAddress;
 	public int blockOffset;
+	public int blockIndex = -1;
+	public int featureIndex = -1;
+	public int alleleHash = 0;
 	
 	public NodeWithFilePointer(final long blockAddress, final int blockOffset) {
 		super();
@@ -23,6 +26,9 @@ public final class NodeWithFilePointer extends LocFeature {
 		cloned.beg = this.beg;
 		cloned.end = this.end;
 		cloned.bgzStr = this.bgzStr;
+		cloned.blockIndex = this.blockIndex;
+		cloned.featureIndex = this.featureIndex;
+		cloned.alleleHash = this.alleleHash;
 		return cloned;
 	}
 }
@@ -0,0 +1,69 @@
+package org.mulinlab.varnote.utils.stream;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.util.zip.GZIPInputStream;
+
+import org.mulinlab.varnote.constants.GlobalParameter;
+
+/**
+ * The query read from the standard input, plain or gzip. The comment lines, the header and the first records are kept in
+ * a small temporary file for reading the format of the query, the whole stream is read once by the threads.
+ */
+public final class StdinStream {
+	private static final int HEAD_LINES = 3;
+	private static final String VCF_START = "##fileformat=VCF";
+
+	private final File headFile;
+	private final InputStream in;
+
+	public StdinStream(final InputStream input) throws IOException {
+		final BufferedInputStream stream = new BufferedInputStream(input, GlobalParameter.BUFFER_SIZE);
+		stream.mark(2);
+		final int b1 = stream.read(), b2 = stream.read();
+		stream.reset();
+
+		final InputStream raw = (b1 == 0x1f && b2 == 0x8b) ? new BufferedInputStream(new GZIPInputStream(stream, GlobalParameter.BUFFER_SIZE), GlobalParameter.BUFFER_SIZE) : stream;
+		final byte[] head = readHead(raw);
+
+		headFile = File.createTempFile("stdin", new String(head, 0, Math.min(head.length, VCF_START.length())).equals(VCF_START) ? ".vcf" : ".txt");
+		headFile.deleteOnExit();
+		final OutputStream out = new FileOutputStream(headFile);
+		out.write(head);
+		out.close();
+
+		in = new SequenceInputStream(new ByteArrayInputStream(head), raw);
+	}
+
+	/** read the lines up to the HEAD_LINES line not starting with # */
+	private static byte[] readHead(final InputStream raw) throws IOException {
+		final ByteArrayOutputStream head = new ByteArrayOutputStream();
+		int lines = 0, b;
+		boolean lineStart = true, comment = false;
+
+		while(lines < HEAD_LINES && (b = raw.read()) != -1) {
+			head.write(b);
+			if(lineStart) comment = (b == '#');
+			lineStart = (b == '\n');
+			if(lineStart && !comment) lines++;
+		}
+		return head.toByteArray();
+	}
+
+	/** the path of the file with the head of the query */
+	public String getHeadPath() {
+		return headFile.getAbsolutePath();
+	}
+
+	/** the whole query, including the head */
+	public InputStream getInputStream() {
+		return in;
+	}
+}
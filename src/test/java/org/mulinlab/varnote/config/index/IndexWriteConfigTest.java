@@ -0,0 +1,56 @@
+package org.mulinlab.varnote.config.index;
+
+import htsjdk.samtools.util.BlockCompressedOutputStream;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mulinlab.varnote.config.param.IndexParam;
+import org.mulinlab.varnote.constants.GlobalParameter;
+import org.mulinlab.varnote.operations.index.IndexWriter;
+import org.mulinlab.varnote.operations.readers.db.VannoMixReader;
+import org.mulinlab.varnote.utils.database.index.vannoIndex.VannoIndex;
+import org.mulinlab.varnote.utils.enumset.IndexType;
+import org.mulinlab.varnote.utils.format.Format;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+public class IndexWriteConfigTest {
+
+    @Test
+    public void replaceHeader() throws IOException {
+        final File dir = Files.createTempDirectory("header").toFile();
+        dir.deleteOnExit();
+        final File file = new File(dir, "header.bed.gz");
+        for (String ext : new String[]{"", IndexType.VARNOTE.getExt(), IndexType.VARNOTE.getExtIndex()}) {
+            new File(file.getPath() + ext).deleteOnExit();
+        }
+
+        final BlockCompressedOutputStream out = new BlockCompressedOutputStream(file);
+        for (String chr : new String[]{"chr1", "chr2"}) {
+            for (int i = 0; i < 50000; i++) {
+                out.write(String.format("%s\t%d\t%d\tfeature%d\n", chr, i * 20, i * 20 + 10, i).getBytes());
+            }
+        }
+        out.close();
+        new IndexWriter(new IndexParam(file, dir.getPath(), Format.newBED())).makeIndex();
+
+        final IndexWriteConfig config = new IndexWriteConfig(new IndexParam(file));
+        final VannoIndex before = config.getIndex();
+        config.replaceHeader("CHROM,START,END,NAME");
+        final VannoIndex after = config.getIndex();
+
+        Assert.assertEquals(after.getVersion(), GlobalParameter.version);
+        Assert.assertEquals(Arrays.asList(after.getColumnNames()), Arrays.asList("CHROM", "START", "END", "NAME"));
+        Assert.assertEquals(after.getMinOffForChr(), before.getMinOffForChr());
+        for (int tid = 0; tid < before.getmSeq().length; tid++) {
+            Assert.assertEquals(after.getBlockCount(tid), before.getBlockCount(tid));
+        }
+
+        final VannoMixReader reader = new VannoMixReader(file.getPath());
+        reader.query("chr2:400001-400021");
+        Assert.assertEquals(reader.getResults(), Arrays.asList("chr2\t400000\t400010\tfeature20000", "chr2\t400020\t400030\tfeature20001"));
+        reader.close();
+    }
+}
@@ -0,0 +1,77 @@
+package org.mulinlab.varnote.config.io.temp;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mulinlab.varnote.config.param.output.OutParam;
+import org.mulinlab.varnote.operations.schedule.QueryScheduler;
+import org.mulinlab.varnote.operations.schedule.QueryTask;
+import org.mulinlab.varnote.utils.database.Database;
+import org.mulinlab.varnote.utils.enumset.FileType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class OrderedPrintterTest {
+
+    @Test(timeout = 60000)
+    public void printInOrder() throws IOException, InterruptedException {
+        final int thread = 8;
+        final File file = File.createTempFile("ordered", ".txt");
+        file.deleteOnExit();
+
+        final QueryScheduler scheduler = new QueryScheduler(file.getPath(), FileType.TXT, null);
+        for (int i = 0; i < 1000000; i++) {
+            scheduler.addLine(i, 1);
+        }
+        scheduler.build(thread, Collections.<Database>emptyList());
+
+        final OutParam outParam = new OutParam(file.getPath());
+        outParam.setGzip(false);
+        final OrderedPrintter printter = new OrderedPrintter(outParam);
+        printter.init();
+        printter.setPrintter(thread);
+        printter.startParts();
+
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        final Thread[] workers = new Thread[thread];
+        for (int t = 0; t < thread; t++) {
+            final int index = t;
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    final Random random = new Random(index);
+                    QueryTask task;
+                    try {
+                        while((task = scheduler.next(index)) != null) {
+                            if(index == 0) Thread.sleep(random.nextInt(3));
+                            for (int i = 0; i < 10; i++) {
+                                printter.print(task.getIndex() + "\t" + i, index);
+                            }
+                            printter.endPart(index, task.getIndex());
+                        }
+                    } catch (Throwable e) {
+                        error.set(e);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        Assert.assertNull(error.get());
+        printter.mergeResults();
+
+        final List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.ISO_8859_1);
+        Assert.assertTrue(lines.size() > thread * 10 * 10);
+        for (int i = 0; i < lines.size(); i++) {
+            Assert.assertEquals(lines.get(i), (i / 10) + "\t" + (i % 10));
+        }
+    }
+}
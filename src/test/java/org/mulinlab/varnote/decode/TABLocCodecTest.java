@@ -4,6 +4,7 @@ import org.apache.logging.log4j.Logger;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mulinlab.varnote.operations.decode.TABLocCodec;
+import org.mulinlab.varnote.utils.node.ContigDictionary;
 import org.mulinlab.varnote.utils.node.LocFeature;
 import org.mulinlab.varnote.utils.LoggingUtils;
 import org.mulinlab.varnote.utils.format.Format;
@@ -84,4 +85,32 @@ public class TABLocCodecTest {
         Assert.assertEquals(feature.beg, 10176);
         Assert.assertEquals(feature.end, 10178);
     }
+
+    @Test
+    public void testBytes() throws Exception {
+        Format format = Format.newTAB();
+        format.sequenceColumn = 1;
+        format.startPositionColumn = 2;
+        format.endPositionColumn = 3;
+        format.refPositionColumn = 4;
+        format.altPositionColumn = 5;
+        format.setZeroBased();
+
+        TABLocCodec decode = new TABLocCodec(format, false);
+        byte[] line = "xxChr1	10177	10179	ACC	A	22041.2".getBytes();
+        LocFeature feature = decode.decode(line, 2, line.length - 2);
+        Assert.assertEquals(feature.chr, "1");
+        Assert.assertEquals(feature.beg, 10177);
+        Assert.assertEquals(feature.end, 10179);
+        Assert.assertEquals(feature.ref, "ACC");
+        Assert.assertEquals(feature.alt, "A");
+
+        feature = decode.decode("chr1	10177	10179	ACC	A	22041.2");
+        Assert.assertSame(feature.chr, decode.decode(line, 2, line.length - 2).chr);
+
+        int contig = decode.decode(line, 2, line.length - 2).contig;
+        Assert.assertEquals(ContigDictionary.getName(contig), "1");
+        Assert.assertEquals(decode.decode("2	10177	10179	ACC	A").contig, ContigDictionary.getId("2"));
+        Assert.assertEquals(new TABLocCodec(format, false).decode("CHR1	10177	10179	ACC	A").contig, contig);
+    }
 }
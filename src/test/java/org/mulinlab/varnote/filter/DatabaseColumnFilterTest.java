@@ -0,0 +1,32 @@
+package org.mulinlab.varnote.filter;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mulinlab.varnote.config.anno.databse.filter.DatabaseColumnFilter;
+import org.mulinlab.varnote.utils.block.SROBStats;
+
+public class DatabaseColumnFilterTest {
+
+    @Test
+    public void filterBlock() {
+        SROBStats stats = new SROBStats(1, 2);
+        stats.update(new double[]{ 3.5 });
+        stats.update(new double[]{ 12.1 });
+        stats.add();
+        stats.update(new double[]{ Double.NaN });
+        stats.add();
+        stats.update(new double[]{ 25 });
+        stats.add();
+
+        DatabaseColumnFilter filter = new DatabaseColumnFilter(3, DatabaseColumnFilter.Operator.GT, 20, '\t');
+        Assert.assertEquals(stats.size(), 3);
+        Assert.assertTrue(filter.isFilterRange(stats.getMin(0, 0), stats.getMax(0, 0)));
+        Assert.assertTrue(filter.isFilterRange(stats.getMin(1, 0), stats.getMax(1, 0)));
+        Assert.assertFalse(filter.isFilterRange(stats.getMin(2, 0), stats.getMax(2, 0)));
+
+        Assert.assertTrue(filter.isFilterLine("1\t100\t12.1"));
+        Assert.assertTrue(filter.isFilterLine("1\t100\t."));
+        Assert.assertTrue(filter.isFilterLine("1\t100"));
+        Assert.assertFalse(filter.isFilterLine("1\t100\t25\tA"));
+    }
+}
@@ -0,0 +1,49 @@
+package org.mulinlab.varnote.operations.index;
+
+import htsjdk.samtools.util.BlockCompressedOutputStream;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mulinlab.varnote.config.param.IndexParam;
+import org.mulinlab.varnote.utils.enumset.IndexType;
+import org.mulinlab.varnote.utils.format.Format;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+public class IndexWriterTest {
+
+    @Test
+    public void indexWithThreads() throws IOException {
+        final File file = File.createTempFile("index", ".bed.gz");
+        file.deleteOnExit();
+        final BlockCompressedOutputStream out = new BlockCompressedOutputStream(file);
+        for (String chr : new String[]{"chr1", "chr2", "chrX"}) {
+            for (int i = 0; i < 100000; i++) {
+                out.write(String.format("%s\t%d\t%d\tfeature%d\n", chr, i * 20, i * 20 + (i % 7) * 5 + 1, i).getBytes());
+            }
+        }
+        out.close();
+
+        final File single = index(file, 1);
+        final File multi = index(file, 4);
+        for (String ext : new String[]{IndexType.VARNOTE.getExt(), IndexType.VARNOTE.getExtIndex()}) {
+            Assert.assertArrayEquals(Files.readAllBytes(new File(multi, file.getName() + ext).toPath()),
+                    Files.readAllBytes(new File(single, file.getName() + ext).toPath()));
+        }
+    }
+
+    private static File index(final File file, final int thread) throws IOException {
+        final File dir = Files.createTempDirectory("index").toFile();
+        dir.deleteOnExit();
+        new File(dir, file.getName() + IndexType.VARNOTE.getExt()).deleteOnExit();
+        new File(dir, file.getName() + IndexType.VARNOTE.getExtIndex()).deleteOnExit();
+
+        final IndexParam param = new IndexParam(file, dir.getPath(), Format.newBED());
+        param.setThread(thread);
+        final IndexWriter writer = new IndexWriter(param);
+        writer.setSplitSize(64 * 1024);
+        writer.makeIndex();
+        return dir;
+    }
+}
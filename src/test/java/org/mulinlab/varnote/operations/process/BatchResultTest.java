@@ -0,0 +1,58 @@
+package org.mulinlab.varnote.operations.process;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mulinlab.varnote.utils.node.LocFeature;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class BatchResultTest {
+
+    @Test
+    public void add() {
+        BatchResult result = new BatchResult(1);
+        result.add(new ListResult(Arrays.asList("a", "b")));
+        result.add(new ListResult(new ArrayList<String>()));
+        result.add(new ListResult(Arrays.asList("c", "d", "e")));
+        result.add(3);
+
+        Assert.assertEquals(result.size(), 4);
+        Assert.assertEquals(result.getHitCount(), 8);
+        Assert.assertEquals(result.getHitCount(0), 2);
+        Assert.assertNull(result.getHits(1));
+        Assert.assertEquals(result.getOffset(2), 2);
+        Assert.assertEquals(result.getHit(2, 2), "e");
+        Assert.assertArrayEquals(result.getHits(2), new String[]{"c", "d", "e"});
+        Assert.assertEquals(result.getHitCount(3), 3);
+        Assert.assertNull(result.getHit(3, 0));
+
+        result.clear();
+        Assert.assertEquals(result.size(), 0);
+        result.add(new ListResult(Arrays.asList("f")));
+        Assert.assertArrayEquals(result.getHits(0), new String[]{"f"});
+    }
+
+    private static final class ListResult implements ProcessResult {
+        private final List<String> list;
+
+        public ListResult(List<String> list) {
+            this.list = list;
+        }
+
+        public void doProcess(LocFeature d) {
+        }
+
+        public List<String> getResult() {
+            return list;
+        }
+
+        public int getResultSize() {
+            return list.size();
+        }
+
+        public void initResult() {
+        }
+    }
+}
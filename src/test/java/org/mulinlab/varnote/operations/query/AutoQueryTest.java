@@ -0,0 +1,106 @@
+package org.mulinlab.varnote.operations.query;
+
+import htsjdk.samtools.seekablestream.SeekableFileStream;
+import htsjdk.samtools.seekablestream.SeekableStream;
+import htsjdk.samtools.util.BlockCompressedInputStream;
+import htsjdk.samtools.util.BlockCompressedOutputStream;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mulinlab.varnote.config.param.DBParam;
+import org.mulinlab.varnote.config.param.IndexParam;
+import org.mulinlab.varnote.operations.index.IndexWriter;
+import org.mulinlab.varnote.operations.readers.db.VannoMixReader;
+import org.mulinlab.varnote.utils.VannoUtils;
+import org.mulinlab.varnote.utils.database.Database;
+import org.mulinlab.varnote.utils.database.DatabaseFactory;
+import org.mulinlab.varnote.utils.database.index.IndexFactory;
+import org.mulinlab.varnote.utils.database.index.vannoIndex.VannoIndex;
+import org.mulinlab.varnote.utils.enumset.IndexType;
+import org.mulinlab.varnote.utils.format.Format;
+import org.mulinlab.varnote.utils.gz.BlockCompressedFilePointerUtil;
+import org.mulinlab.varnote.utils.gz.MyBlockCompressedOutputStream;
+import org.mulinlab.varnote.utils.gz.MyEndianOutputStream;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class AutoQueryTest {
+    private static final int LINES = 90000;
+    private static final int QUERY_STEP = 70;
+
+    @Test
+    public void sparseQueryKeepsMixReader() throws IOException {
+        final File dir = Files.createTempDirectory("auto").toFile();
+        dir.deleteOnExit();
+        final File file = new File(dir, "auto.bed.gz");
+        final File index = new File(file.getPath() + IndexType.VARNOTE.getExtIndex());
+        for (File f : new File[]{file, new File(file.getPath() + IndexType.VARNOTE.getExt()), index}) {
+            f.deleteOnExit();
+        }
+
+        final char[] pad = new char[2000];
+        Arrays.fill(pad, 'a');
+        final String name = new String(pad);
+        final BlockCompressedOutputStream out = new BlockCompressedOutputStream(file);
+        for (int i = 0; i < LINES; i++) {
+            out.write(String.format("chr1\t%d\t%d\t%s\n", i * 100, i * 100 + 10, name).getBytes());
+        }
+        out.close();
+        new IndexWriter(new IndexParam(file, dir.getPath(), Format.newBED())).makeIndex();
+
+        Assert.assertTrue(query(file) instanceof VannoMixReader);
+
+        writeVersion1Index(index);
+        Assert.assertEquals(((VannoIndex) IndexFactory.readIndex(index.getPath())).getVersion(), 1);
+        Assert.assertTrue(query(file) instanceof VannoMixReader);
+    }
+
+    /** query one position for every QUERY_STEP lines, each about two blocks after the previous one */
+    private static Object query(final File file) throws IOException {
+        final Database db = DatabaseFactory.readDatabase(new DBParam(file.getPath()));
+        final AutoQuery query = new AutoQuery(new ArrayList<Database>(Collections.singletonList(db)));
+        for (int i = 0; i < LINES; i += QUERY_STEP) {
+            query.doQuery(String.format("chr1:%d-%d", i * 100 + 2, i * 100 + 5));
+            Assert.assertEquals(query.readers.get(0).getResultSize(), 1);
+        }
+        final Object reader = query.readers.get(0);
+        query.teardown();
+        return reader;
+    }
+
+    /** rewrite the formats of the index as version 1, which keeps the SROB lists but no directory */
+    private static void writeVersion1Index(final File index) throws IOException {
+        final VannoIndex idx = (VannoIndex) IndexFactory.readIndex(index.getPath());
+        final SeekableStream stream = new SeekableFileStream(index);
+        final long address = VannoUtils.getAddress(stream);
+        final long blockAddress = BlockCompressedFilePointerUtil.getBlockAddress(address);
+        final int blockOffset = BlockCompressedFilePointerUtil.getBlockOffset(address);
+
+        final File temp = File.createTempFile("auto", ".vi");
+        temp.deleteOnExit();
+        final OutputStream os = new FileOutputStream(temp);
+        final byte[] prefix = new byte[(int) blockAddress];
+        stream.seek(0);
+        stream.readFully(prefix);
+        os.write(prefix);
+
+        final BlockCompressedInputStream is = new BlockCompressedInputStream(stream);
+        is.seek(BlockCompressedFilePointerUtil.makeFilePointer(blockAddress, 0));
+        final MyEndianOutputStream indexLos = new MyEndianOutputStream(new MyBlockCompressedOutputStream(os, temp));
+        for (int i = 0; i < blockOffset; i++) {
+            indexLos.write(is.read());
+        }
+        VannoUtils.writeFormats(indexLos, idx.getFormat(), idx.getColumnNames(), Arrays.asList(idx.getmSeq()), idx.getMinOffForChr());
+        indexLos.close(address);
+        is.close();
+
+        Files.copy(temp.toPath(), index.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,44 @@
+package org.mulinlab.varnote.operations.readers.db;
+
+import htsjdk.samtools.util.BlockCompressedOutputStream;
+import htsjdk.tribble.SimpleFeature;
+import htsjdk.tribble.index.tabix.TabixIndexCreator;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mulinlab.varnote.config.param.DBParam;
+import org.mulinlab.varnote.utils.database.DatabaseFactory;
+import org.mulinlab.varnote.utils.enumset.IndexType;
+import org.mulinlab.varnote.utils.format.Format;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+public class TbiMixReaderTest {
+
+    @Test
+    public void query() throws IOException {
+        final File file = File.createTempFile("mix", ".bed.gz");
+        file.deleteOnExit();
+        new File(file.getPath() + ".tbi").deleteOnExit();
+
+        final BlockCompressedOutputStream out = new BlockCompressedOutputStream(file);
+        final TabixIndexCreator indexCreator = new TabixIndexCreator(Format.newBED());
+        for (int i = 0; i < 20000; i++) {
+            indexCreator.addFeature(new SimpleFeature("chr1", i * 10 + 1, i * 10 + 15), out.getFilePointer());
+            out.write(String.format("chr1\t%d\t%d\tr%d\n", i * 10, i * 10 + 15, i).getBytes());
+        }
+        out.flush();
+        final long end = out.getFilePointer();
+        out.close();
+        indexCreator.finalizeIndex(end).write(new File(file.getPath() + IndexType.TBI.getExtIndex()));
+
+        final TbiMixReader reader = new TbiMixReader(DatabaseFactory.readDatabase(new DBParam(file.getPath(), IndexType.TBI)));
+        reader.query("chr1:150011-150012");
+        Assert.assertEquals(reader.getResults(), Arrays.asList("chr1\t150000\t150015\tr15000", "chr1\t150010\t150025\tr15001"));
+
+        reader.query("chr1:199996-199996");
+        Assert.assertEquals(reader.getResults(), Arrays.asList("chr1\t199990\t200005\tr19999"));
+        reader.close();
+    }
+}
@@ -0,0 +1,34 @@
+package org.mulinlab.varnote.operations.readers.itf.thread;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+public class MappedLineReaderTest {
+
+    @Test
+    public void readLines() throws IOException {
+        File file = File.createTempFile("mapped", ".txt");
+        file.deleteOnExit();
+        FileOutputStream out = new FileOutputStream(file);
+        out.write("1\t100\t101\n\nchr2\t12345678\t12345679\tlong line\nlast".getBytes());
+        out.close();
+
+        MappedLineReader reader = new MappedLineReader(file.getPath(), 0, -1);
+        Assert.assertEquals(reader.readLine(), "1\t100\t101");
+        Assert.assertEquals(reader.readLine(), "");
+        Assert.assertEquals(reader.readLine(), "chr2\t12345678\t12345679\tlong line");
+        Assert.assertEquals(reader.readLine(), "last");
+        Assert.assertNull(reader.readLine());
+        reader.closeReader();
+
+        reader = new MappedLineReader(file.getPath(), 10, 2);
+        Assert.assertEquals(reader.readLine(), "");
+        Assert.assertEquals(reader.readLine(), "chr2\t12345678\t12345679\tlong line");
+        Assert.assertNull(reader.readLine());
+        reader.closeReader();
+    }
+}
@@ -0,0 +1,66 @@
+package org.mulinlab.varnote.operations.schedule;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mulinlab.varnote.operations.readers.itf.QueryReaderItf;
+import org.mulinlab.varnote.utils.database.Database;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ChunkSchedulerTest {
+
+    @Test(timeout = 60000)
+    public void readChunks() throws IOException {
+        final List<String> expected = new ArrayList<String>();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < 300000; i++) {
+            addLine(out, expected, String.format("chr1\t%d\t%d\tline%d", i * 10, i * 10 + 5, i), (i % 2 == 0) ? "\r\n" : "\n");
+        }
+
+        final char[] pad = new char[9 * 1024 * 1024];
+        Arrays.fill(pad, 'a');
+        addLine(out, expected, "chr2\t0\t5\t" + new String(pad), "\r\n");
+        for (int i = 0; i < 10; i++) {
+            addLine(out, expected, String.format("chr2\t%d\t%d\tline%d", i * 10, i * 10 + 5, i), "\r\n");
+        }
+        out.write("chr3\t0\t5\tlast".getBytes());
+        expected.add("chr3\t0\t5\tlast");
+
+        final ChunkScheduler scheduler = new ChunkScheduler("stdin", new ByteArrayInputStream(out.toByteArray()));
+        scheduler.build(1, Collections.<Database>emptyList());
+
+        final List<String> lines = new ArrayList<String>();
+        QueryTask task;
+        int count = 0;
+        String line;
+        try {
+            while((task = scheduler.next(0)) != null) {
+                Assert.assertEquals(task.getIndex(), count++);
+                final QueryReaderItf reader = scheduler.getReader(task);
+                reader.initReader();
+                while((line = reader.readLine()) != null) {
+                    lines.add(line);
+                }
+                reader.closeReader();
+            }
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+        scheduler.close();
+
+        Assert.assertTrue(count > 2);
+        Assert.assertEquals(lines.size(), expected.size());
+        Assert.assertEquals(lines, expected);
+    }
+
+    private static void addLine(final ByteArrayOutputStream out, final List<String> expected, final String line, final String end) throws IOException {
+        out.write((line + end).getBytes());
+        expected.add(line);
+    }
+}
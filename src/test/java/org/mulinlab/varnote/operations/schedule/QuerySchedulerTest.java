@@ -0,0 +1,73 @@
+package org.mulinlab.varnote.operations.schedule;
+
+import htsjdk.samtools.util.BlockCompressedOutputStream;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mulinlab.varnote.operations.readers.itf.QueryReaderItf;
+import org.mulinlab.varnote.utils.database.Database;
+import org.mulinlab.varnote.utils.enumset.FileType;
+import org.mulinlab.varnote.utils.format.Format;
+import org.mulinlab.varnote.utils.node.ContigDictionary;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+
+public class QuerySchedulerTest {
+    private static final int CHR1_LINES = 5000;
+    private static final int CHR2_LINES = 10;
+
+    @Test
+    public void scanText() throws Exception {
+        final File file = File.createTempFile("scan", ".bed");
+        file.deleteOnExit();
+        write(new FileOutputStream(file));
+        check(QueryScheduler.scan(file.getPath(), FileType.TXT, Format.newBED()));
+    }
+
+    @Test
+    public void scanBGZ() throws Exception {
+        final File file = File.createTempFile("scan", ".bed.gz");
+        file.deleteOnExit();
+        write(new BlockCompressedOutputStream(file));
+        check(QueryScheduler.scan(file.getPath(), FileType.BGZ, Format.newBED()));
+    }
+
+    /** a comment line, then chr1 lines with \r\n and chr2 lines with \n */
+    private static void write(final OutputStream out) throws IOException {
+        out.write("#chrom\tstart\tend\r\n".getBytes());
+        for (int i = 0; i < CHR1_LINES; i++) {
+            out.write(String.format("chr1\t%d\t%d\r\n", i * 10, i * 10 + 5).getBytes());
+        }
+        for (int i = 0; i < CHR2_LINES; i++) {
+            out.write(String.format("Chr2\t%d\t%d\n", i * 10, i * 10 + 5).getBytes());
+        }
+        out.close();
+    }
+
+    private static void check(final QueryScheduler scheduler) throws Exception {
+        scheduler.build(1, Collections.<Database>emptyList());
+
+        final int chr1 = ContigDictionary.getId("1"), chr2 = ContigDictionary.getId("2");
+        final int[] contigs = {chr1, chr1, chr2};
+        final String[] firstLines = {"#chrom\tstart\tend", "chr1\t40950\t40955", "Chr2\t0\t5"};
+        QueryTask task;
+        int count = 0;
+        long lines = 0;
+        while((task = scheduler.next(0)) != null) {
+            Assert.assertEquals(task.getIndex(), count);
+            Assert.assertEquals(task.getContig(), contigs[count]);
+            Assert.assertEquals(task.getFirstLine(), lines);
+
+            final QueryReaderItf reader = scheduler.getReader(task);
+            Assert.assertEquals(reader.readLine().replace("\r", ""), firstLines[count]);
+            reader.closeReader();
+            lines += task.getLineCount();
+            count++;
+        }
+        Assert.assertEquals(count, contigs.length);
+        Assert.assertEquals(lines, 1 + CHR1_LINES + CHR2_LINES);
+    }
+}
@@ -0,0 +1,110 @@
+package org.mulinlab.varnote.operations.server;
+
+import htsjdk.samtools.util.BlockCompressedOutputStream;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mulinlab.varnote.config.param.DBParam;
+import org.mulinlab.varnote.config.param.IndexParam;
+import org.mulinlab.varnote.config.run.ServerConfig;
+import org.mulinlab.varnote.operations.index.IndexWriter;
+import org.mulinlab.varnote.utils.enumset.IndexType;
+import org.mulinlab.varnote.utils.format.Format;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+public class QueryServerTest {
+    private static QueryServer server;
+
+    @BeforeClass
+    public static void start() throws IOException {
+        final File dir = Files.createTempDirectory("server").toFile();
+        dir.deleteOnExit();
+        final File file = new File(dir, "server.bed.gz");
+        for (String ext : new String[]{"", IndexType.VARNOTE.getExt(), IndexType.VARNOTE.getExtIndex()}) {
+            new File(file.getPath() + ext).deleteOnExit();
+        }
+
+        final BlockCompressedOutputStream out = new BlockCompressedOutputStream(file);
+        for (int i = 0; i < 50000; i++) {
+            out.write(String.format("chr1\t%d\t%d\tfeature%d\n", i * 20, i * 20 + 10, i).getBytes());
+        }
+        out.close();
+        new IndexWriter(new IndexParam(file, dir.getPath(), Format.newBED())).makeIndex();
+
+        server = new QueryServer(new ServerConfig(Collections.singletonList(new DBParam(file.getPath())), "127.0.0.1", 0, 2, false));
+        server.start();
+    }
+
+    @AfterClass
+    public static void stop() {
+        server.stop();
+    }
+
+    @Test
+    public void get() throws IOException {
+        assertResponse(get("chr1:400001-400021"), 200, "chr1\t400000\t400010\tfeature20000\nchr1\t400020\t400030\tfeature20001\n");
+        assertResponse(get("chr1:400005"), 200, "chr1\t400000\t400010\tfeature20000\n");
+        assertResponse(get("chr1:400025-A-G"), 200, "chr1\t400020\t400030\tfeature20001\n");
+        assertResponse(get("chr1:400015"), 200, "");
+    }
+
+    @Test
+    public void postBatch() throws IOException {
+        final HttpURLConnection conn = open("");
+        conn.setRequestMethod("POST");
+        conn.setDoOutput(true);
+        final OutputStream out = conn.getOutputStream();
+        out.write("#batch\nchr1:400005\n\nchr1:400025-A-G\r\nchr1:400001-400021\n".getBytes(StandardCharsets.UTF_8));
+        out.close();
+
+        assertResponse(conn, 200, "#query\tchr1:400005\nchr1\t400000\t400010\tfeature20000\n"
+                + "#query\tchr1:400025-A-G\nchr1\t400020\t400030\tfeature20001\n"
+                + "#query\tchr1:400001-400021\nchr1\t400000\t400010\tfeature20000\nchr1\t400020\t400030\tfeature20001\n");
+    }
+
+    @Test
+    public void badQuery() throws IOException {
+        final HttpURLConnection conn = get("chr1:abc");
+        Assert.assertEquals(conn.getResponseCode(), 400);
+        Assert.assertTrue(read(conn.getErrorStream()).startsWith("Invalid query chr1:abc"));
+
+        Assert.assertEquals(open("").getResponseCode(), 400);
+        assertResponse(get("chr1:400005"), 200, "chr1\t400000\t400010\tfeature20000\n");
+    }
+
+    private static HttpURLConnection get(final String query) throws IOException {
+        return open("?q=" + URLEncoder.encode(query, "UTF-8"));
+    }
+
+    private static HttpURLConnection open(final String params) throws IOException {
+        return (HttpURLConnection) new URL(String.format("http://127.0.0.1:%d/query%s", server.getPort(), params)).openConnection();
+    }
+
+    private static void assertResponse(final HttpURLConnection conn, final int status, final String body) throws IOException {
+        Assert.assertEquals(conn.getResponseCode(), status);
+        Assert.assertEquals(read(conn.getInputStream()), body);
+    }
+
+    private static String read(final InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buf = new byte[4096];
+        int n;
+        while((n = in.read(buf)) != -1) {
+            out.write(buf, 0, n);
+        }
+        in.close();
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,42 @@
+package org.mulinlab.varnote.operations.sort;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LineSorterTest {
+
+    @Test
+    public void radixSort() {
+        long[] keys = new long[]{5L << 32 | 10, -1, 3, 5L << 32 | 2, 3, 0};
+        int[] order = LineSorter.radixSort(keys, keys.length);
+        Assert.assertArrayEquals(order, new int[]{1, 5, 2, 4, 3, 0});
+    }
+
+    @Test
+    public void spill() throws IOException {
+        LineSorter sorter = new LineSorter(new File(System.getProperty("java.io.tmpdir")), 200);
+        for (int i = 0; i < 100; i++) {
+            sorter.add((i * 7) % 10, i, "line" + i);
+        }
+        Assert.assertTrue(sorter.getRunCount() > 1);
+
+        final List<Long> values = new ArrayList<>();
+        sorter.write(new LineSorter.LineWriter() {
+            @Override
+            public void write(long key, long value, String line) {
+                Assert.assertEquals(line, "line" + value);
+                values.add(value);
+            }
+        });
+        Assert.assertEquals(values.size(), 100);
+        for (int i = 1; i < values.size(); i++) {
+            long pre = values.get(i - 1), cur = values.get(i);
+            Assert.assertTrue((pre * 7) % 10 < (cur * 7) % 10 || ((pre * 7) % 10 == (cur * 7) % 10 && pre < cur));
+        }
+    }
+}
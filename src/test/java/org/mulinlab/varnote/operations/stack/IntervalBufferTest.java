@@ -0,0 +1,52 @@
+package org.mulinlab.varnote.operations.stack;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mulinlab.varnote.utils.node.NodeWithFilePointer;
+
+public class IntervalBufferTest {
+
+    @Test
+    public void remove() {
+        IntervalBuffer buffer = new IntervalBuffer(2);
+        for (int i = 0; i < 10; i++) {
+            buffer.add(new NodeWithFilePointer(i * 10, i * 10 + 5, i, i));
+        }
+        Assert.assertEquals(buffer.size(), 10);
+
+        buffer.remove(0, 3);
+        Assert.assertEquals(buffer.size(), 7);
+        Assert.assertEquals(buffer.getBeg(0), 30);
+
+        buffer.remove(2, 4);
+        Assert.assertEquals(buffer.size(), 5);
+        Assert.assertEquals(buffer.getBeg(1), 40);
+        Assert.assertEquals(buffer.getBeg(2), 70);
+        Assert.assertEquals(buffer.get(4).blockAddress, 9);
+
+        NodeWithFilePointer node = buffer.get(2);
+        node.bgzStr = "line";
+        buffer.update(2);
+        Assert.assertEquals(buffer.get(2).bgzStr, "line");
+        Assert.assertNull(buffer.get(3).bgzStr);
+
+        buffer.remove(0, buffer.size());
+        Assert.assertEquals(buffer.size(), 0);
+    }
+
+    @Test
+    public void keepLineBytes() {
+        IntervalBuffer buffer = new IntervalBuffer();
+        byte[] line = "chr1\t10\t20\tfirst".getBytes();
+        NodeWithFilePointer node = new NodeWithFilePointer(10, 20, 0, 0);
+        node.origBytes = line;
+        node.origLength = line.length;
+        buffer.add(node);
+        line[line.length - 1] = 'X';
+
+        Assert.assertNull(buffer.get(0).origStr);
+        Assert.assertEquals(buffer.get(0).getOrigStr(), "chr1\t10\t20\tfirst");
+        buffer.update(0);
+        Assert.assertEquals(buffer.get(0).origStr, "chr1\t10\t20\tfirst");
+    }
+}
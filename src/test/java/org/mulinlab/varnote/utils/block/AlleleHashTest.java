@@ -0,0 +1,21 @@
+package org.mulinlab.varnote.utils.block;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AlleleHashTest {
+
+    @Test
+    public void match() {
+        int db = AlleleHash.fingerprint("A", "G,T");
+        Assert.assertNotEquals(db, AlleleHash.UNKNOWN);
+
+        Assert.assertTrue(AlleleHash.isMatch(db, AlleleHash.fingerprint("A", "G")));
+        Assert.assertTrue(AlleleHash.isMatch(db, AlleleHash.fingerprint("A", "T")));
+        Assert.assertTrue(AlleleHash.isMatch(db, AlleleHash.fingerprint("A", "C,T")));
+        Assert.assertFalse(AlleleHash.isMatch(db, AlleleHash.fingerprint("AT", "G")));
+
+        Assert.assertTrue(AlleleHash.isMatch(AlleleHash.UNKNOWN, AlleleHash.fingerprint("C", "G")));
+        Assert.assertTrue(AlleleHash.isMatch(db, AlleleHash.fingerprint(null, null)));
+    }
+}
@@ -0,0 +1,37 @@
+package org.mulinlab.varnote.utils.block;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SROBBloomTest {
+
+    @Test
+    public void mightContain() {
+        SROBBloom bloom = new SROBBloom(1);
+        for (int i = 0; i < 100; i++) {
+            bloom.add(1000 + i, 1000 + i, "A", "G,T");
+        }
+        bloom.add();
+        bloom.add(20000, 20001, "AT", "A");
+        bloom.add();
+
+        SROBBloom copy = new SROBBloom(1);
+        copy.add(bloom, 1);
+        copy.add(bloom, 0);
+        Assert.assertEquals(copy.size(), 2);
+
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(bloom.mightContain(0, SROBBloom.key(1000 + i, 1000 + i)));
+            Assert.assertTrue(bloom.mightContain(0, SROBBloom.key(1000 + i, "A", "G")));
+            Assert.assertTrue(copy.mightContain(1, SROBBloom.key(1000 + i, "A", "T")));
+        }
+        Assert.assertTrue(bloom.mightContain(1, SROBBloom.key(20000, "AT", "A")));
+        Assert.assertTrue(copy.mightContain(0, SROBBloom.key(20000, 20001)));
+
+        int falsePositive = 0;
+        for (int i = 0; i < 1000; i++) {
+            if(bloom.mightContain(0, SROBBloom.key(5000 + i, "A", "G"))) falsePositive++;
+        }
+        Assert.assertTrue(falsePositive < 50);
+    }
+}
@@ -0,0 +1,28 @@
+package org.mulinlab.varnote.utils.block;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+
+public class SROBColumnsTest {
+
+    @Test
+    public void encode() throws IOException {
+        SROBColumns columns = new SROBColumns(new int[]{2, 4, 5, 7}, '\t');
+        columns.update("1\t10177\tA\tAC\t0.425\t.\t12");
+        columns.update("1\t10235\tT\tTA\t0.001\tD\t-3");
+        columns.update("1\t10352\tT\tTA\t1e-05\tD");
+
+        String[][] values = SROBColumns.decode(columns.encode(), 4);
+        Assert.assertArrayEquals(values[0], new String[]{"10177", "10235", "10352"});
+        Assert.assertArrayEquals(values[1], new String[]{"AC", "TA", "TA"});
+        Assert.assertArrayEquals(values[2], new String[]{"0.425", "0.001", "1e-05"});
+        Assert.assertArrayEquals(values[3], new String[]{"12", "-3", null});
+
+        columns.update("2\t100\tG\tC\t0.5\t.\t1");
+        values = SROBColumns.decode(columns.encode(), 4);
+        Assert.assertArrayEquals(values[2], new String[]{"0.5"});
+        Assert.assertArrayEquals(values[3], new String[]{"1"});
+    }
+}
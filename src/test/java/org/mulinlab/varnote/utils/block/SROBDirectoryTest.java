@@ -0,0 +1,28 @@
+package org.mulinlab.varnote.utils.block;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SROBDirectoryTest {
+
+    @Test
+    public void lowerBound() {
+        SROBDirectory directory = new SROBDirectory(2);
+        directory.add(0, 100, 200);
+        directory.add(10, 150, 5000);
+        directory.add(20, 300, 400);
+        directory.add(30, 6000, 6100);
+
+        Assert.assertEquals(directory.size(), 4);
+        Assert.assertEquals(directory.lowerBound(1), 0);
+        Assert.assertEquals(directory.lowerBound(200), 0);
+        Assert.assertEquals(directory.lowerBound(201), 1);
+        Assert.assertEquals(directory.lowerBound(4000), 1);
+        Assert.assertEquals(directory.lowerBound(5001), 3);
+        Assert.assertEquals(directory.lowerBound(7000), 4);
+
+        Assert.assertEquals(directory.getVannoFilePointer(2), 20);
+        Assert.assertEquals(directory.getMin(3), 6000);
+        Assert.assertEquals(directory.getMax(1), 5000);
+    }
+}
@@ -0,0 +1,85 @@
+package org.mulinlab.varnote.utils.gz;
+
+import htsjdk.samtools.util.BlockCompressedInputStream;
+import htsjdk.samtools.util.BlockCompressedOutputStream;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+public class BlockCacheTest {
+
+    @Test
+    public void evict() {
+        BlockCache cache = new BlockCache(300);
+        cache.put("db.gz", 0, new BlockCache.Block(new byte[100], 50));
+        cache.put("db.gz", 50, new BlockCache.Block(new byte[100], 90));
+        cache.put("other.gz", 0, new BlockCache.Block(new byte[100], 40));
+        Assert.assertEquals(cache.size(), 300);
+
+        Assert.assertNotNull(cache.get("db.gz", 0));
+        cache.put("db.gz", 90, new BlockCache.Block(new byte[100], 130));
+
+        Assert.assertEquals(cache.size(), 300);
+        Assert.assertNotNull(cache.get("db.gz", 0));
+        Assert.assertNull(cache.get("db.gz", 50));
+        Assert.assertNotNull(cache.get("other.gz", 0));
+        Assert.assertEquals(cache.get("db.gz", 90).getNextBlockAddress(), 130);
+
+        BlockCache.Block block = new BlockCache.Block(new byte[10], 100);
+        Assert.assertNotSame(cache.put("db.gz", 90, block), block);
+
+        cache.setMaxSize(0);
+        Assert.assertEquals(cache.size(), 0);
+    }
+
+    @Test
+    public void readLines() throws IOException {
+        final File file = writeBlocks();
+        assertLines(file, new BlockCache(0), 0);
+    }
+
+    @Test
+    public void readAhead() throws IOException {
+        final File file = writeBlocks();
+        final BlockCache cache = new BlockCache(1 << 30);
+
+        final BlockCacheReader reader = new BlockCacheReader(file.getPath(), cache);
+        reader.seek(0);
+        for (int i = 0; i < 8000; i++) reader.readLine();
+        reader.close();
+
+        assertLines(file, cache, 4);
+    }
+
+    private static File writeBlocks() throws IOException {
+        final File file = File.createTempFile("block", ".gz");
+        file.deleteOnExit();
+        final BlockCompressedOutputStream out = new BlockCompressedOutputStream(file);
+        for (int i = 0; i < 20000; i++) {
+            out.write(String.format("1\t%d\t%d\tline %d\n", i, i + 1, i).getBytes());
+        }
+        out.close();
+        return file;
+    }
+
+    private static void assertLines(final File file, final BlockCache cache, final int readAhead) throws IOException {
+        final BlockCompressedInputStream expected = new BlockCompressedInputStream(file);
+        final BlockCacheReader reader = new BlockCacheReader(file.getPath(), cache);
+        reader.setReadAhead(readAhead);
+        reader.seek(0);
+
+        String line;
+        long filePointer = expected.getFilePointer();
+        while((line = expected.readLine()) != null) {
+            Assert.assertEquals(reader.getFilePointer(), filePointer);
+            Assert.assertEquals(reader.readLine(), line);
+            filePointer = expected.getFilePointer();
+        }
+        Assert.assertNull(reader.readLine());
+
+        expected.close();
+        reader.close();
+    }
+}
@@ -0,0 +1,42 @@
+package org.mulinlab.varnote.utils.gz;
+
+import htsjdk.tribble.readers.TabixReader;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mulinlab.varnote.utils.format.Format;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+public class TbiOutputStreamTest {
+
+    @Test
+    public void queryByContigName() throws IOException {
+        final File file = File.createTempFile("indexed", ".bed.gz");
+        file.deleteOnExit();
+        new File(file.getPath() + ".tbi").deleteOnExit();
+
+        final OutputStream out = new TbiOutputStream(file, Format.newBED(), 2);
+        out.write("#chrom\tstart\tend\tname\n".getBytes());
+        for (int i = 0; i < 5000; i++) {
+            out.write(String.format("chr1\t%d\t%d\tr%d\n", i * 10, i * 10 + 5, i).getBytes());
+        }
+        out.write("chrX\t100\t200\tx1\nchrX\t300\t400\tx2\n".getBytes());
+        out.close();
+
+        final TabixReader reader = new TabixReader(file.getPath());
+        Assert.assertTrue(reader.getChromosomes().contains("chr1"));
+        Assert.assertTrue(reader.getChromosomes().contains("chrX"));
+
+        TabixReader.Iterator iterator = reader.query("chr1:40001-40010");
+        Assert.assertEquals(iterator.next(), "chr1\t40000\t40005\tr4000");
+        Assert.assertNull(iterator.next());
+
+        iterator = reader.query("chrX:150-350");
+        Assert.assertEquals(iterator.next(), "chrX\t100\t200\tx1");
+        Assert.assertEquals(iterator.next(), "chrX\t300\t400\tx2");
+        Assert.assertNull(iterator.next());
+        reader.close();
+    }
+}